@@ -0,0 +1,325 @@
+package org.example;
+
+import com.sun.source.tree.Tree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles Java sources with the compiler of the running JDK, without
+ * touching the file system: sources are read from strings and the
+ * generated class files are kept in memory.
+ */
+public class InMemoryCompiler {
+
+    /**
+     * Options passed to the compiler. The uploaded programs are analyzed
+     * as Java 8 programs (see {@code -java 8} in the Tai-e arguments),
+     * and Tai-e needs the debug information to recover variable names.
+     */
+    private static final List<String> OPTIONS = List.of("-g", "--release", "8");
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    /**
+     * @param sources maps file names (e.g., "Main.java") to source code.
+     * @return a map from binary names (e.g., "main.Main") to class files.
+     */
+    public Map<String, byte[]> compile(Map<String, String> sources) {
+        Map<String, byte[]> classes = new HashMap<>();
+        compile(sources, Map.of(), null).values().forEach(classes::putAll);
+        return classes;
+    }
+
+    /**
+     * Compiles the given sources against the given (previously compiled)
+     * classes, which are not compiled again.
+     *
+     * @param sources      maps file names (e.g., "Main.java") to source code.
+     * @param classPath    maps binary names to the class files that
+     *                     the sources may refer to.
+     * @param dependencies if not null, receives the binary names of the
+     *                     classes that each source depends on, see
+     *                     {@link DependencyCollector}.
+     * @return a map from file names of the sources to the classes
+     * (binary name -> class file) compiled from them.
+     */
+    public Map<String, Map<String, byte[]>> compile(Map<String, String> sources,
+                                                    Map<String, byte[]> classPath,
+                                                    Map<String, Set<String>> dependencies) {
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler available, please run the service on a JDK");
+        }
+        Map<String, Map<String, byte[]>> result = new HashMap<>();
+        if (sources.isEmpty()) {
+            return result;
+        }
+        List<JavaFileObject> units = new ArrayList<>();
+        sources.forEach((name, code) -> units.add(new SourceFile(name, code)));
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<ClassFile> outputs = new ArrayList<>();
+        StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null, null);
+        try (JavaFileManager fileManager = new ClassFileManager(standard, classPath, outputs)) {
+            // do not look up classes in the working directory of the service
+            standard.setLocation(StandardLocation.CLASS_PATH, List.of());
+            JavacTask task = (JavacTask) compiler.getTask(
+                    null, fileManager, diagnostics, OPTIONS, null, units);
+            if (dependencies != null) {
+                task.addTaskListener(new DependencyCollector(task, sources.keySet(), dependencies));
+            }
+            boolean success = task.call();
+            if (!success) {
+                StringBuilder message = new StringBuilder("Compilation failed:");
+                for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+                    if (d.getKind() == Diagnostic.Kind.ERROR) {
+                        message.append(System.lineSeparator()).append(d);
+                    }
+                }
+                throw new RuntimeException(message.toString());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to set up file manager", e);
+        }
+        for (ClassFile output : outputs) {
+            result.computeIfAbsent(output.sourceName, k -> new HashMap<>())
+                    .put(output.className, output.out.toByteArray());
+        }
+        return result;
+    }
+
+    /**
+     * Records the classes that each source depends on, i.e., the classes
+     * of the types and members that javac resolves the names in the source
+     * to, together with all their supertypes. Compared to the classes
+     * referenced in the constant pools of the class files, these also
+     * include the classes whose constants are inlined by javac, and the
+     * classes which declare the inherited members used by the source.
+     */
+    private static class DependencyCollector implements TaskListener {
+
+        private final Trees trees;
+
+        private final Elements elements;
+
+        private final Types types;
+
+        /**
+         * URI -> file name of the compiled sources. The source files given
+         * in the task events are wrapped by javac, thus they are looked up
+         * by their URIs.
+         */
+        private final Map<URI, String> sourceNames = new HashMap<>();
+
+        private final Map<String, Set<String>> dependencies;
+
+        private DependencyCollector(JavacTask task, Set<String> sources,
+                                    Map<String, Set<String>> dependencies) {
+            this.trees = Trees.instance(task);
+            this.elements = task.getElements();
+            this.types = task.getTypes();
+            sources.forEach(name -> sourceNames.put(SourceFile.toURI(name), name));
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public void finished(TaskEvent e) {
+            String source = e.getSourceFile() == null ? null
+                    : sourceNames.get(e.getSourceFile().toUri());
+            if (e.getKind() != TaskEvent.Kind.ANALYZE || source == null) {
+                return;
+            }
+            Set<String> deps = dependencies.computeIfAbsent(source, k -> new HashSet<>());
+            TreePath path = trees.getPath(e.getTypeElement());
+            new TreePathScanner<Void, Void>() {
+                @Override
+                public Void scan(Tree tree, Void p) {
+                    if (tree != null) {
+                        TreePath treePath = new TreePath(getCurrentPath(), tree);
+                        addElement(trees.getElement(treePath), deps);
+                        addType(trees.getTypeMirror(treePath), deps);
+                    }
+                    return super.scan(tree, p);
+                }
+            }.scan(path, null);
+        }
+
+        private void addElement(Element element, Set<String> deps) {
+            while (element != null && !(element instanceof TypeElement)) {
+                element = element.getEnclosingElement();
+            }
+            if (element != null
+                    && deps.add(elements.getBinaryName((TypeElement) element).toString())) {
+                types.directSupertypes(element.asType()).forEach(t -> addType(t, deps));
+            }
+        }
+
+        private void addType(TypeMirror type, Set<String> deps) {
+            if (type instanceof ArrayType array) {
+                addType(array.getComponentType(), deps);
+            } else if (type instanceof DeclaredType declared) {
+                addElement(declared.asElement(), deps);
+            }
+        }
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String name;
+
+        private final String code;
+
+        private SourceFile(String name, String code) {
+            super(toURI(name), Kind.SOURCE);
+            this.name = name;
+            this.code = code;
+        }
+
+        private static URI toURI(String name) {
+            return URI.create("string:///" + name);
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    private static class ClassFile extends SimpleJavaFileObject {
+
+        private final String className;
+
+        /**
+         * Name of the source file of this class.
+         */
+        private final String sourceName;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private ClassFile(String className, String sourceName) {
+            super(toURI(className), Kind.CLASS);
+            this.className = className;
+            this.sourceName = sourceName;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return out;
+        }
+    }
+
+    /**
+     * A compiled class given on the class path.
+     */
+    private static class CompiledClass extends SimpleJavaFileObject {
+
+        private final String className;
+
+        private final byte[] content;
+
+        private CompiledClass(String className, byte[] content) {
+            super(toURI(className), Kind.CLASS);
+            this.className = className;
+            this.content = content;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+    }
+
+    private static URI toURI(String className) {
+        return URI.create("mem:///" + className.replace('.', '/') + JavaFileObject.Kind.CLASS.extension);
+    }
+
+    /**
+     * Serves the compiled classes on the class path from memory,
+     * and redirects the class files generated by the compiler to memory.
+     */
+    private static class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, byte[]> classPath;
+
+        private final List<ClassFile> outputs;
+
+        private ClassFileManager(StandardJavaFileManager fileManager,
+                                 Map<String, byte[]> classPath,
+                                 List<ClassFile> outputs) {
+            super(fileManager);
+            this.classPath = classPath;
+            this.outputs = outputs;
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location, String packageName,
+                                             Set<JavaFileObject.Kind> kinds, boolean recurse) throws IOException {
+            Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+            if (location != StandardLocation.CLASS_PATH
+                    || !kinds.contains(JavaFileObject.Kind.CLASS)) {
+                return files;
+            }
+            List<JavaFileObject> result = new ArrayList<>();
+            files.forEach(result::add);
+            classPath.forEach((className, content) -> {
+                int dot = className.lastIndexOf('.');
+                String pkg = dot == -1 ? "" : className.substring(0, dot);
+                if (pkg.equals(packageName) ||
+                        (recurse && pkg.startsWith(packageName + "."))) {
+                    result.add(new CompiledClass(className, content));
+                }
+            });
+            return result;
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            if (file instanceof CompiledClass compiled) {
+                return compiled.className;
+            }
+            return super.inferBinaryName(location, file);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                   JavaFileObject.Kind kind, FileObject sibling) {
+            String sourceName = sibling instanceof SourceFile source ? source.name : null;
+            ClassFile output = new ClassFile(className, sourceName);
+            outputs.add(output);
+            return output;
+        }
+    }
+}
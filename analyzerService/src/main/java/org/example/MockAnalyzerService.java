@@ -1,87 +1,306 @@
 package org.example;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pascal.taie.config.Options;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
 
 @RestController
 public class MockAnalyzerService {
-    private static final String TAI_E_DIR = getBaseDir() + "/tai-e-zipper";
-    private static final String GRAPH_INPUT_FILE_PATH = getBaseDir() + File.separator + "graphInput.txt";
+    static final String TAI_E_DIR = getBaseDir() + "/tai-e-zipper";
+
+    /**
+     * Each request is analyzed in its own workspace under this directory.
+     */
+    private static final String SESSIONS_DIR = TAI_E_DIR + "/sessions";
+
+    /**
+     * The files kept between the analyses of each project uploaded to
+     * {@code /analyze/incremental} are under this directory.
+     */
+    private static final String PROJECTS_DIR = TAI_E_DIR + "/projects";
+
+    private static final String GRAPH_INPUT_FILE = "graphInput.txt";
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    /**
+     * Number of world caches kept for each project, i.e., the worlds of
+     * its most recently analyzed versions.
+     */
+    private static final int WORLD_CACHES_PER_PROJECT = 2;
+
+    private final TaieAnalysisEngine engine;
+
+    private final InMemoryCompiler compiler = new InMemoryCompiler();
+
+    /**
+     * Project identifier -> last analyzed version of the project.
+     * Only the {@code analyzer.max-projects} most recently used projects
+     * are kept, the other ones are moved to {@link #evicted}.
+     */
+    private final Map<String, ProjectSnapshot> projects;
+
+    /**
+     * Projects evicted from {@link #projects}, whose files are not
+     * deleted yet, as they may still be used by running requests.
+     */
+    private final Queue<ProjectSnapshot> evicted = new ConcurrentLinkedQueue<>();
+
+    public MockAnalyzerService(TaieAnalysisEngine engine,
+                               @Value("${analyzer.max-projects:16}") int maxProjects) {
+        this.engine = engine;
+        this.projects = Collections.synchronizedMap(
+                new LinkedHashMap<String, ProjectSnapshot>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, ProjectSnapshot> eldest) {
+                        if (size() > maxProjects) {
+                            evicted.add(eldest.getValue());
+                            return true;
+                        }
+                        return false;
+                    }
+                });
+        // the snapshots are kept in memory, thus the files of the projects
+        // analyzed by the previous runs of the service are useless
+        if (Files.exists(Path.of(PROJECTS_DIR))) {
+            deleteWorkspace(Path.of(PROJECTS_DIR));
+        }
+    }
 
     @PostMapping("/analyze")
     public ResponseEntity<String> analyze(@RequestParam("files") MultipartFile[] files) {
         System.out.println("Received a request to /analyze");
 
         try {
-            Files.createDirectories(Path.of(TAI_E_DIR + "/input"));
-            List<Path> savedFiles = saveFiles(files);
-            compileJavaFiles(savedFiles);
-            String jarCommand = "java -jar tai-e-all-0.5.1-SNAPSHOT.jar -cp input -m main.Main -java 8 -a \"pta=cs:2-type;only-app:true;distinguish-string-constants:app;dump:true;advanced:zipper\"";
-            executeCommand(jarCommand);
+            Map<String, String> sources = readSources(files);
+            Map<String, byte[]> classes = compiler.compile(sources);
+            return analyze(classes, null);
+        } catch (IOException | InterruptedException e) {
+            System.out.println("Error processing files: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error processing files");
+        }
+    }
 
-            // Read the content of graphInput.txt and return as response
-            return readGraphInputFile();
+    /**
+     * Analyzes a project which is uploaded repeatedly (e.g., on each edit)
+     * by reusing the results of its last upload: only the sources whose
+     * content hashes changed (and the sources referring to them) are
+     * recompiled, the worlds of its recent versions and the results of
+     * their pre-analyses are cached, and the last result is returned
+     * directly if no source changed. The projects are
+     * identified by {@code project}.
+     */
+    @PostMapping("/analyze/incremental")
+    public ResponseEntity<String> analyzeIncremental(
+            @RequestParam("files") MultipartFile[] files,
+            @RequestParam(value = "project", defaultValue = "default") String project) {
+        System.out.println("Received a request to /analyze/incremental for project " + project);
+
+        try {
+            Map<String, String> sources = readSources(files);
+            Map<String, String> hashes = ProjectSnapshot.hash(sources);
+            ProjectSnapshot snapshot = projects.computeIfAbsent(project, k ->
+                    new ProjectSnapshot(Path.of(PROJECTS_DIR, UUID.randomUUID().toString())));
+            deleteEvictedProjects();
+            synchronized (snapshot) {
+                String lastResult = snapshot.getResultIfUnchanged(hashes);
+                if (lastResult != null) {
+                    System.out.println("No source changed, returning the last result");
+                    return ResponseEntity.ok(lastResult);
+                }
+                Map<String, String> toCompile = snapshot.getSourcesToCompile(sources, hashes);
+                System.out.println("Compiling " + toCompile.size() + " of " + sources.size() + " files");
+                Map<String, Set<String>> dependencies = new HashMap<>();
+                Map<String, Map<String, byte[]>> compiled = compiler.compile(toCompile,
+                        snapshot.getClasses(sources.keySet(), toCompile.keySet()), dependencies);
+                snapshot.update(hashes, compiled, dependencies);
+                ResponseEntity<String> response = analyze(snapshot.getAllClasses(), snapshot);
+                if (response.getStatusCode() == HttpStatus.OK) {
+                    snapshot.setResult(response.getBody());
+                }
+                snapshot.pruneWorldCaches(WORLD_CACHES_PER_PROJECT);
+                return response;
+            }
         } catch (IOException | InterruptedException e) {
             System.out.println("Error processing files: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error processing files");
         }
     }
 
-    private List<Path> saveFiles(MultipartFile[] files) throws IOException {
-        List<Path> savedFiles = new ArrayList<>();
+    /**
+     * Deletes the files of the evicted projects, after the running
+     * requests of them finish.
+     */
+    private void deleteEvictedProjects() {
+        ProjectSnapshot snapshot;
+        while ((snapshot = evicted.poll()) != null) {
+            synchronized (snapshot) {
+                if (Files.exists(snapshot.getDir())) {
+                    deleteWorkspace(snapshot.getDir());
+                }
+            }
+        }
+    }
 
-        for (MultipartFile file : files) {
-            Path filePath = Path.of(TAI_E_DIR + "/input", file.getOriginalFilename());
-            System.out.println("Saving uploaded file to: " + filePath.toString());
-            file.transferTo(filePath.toFile());
-            savedFiles.add(filePath);
+    /**
+     * Analyzes the uploaded files and streams the graph as newline-delimited
+     * JSON: one record per node or edge, sent as soon as Tai-e exports it,
+     * so that the IDE can render the graph progressively, and the service
+     * does not hold the whole graph in memory.
+     */
+    @PostMapping(value = "/analyze/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> analyzeStream(@RequestParam("files") MultipartFile[] files) {
+        System.out.println("Received a request to /analyze/stream");
+
+        Map<String, byte[]> classes;
+        Path workspace;
+        try {
+            // compile before streaming, so that compilation errors
+            // are still reported by the status code
+            classes = compiler.compile(readSources(files));
+            workspace = Files.createDirectories(Path.of(SESSIONS_DIR, UUID.randomUUID().toString()));
+        } catch (IOException e) {
+            System.out.println("Error processing files: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
+        StreamingResponseBody body = out -> {
+            try {
+                Options options = Options.parse(getAnalysisArgs(workspace, "ndjson", null));
+                options.setInMemoryClasses(classes);
+                options.setGraphInputStream(out);
+                engine.analyze(options);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while analyzing", e);
+            } finally {
+                deleteWorkspace(workspace);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Analyzes the given classes in a temporary workspace.
+     *
+     * @param project the project whose caches are used by the analysis,
+     *                or null if the analysis keeps no caches.
+     * @return the graph input created from the analysis results.
+     */
+    private ResponseEntity<String> analyze(Map<String, byte[]> classes, ProjectSnapshot project)
+            throws IOException, InterruptedException {
+        Path workspace = Files.createDirectories(Path.of(SESSIONS_DIR, UUID.randomUUID().toString()));
+        try {
+            Options options = Options.parse(getAnalysisArgs(workspace, "text", project));
+            options.setInMemoryClasses(classes);
+            options.setGraphInputFile(workspace.resolve(GRAPH_INPUT_FILE).toFile());
+            engine.analyze(options);
 
-        return savedFiles;
+            // Read the content of graphInput.txt and return as response
+            return readGraphInputFile(workspace.resolve(GRAPH_INPUT_FILE));
+        } finally {
+            deleteWorkspace(workspace);
+        }
     }
 
-    private void compileJavaFiles(List<Path> javaFiles) throws IOException, InterruptedException {
-        // Compile all .java files using javac
-        String compileCommand = "javac -g -d input input/*.java";
-        executeCommand(compileCommand);
+    /**
+     * @return arguments of Tai-e for analyzing the sample program
+     * under input/, which is read from the class path.
+     */
+    static String[] getTaieArgs() {
+        return Stream.concat(Stream.of("-cp", TAI_E_DIR + "/input"),
+                Stream.of(getCommonArgs("text", false))).toArray(String[]::new);
     }
 
-    private void executeCommand(String command) throws IOException, InterruptedException {
-        String[] commandArgs = command.split("\\s+");
-        ProcessBuilder processBuilder = new ProcessBuilder(commandArgs);
-        processBuilder.directory(new File(TAI_E_DIR));
-        Process process = processBuilder.start();
-        int exitCode = process.waitFor();
+    /**
+     * @return arguments of Tai-e for analyzing uploaded programs, whose
+     * classes are given in memory instead of by a class path, and whose
+     * results are written to the given workspace. If {@code project} is not
+     * null, the world and the method groups found by Zipper are cached in
+     * the directory of the project.
+     */
+    private static String[] getAnalysisArgs(Path workspace, String graphFormat, ProjectSnapshot project) {
+        Stream<String> cacheArgs = project == null ? Stream.of() :
+                Stream.of("-wc", "--cache-dir", project.getCacheDir().toAbsolutePath().toString());
+        return Stream.of(Stream.of("--output-dir", workspace.resolve("output").toString()),
+                        cacheArgs,
+                        Stream.of(getCommonArgs(graphFormat, project != null)))
+                .flatMap(s -> s)
+                .toArray(String[]::new);
+    }
+
+    /**
+     * @param graphFormat format of the graph input, i.e., text or ndjson.
+     * @param preAnalysisCache whether to cache the results of pre-analyses,
+     *                         which is enabled only when the cache directory
+     *                         belongs to a project.
+     */
+    private static String[] getCommonArgs(String graphFormat, boolean preAnalysisCache) {
+        return new String[]{
+                "-m", "main.Main",
+                "-java", "8",
+                "-a", "pta=cs:2-type;only-app:true;distinguish-string-constants:app;graph-input:true;" +
+                "graph-input-format:" + graphFormat + ";advanced:zipper" +
+                (preAnalysisCache ? ";pre-analysis-cache:true" : "")
+        };
+    }
 
-        if (exitCode != 0) {
-            throw new RuntimeException("Command failed: " + command + ", with exit code: " + exitCode);
+    private Map<String, String> readSources(MultipartFile[] files) throws IOException {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (MultipartFile file : files) {
+            sources.put(file.getOriginalFilename(),
+                    new String(file.getBytes(), StandardCharsets.UTF_8));
         }
+        return sources;
     }
 
-    private ResponseEntity<String> readGraphInputFile() throws IOException {
+    private ResponseEntity<String> readGraphInputFile(Path graphInputFile) throws IOException {
         // Read the content of graphInput.txt
-        File graphInputFile = new File(GRAPH_INPUT_FILE_PATH);
-        if (graphInputFile.exists()) {
-            System.out.println("Reading contents of: " + GRAPH_INPUT_FILE_PATH);
-            String output = new String(Files.readAllBytes(graphInputFile.toPath()));
+        if (Files.exists(graphInputFile)) {
+            System.out.println("Reading contents of: " + graphInputFile);
+            String output = Files.readString(graphInputFile);
             System.out.println("Returning content of graphInput.txt");
             return ResponseEntity.ok(output);
         } else {
-            System.out.println("Graph input file not found at: " + GRAPH_INPUT_FILE_PATH);
+            System.out.println("Graph input file not found at: " + graphInputFile);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Graph input file not found");
         }
     }
 
+    private void deleteWorkspace(Path workspace) {
+        try (Stream<Path> paths = Files.walk(workspace)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .map(Path::toFile)
+                    .forEach(File::delete);
+        } catch (IOException e) {
+            System.out.println("Failed to delete workspace " + workspace + ": " + e.getMessage());
+        }
+    }
+
     private static String getBaseDir() {
-        return new File("").getAbsolutePath();
+        // the embedded Tai-e runs from its own directory (see bootRun in build.gradle),
+        // thus the service directory is given by the same variable Tai-e reads
+        String servicePath = System.getenv("ANALYZER_SERVICE_PATH");
+        return servicePath != null ? servicePath : new File("").getAbsolutePath();
     }
 }
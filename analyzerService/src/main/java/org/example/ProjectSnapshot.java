@@ -0,0 +1,209 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The last analyzed version of a project uploaded to
+ * {@code /analyze/incremental}, i.e., the content hash of each source file,
+ * the classes compiled from each source file and the classes it depends on,
+ * and the analysis result. The other files of the project (e.g., its caches)
+ * are kept in its directory.
+ * Callers must synchronize on the snapshot when using it.
+ */
+class ProjectSnapshot {
+
+    /**
+     * Directory which keeps the files of the project.
+     */
+    private final Path dir;
+
+    /**
+     * Source file name -> hash of its content.
+     */
+    private Map<String, String> hashes = Map.of();
+
+    /**
+     * Source file name -> classes (binary name -> class file) compiled from it.
+     */
+    private final Map<String, Map<String, byte[]>> classes = new HashMap<>();
+
+    /**
+     * Source file name -> binary names of the classes it depends on,
+     * as recorded by {@link InMemoryCompiler} when compiling the source.
+     */
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+
+    private String graphInput;
+
+    /**
+     * @param dir directory which keeps the files of the project.
+     */
+    ProjectSnapshot(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * @return hashes of the given sources.
+     */
+    static Map<String, String> hash(Map<String, String> sources) {
+        Map<String, String> hashes = new LinkedHashMap<>();
+        sources.forEach((name, code) -> hashes.put(name, sha256(code)));
+        return hashes;
+    }
+
+    static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(
+                    digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the analysis result of the snapshot if the sources
+     * with given hashes are the same as the snapshot, otherwise null.
+     */
+    String getResultIfUnchanged(Map<String, String> newHashes) {
+        return newHashes.equals(hashes) ? graphInput : null;
+    }
+
+    /**
+     * Selects the sources that need to be compiled: the added and modified
+     * sources, and the unchanged sources that depend on any class declared
+     * in an added, modified or removed source or in another selected source,
+     * as their class files may be stale (e.g., they may contain the inlined
+     * constants of such classes).
+     */
+    Map<String, String> getSourcesToCompile(Map<String, String> sources,
+                                            Map<String, String> newHashes) {
+        Set<String> selected = new HashSet<>();
+        sources.keySet().forEach(name -> {
+            if (!newHashes.get(name).equals(hashes.get(name))
+                    || !classes.containsKey(name)) {
+                selected.add(name);
+            }
+        });
+        Set<String> staleClasses = new HashSet<>();
+        hashes.keySet().forEach(name -> {
+            if (!sources.containsKey(name)) {
+                staleClasses.addAll(classes.getOrDefault(name, Map.of()).keySet());
+            }
+        });
+        // a source selected for compiling may change its classes,
+        // thus its dependents are selected as well
+        List<String> queue = new ArrayList<>(selected);
+        while (true) {
+            queue.forEach(name -> staleClasses.addAll(
+                    classes.getOrDefault(name, Map.of()).keySet()));
+            queue.clear();
+            sources.keySet().forEach(name -> {
+                if (!selected.contains(name) && dependsOn(name, staleClasses)) {
+                    queue.add(name);
+                }
+            });
+            if (queue.isEmpty()) {
+                break;
+            }
+            selected.addAll(queue);
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        sources.forEach((name, code) -> {
+            if (selected.contains(name)) {
+                result.put(name, code);
+            }
+        });
+        return result;
+    }
+
+    private boolean dependsOn(String source, Set<String> classNames) {
+        return dependencies.getOrDefault(source, Set.of())
+                .stream()
+                .anyMatch(classNames::contains);
+    }
+
+    /**
+     * @return the compiled classes of the sources in {@code sources}
+     * but not in {@code excluded}.
+     */
+    Map<String, byte[]> getClasses(Set<String> sources, Set<String> excluded) {
+        Map<String, byte[]> result = new HashMap<>();
+        classes.forEach((name, compiled) -> {
+            if (sources.contains(name) && !excluded.contains(name)) {
+                result.putAll(compiled);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Updates the snapshot with the newly compiled classes.
+     */
+    void update(Map<String, String> newHashes, Map<String, Map<String, byte[]>> compiled,
+                Map<String, Set<String>> newDependencies) {
+        classes.keySet().retainAll(newHashes.keySet());
+        classes.putAll(compiled);
+        dependencies.keySet().retainAll(newHashes.keySet());
+        dependencies.putAll(newDependencies);
+        hashes = newHashes;
+        graphInput = null;
+    }
+
+    /**
+     * @return all classes of the snapshot.
+     */
+    Map<String, byte[]> getAllClasses() {
+        return getClasses(classes.keySet(), Set.of());
+    }
+
+    Path getDir() {
+        return dir;
+    }
+
+    Path getCacheDir() {
+        return dir.resolve("cache");
+    }
+
+    /**
+     * Deletes the world caches of the project except the {@code n}
+     * most recently written ones, which are likely to be used again
+     * (e.g., when an edit is reverted).
+     */
+    void pruneWorldCaches(int n) {
+        if (!Files.isDirectory(getCacheDir())) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(getCacheDir())) {
+            files.filter(f -> f.getFileName().toString().startsWith("world-"))
+                    .sorted(Comparator.comparing(ProjectSnapshot::getModifiedTime).reversed())
+                    .skip(n)
+                    .forEach(f -> f.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Failed to prune world caches of " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static long getModifiedTime(Path file) {
+        return file.toFile().lastModified();
+    }
+
+    void setResult(String graphInput) {
+        this.graphInput = graphInput;
+    }
+}
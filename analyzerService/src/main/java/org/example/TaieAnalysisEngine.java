@@ -0,0 +1,92 @@
+package org.example;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pascal.taie.World;
+import pascal.taie.config.Options;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs Tai-e inside the service JVM on a bounded pool of long-lived workers.
+ * Compared to forking {@code java -jar tai-e-all.jar} for every request,
+ * the classes of Tai-e and Soot stay loaded and JIT-compiled between
+ * requests, so each request only pays for analyzing the uploaded program.
+ * Each analysis runs in its own Tai-e session with its own {@code World},
+ * hence up to {@code analyzer.workers} analyses run in parallel, and the
+ * available processors are shared by the sessions.
+ */
+@Component
+public class TaieAnalysisEngine {
+
+    private final ExecutorService workers;
+
+    /**
+     * Parallelism of each session, i.e., the number of threads
+     * used by the parallel parts of an analysis.
+     */
+    private final int sessionParallelism;
+
+    public TaieAnalysisEngine(@Value("${analyzer.workers:2}") int nWorkers) {
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(nWorkers, r -> {
+            Thread thread = new Thread(r, "tai-e-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sessionParallelism = Math.max(1,
+                Runtime.getRuntime().availableProcessors() / nWorkers);
+        System.out.println("Running Tai-e on " + nWorkers + " workers");
+    }
+
+    /**
+     * Warms up a worker by analyzing the bundled sample program (if any),
+     * so that the first request from the IDE does not pay for class loading
+     * and JIT warm-up.
+     */
+    @PostConstruct
+    public void warmUp() {
+        File sampleInput = new File(MockAnalyzerService.TAI_E_DIR, "input/main");
+        if (!sampleInput.isDirectory()) {
+            System.out.println("No sample input found, skipping warm-up of Tai-e");
+            return;
+        }
+        workers.submit(() -> {
+            System.out.println("Warming up Tai-e...");
+            try {
+                runSession(Options.parse(MockAnalyzerService.getTaieArgs()));
+                System.out.println("Tai-e is warmed up");
+            } catch (RuntimeException e) {
+                System.out.println("Failed to warm up Tai-e: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Runs Tai-e with the given options on a worker and waits for it.
+     */
+    public void analyze(Options options) throws InterruptedException {
+        Future<?> result = workers.submit(() -> runSession(options));
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Tai-e failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private void runSession(Options options) {
+        World.runInSession(() -> pascal.taie.Main.run(options), sessionParallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -22,10 +22,17 @@
 
 package pascal.taie;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.plugin.reflection.LogItem;
+import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.Options;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.StringReps;
 import pascal.taie.language.natives.DefaultNativeModel;
 import pascal.taie.language.natives.EmptyNativeModel;
 import pascal.taie.language.natives.NativeModel;
@@ -35,6 +42,7 @@ import pascal.taie.util.collection.Streams;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -49,7 +57,13 @@ public abstract class AbstractWorldBuilder implements WorldBuilder {
 
     private static final Logger logger = LogManager.getLogger(AbstractWorldBuilder.class);
 
-    protected static final String JREs = "java-benchmarks/JREs";
+    public static final String JREs = "java-benchmarks/JREs";
+
+    /**
+     * Path to the file which specifies the basic classes that should be
+     * loaded in advance.
+     */
+    private static final String BASIC_CLASSES = "basic-classes.yml";
 
     protected static final List<String> implicitEntries = List.of(
             "<java.lang.System: void initializeSystemClass()>",
@@ -127,6 +141,58 @@ public abstract class AbstractWorldBuilder implements WorldBuilder {
         for (String path : options.getAppClassPath()) {
             classes.addAll(ClassNameExtractor.extract(path));
         }
+        // process in-memory classes
+        classes.addAll(options.getInMemoryClasses().keySet());
+        return classes;
+    }
+
+    /**
+     * Reads basic classes specified by file {@link #BASIC_CLASSES}.
+     */
+    protected static List<String> getBasicClasses() {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        JavaType type = mapper.getTypeFactory()
+                .constructCollectionType(List.class, String.class);
+        try {
+            InputStream content = AbstractWorldBuilder.class
+                    .getClassLoader()
+                    .getResourceAsStream(BASIC_CLASSES);
+            return mapper.readValue(content, type);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read basic classes", e);
+        }
+    }
+
+    /**
+     * Obtains the classes in the reflection log of pointer analysis
+     * (if given), which should be loaded in advance as the classes
+     * are reached by reflection.
+     *
+     * @param analyses the analyses to be executed
+     */
+    protected static List<String> getReflectionLogClasses(List<AnalysisConfig> analyses) {
+        List<String> classes = new ArrayList<>();
+        analyses.forEach(config -> {
+            if (config.getId().equals(PointerAnalysis.ID)) {
+                String path = config.getOptions().getString("reflection-log");
+                if (path != null) {
+                    LogItem.load(path).forEach(item -> {
+                        // add target class
+                        String target = item.target;
+                        String targetClass;
+                        if (target.startsWith("<")) {
+                            targetClass = StringReps.getClassNameOf(target);
+                        } else {
+                            targetClass = target;
+                        }
+                        if (StringReps.isArrayType(targetClass)) {
+                            targetClass = StringReps.getBaseTypeNameOf(target);
+                        }
+                        classes.add(targetClass);
+                    });
+                }
+            }
+        });
         return classes;
     }
 }
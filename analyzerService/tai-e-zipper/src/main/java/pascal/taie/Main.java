@@ -35,17 +35,15 @@ import pascal.taie.config.Plan;
 import pascal.taie.config.PlanConfig;
 import pascal.taie.config.Scope;
 import pascal.taie.frontend.cache.CachedWorldBuilder;
+import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Timer;
 import pascal.taie.util.collection.Lists;
 
-import java.io.*;
+import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Map;
 
 public class Main {
 
@@ -60,13 +58,80 @@ public class Main {
                 logger.info("No analyses are specified");
                 System.exit(0);
             }
-            buildWorld(options, plan.analyses());
-            executePlan(plan);
-            LoggerConfigs.reconfigure();
-            createGraphInput();
+            execute(options, plan);
+        }, "Tai-e");
+    }
+
+    /**
+     * Runs Tai-e in the current JVM. Different from {@link #main(String...)},
+     * this method never terminates the JVM, so that it can be called
+     * repeatedly by long-running embedders (e.g., the analyzer service),
+     * which keep Tai-e classes loaded and JIT-compiled across runs.
+     * The failures, e.g., the world builder cannot be instantiated,
+     * are thrown as {@link AnalysisException}.
+     * <p>
+     * Since {@link World} is a global singleton, the callers must not
+     * invoke this method concurrently, unless each invocation runs in
+     * its own session (see {@link World#runInSession(Runnable, int)}).
+     */
+    public static void run(String... args) {
+        run(Map.of(), args);
+    }
+
+    /**
+     * Runs Tai-e in the current JVM on the program that consists of
+     * the given in-memory classes (class name -> class file content)
+     * in addition to the classes specified by {@code args}.
+     *
+     * @see #run(String...)
+     */
+    public static void run(Map<String, byte[]> classes, String... args) {
+        Options options = Options.parse(args);
+        options.setInMemoryClasses(classes);
+        run(options);
+    }
+
+    /**
+     * Runs Tai-e in the current JVM with the given options, which allows
+     * the embedders to set the programmatic options.
+     *
+     * @see #run(String...)
+     */
+    public static void run(Options options) {
+        Timer.runAndCount(() -> {
+            // the log file is set by reconfiguring the global logger,
+            // thus it is not set for concurrent sessions
+            boolean logToFile = World.getSession() == null;
+            if (logToFile) {
+                LoggerConfigs.setOutput(options.getOutputDir());
+            }
+            try {
+                Plan plan = processConfigs(options);
+                if (plan.analyses().isEmpty()) {
+                    logger.info("No analyses are specified");
+                } else {
+                    buildWorld(options, plan.analyses());
+                    executePlan(plan);
+                }
+            } finally {
+                if (logToFile) {
+                    LoggerConfigs.reconfigure();
+                }
+            }
         }, "Tai-e");
     }
 
+    private static void execute(Options options, Plan plan) {
+        try {
+            buildWorld(options, plan.analyses());
+        } catch (AnalysisException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+        executePlan(plan);
+        LoggerConfigs.reconfigure();
+    }
+
     /**
      * If the given options is empty or specify to print help information,
      * then print help and exit immediately.
@@ -118,10 +183,18 @@ public class Main {
      */
     public static void buildWorld(String... args) {
         Options options = Options.parse(args);
-        LoggerConfigs.setOutput(options.getOutputDir());
-        Plan plan = processConfigs(options);
-        buildWorld(options, plan.analyses());
-        LoggerConfigs.reconfigure();
+        boolean logToFile = World.getSession() == null;
+        if (logToFile) {
+            LoggerConfigs.setOutput(options.getOutputDir());
+        }
+        try {
+            Plan plan = processConfigs(options);
+            buildWorld(options, plan.analyses());
+        } finally {
+            if (logToFile) {
+                LoggerConfigs.reconfigure();
+            }
+        }
     }
 
     private static void buildWorld(Options options, List<AnalysisConfig> analyses) {
@@ -146,8 +219,7 @@ public class Main {
                                 .sum());
             } catch (InstantiationException | IllegalAccessException |
                     NoSuchMethodException | InvocationTargetException e) {
-                System.err.println("Failed to build world due to " + e);
-                System.exit(1);
+                throw new AnalysisException("Failed to build world due to " + e, e);
             }
         }, "WorldBuilder");
     }
@@ -155,141 +227,4 @@ public class Main {
     private static void executePlan(Plan plan) {
         new AnalysisManager(plan).execute();
     }
-
-    private static void createGraphInput() {
-        private static final String ANALYZER_SERVICE_PATH = System.getenv("ANALYZER_SERVICE_PATH");
-        Timer.runAndCount(() -> {
-            try {
-                String sourceFilePath = ANALYZER_SERVICE_PATH + "/tai-e-zipper/input/Main.java";
-                Map<Integer, String> lineNumberToVariable = extractVariableNames(sourceFilePath);
-                BufferedReader reader = new BufferedReader(new FileReader(ANALYZER_SERVICE_PATH + "/tai-e-zipper/pta-results.txt"));
-                Map<String, String> variableToType = new HashMap<>();
-                Map<String, Set<String>> typeToProperties = new HashMap<>();
-                Map<String, String> variableToLineInfo = new HashMap<>();
-                List<String[]> relationships = new ArrayList<>();
-                String line;
-
-                Pattern varPattern = Pattern.compile("\\[\\]:NewObj\\{<main\\.\\w+: void main\\(java\\.lang\\.String\\[\\]\\)>\\[(\\d+)@L(\\d+)] new main\\.(\\w+)}");
-                Pattern relationshipPattern = Pattern.compile("\\[]:<main\\.(\\w+): void (\\w+)\\(main\\.(\\w+)\\)>/(%?\\w+) -> \\[\\[\\]:NewObj\\{<main\\.\\w+: void main\\(java\\.lang\\.String\\[\\]\\)>\\[\\d+@L(\\d+)] new main\\.(\\w+)}");
-                Pattern nextRelationshipPattern = Pattern.compile(", \\[]:NewObj\\{<main\\.\\w+: void main\\(java\\.lang\\.String\\[\\]\\)>\\[\\d+@L(\\d+)] new main\\.\\w+}");
-
-                while ((line = reader.readLine()) != null) {
-                    Matcher varMatcher = varPattern.matcher(line);
-                    if (varMatcher.find()) {
-                        int lineNum = Integer.parseInt(varMatcher.group(2));
-                        String type = varMatcher.group(3);
-                        String variableName = lineNumberToVariable.get(lineNum);
-                        if (variableName != null) {
-                            variableToType.put(variableName, type);
-                            variableToLineInfo.put(variableName, varMatcher.group(2) + "@" + varMatcher.group(3));
-                        }
-                    }
-
-                    Matcher relMatcher = relationshipPattern.matcher(line);
-                    if (relMatcher.find()) {
-                        String relationship = relMatcher.group(2);
-                        int lineNum1 = Integer.parseInt(relMatcher.group(5)); // Line number in Main.java where object is created
-
-                        String nextLine = reader.readLine();
-                        Matcher relMatcher2 = relationshipPattern.matcher(nextLine);
-                        if (relMatcher2.find()) {
-                            int lineNum2 = Integer.parseInt(relMatcher2.group(5)); // Line number in Main.java where method is called
-
-                            String varName1 = lineNumberToVariable.get(lineNum1);
-                            String varName2 = lineNumberToVariable.get(lineNum2);
-                            relationships.add(new String[]{ varName1, varName2, relationship });
-
-                            Matcher nextRelMatcher = nextRelationshipPattern.matcher(nextLine);
-                            if (nextRelMatcher.find()) {
-                                int additionalLineNum2 = Integer.parseInt(nextRelMatcher.group(1)); // Line number in Main.java where method is called
-                                varName2 = lineNumberToVariable.get(additionalLineNum2);
-                                relationships.add(new String[]{ varName1, varName2, relationship });
-                            }
-                        }
-                    }
-
-                    if (line.contains("Points-to sets of all instance fields")) {
-                        while ((line = reader.readLine()) != null) {
-                            if (line.toLowerCase().contains("thread")) {
-                                continue;
-                            }
-
-                            Pattern propPattern = Pattern.compile("\\[\\]:NewObj\\{<main\\.\\w+: void .* new main\\.(\\w+)}\\.(\\w+) ->");
-                            Matcher propMatcher = propPattern.matcher(line);
-                            while (propMatcher.find()) {
-                                String type = propMatcher.group(1);
-                                String property = propMatcher.group(2);
-                                typeToProperties.computeIfAbsent(type, k -> new HashSet<>()).add(property);
-                            }
-                        }
-                    }
-                }
-                reader.close();
-
-                String outputPath = ANALYZER_SERVICE_PATH + "/graphInput.txt";
-                BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath));
-
-                for (Map.Entry<String, String> entry : variableToType.entrySet()) {
-                    String variableName = entry.getKey();
-                    String typeName = entry.getValue();
-                    Set<String> properties = typeToProperties.getOrDefault(typeName, new HashSet<>());
-                    String lineInfo = variableToLineInfo.get(variableName);
-                    if (lineInfo.contains("@")) {
-                        String node1 = String.format("(nodeLabel = \"%s\", nodeType = \"var\", properties = [])", variableName);
-                        String node2 = String.format("(nodeLabel = \"%s\", nodeType = \"type\", properties = %s)", typeName, properties);
-                        String pair = String.format("(%s, %s)\n", node1, node2);
-                        writer.write(pair);
-                    }
-                }
-
-                for (String[] relationship : relationships) {
-                    String varName1 = relationship[0];
-                    String varName2 = relationship[1];
-                    String edgeText = relationship[2];
-                    String node1 = String.format("nodeLabel = \"%s\", nodeType = \"var\", properties = []", varName1);
-                    String node2 = String.format("nodeLabel = \"%s\", nodeType = \"var\", properties = []", varName2);
-                    String relEntry = String.format("((%s), (%s), edgeText = \"%s\")\n", node1, node2, edgeText);
-                    writer.write(relEntry);
-                }
-
-                writer.close();
-                printFileContent(outputPath); // TODO: delete this. only for debug
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }, "createGraphInput");
-    }
-
-    private static void printFileContent(String filePath) {  // TODO: delete this. only for debug
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(filePath));
-            String line;
-            System.out.println("File content:");
-            while ((line = reader.readLine()) != null) {
-                System.out.println(line);
-            }
-            reader.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private static Map<Integer, String> extractVariableNames(String sourceFilePath) {
-        Map<Integer, String> lineNumberToVariable = new HashMap<>();
-        try {
-            List<String> lines = Files.readAllLines(Paths.get(sourceFilePath));
-            Pattern pattern = Pattern.compile("\\s*(\\w+)\\s+(\\w+)\\s*=\\s*new\\s*([^\\s]+)\\(");
-
-            for (int i = 0; i < lines.size(); i++) {
-                Matcher matcher = pattern.matcher(lines.get(i));
-                if (matcher.find()) {
-                    String varName = matcher.group(2);
-                    lineNumberToVariable.put(i + 1, varName);  // Line numbers are 1-based
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return lineNumberToVariable;
-    }
 }
@@ -31,6 +31,7 @@ import pascal.taie.language.natives.NativeModel;
 import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.AbstractResultHolder;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -40,6 +41,12 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
 
 /**
  * Manages the whole-program information of the program being analyzed.
@@ -54,6 +61,22 @@ public final class World extends AbstractResultHolder
      */
     private static World theWorld;
 
+    /**
+     * The session of current thread, if any. It is set only for the
+     * worker threads of the sessions' fork-join pools. This is deliberately
+     * not inheritable: other threads started during a session (e.g., the
+     * threads of the common pool or of the logger) outlive the session,
+     * and must not see its world in the subsequent sessions.
+     *
+     * @see #runInSession(Runnable, int)
+     */
+    private static final ThreadLocal<Session> currentSession = new ThreadLocal<>();
+
+    /**
+     * Number of running sessions. Guarded by {@link #resetCallbacks}.
+     */
+    private static int activeSessions = 0;
+
     /**
      * The callbacks that will be invoked at resetting.
      * This is useful to clear class-level caches.
@@ -85,27 +108,140 @@ public final class World extends AbstractResultHolder
 
     private Collection<JMethod> implicitEntries;
 
+    /**
+     * The actions that will be invoked when this world is reset.
+     * Guarded by this world.
+     */
+    private transient List<Runnable> resetActions;
+
     /**
      * Sets current world to {@code world}.
+     * If current thread is in a session, then only the world of the
+     * session is set.
      */
     public static void set(World world) {
-        theWorld = world;
+        Session session = currentSession.get();
+        if (session != null) {
+            session.world = world;
+        } else {
+            theWorld = world;
+        }
     }
 
     /**
      * @return the current {@code World} instance.
      */
     public static World get() {
-        return theWorld;
+        Session session = currentSession.get();
+        return session != null ? session.world : theWorld;
     }
 
     public static void registerResetCallback(Runnable callback) {
-        resetCallbacks.add(callback);
+        synchronized (resetCallbacks) {
+            resetCallbacks.add(callback);
+        }
     }
 
+    /**
+     * Resets current world. If current thread is in a session, then
+     * only the world of the session is reset, and the reset callbacks
+     * are deferred until all sessions finish, as the class-level caches
+     * cleared by them are shared by the concurrent sessions.
+     */
     public static void reset() {
-        theWorld = null;
-        resetCallbacks.forEach(Runnable::run);
+        Session session = currentSession.get();
+        if (session != null) {
+            World world = session.world;
+            session.world = null;
+            runResetActions(world);
+            return;
+        }
+        World world;
+        synchronized (resetCallbacks) {
+            world = theWorld;
+            theWorld = null;
+            resetCallbacks.forEach(Runnable::run);
+        }
+        runResetActions(world);
+    }
+
+    /**
+     * Registers an action which will be invoked when this world is reset,
+     * or when the session of this world finishes. This is useful to release
+     * the resources which are held by the results of the analyses on this
+     * world, e.g., the off-heap storage of points-to sets.
+     */
+    public synchronized void registerResetAction(Runnable action) {
+        if (resetActions == null) {
+            resetActions = new ArrayList<>();
+        }
+        resetActions.add(action);
+    }
+
+    private static void runResetActions(@Nullable World world) {
+        if (world != null) {
+            List<Runnable> actions;
+            synchronized (world) {
+                actions = world.resetActions;
+                world.resetActions = null;
+            }
+            if (actions != null) {
+                actions.forEach(Runnable::run);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code task} in a new session, which isolates the world
+     * built and analyzed by {@code task} from the worlds of other sessions
+     * and the global world, so that multiple programs can be analyzed
+     * concurrently in the same JVM.
+     * <p>
+     * The task is executed in a fork-join pool dedicated to the session,
+     * thus the parallel streams used by the analyses also run in the pool
+     * and see the world of the session.
+     *
+     * @param task        the task to be executed
+     * @param parallelism parallelism of the session's fork-join pool
+     */
+    public static void runInSession(Runnable task, int parallelism) {
+        Session session = new Session();
+        ForkJoinPool pool = new ForkJoinPool(parallelism,
+                p -> new SessionWorkerThread(p, session), null, false);
+        synchronized (resetCallbacks) {
+            ++activeSessions;
+        }
+        try {
+            pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running session", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            } else if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+            World world = session.world;
+            session.world = null;
+            runResetActions(world);
+            synchronized (resetCallbacks) {
+                if (--activeSessions == 0 && theWorld == null) {
+                    resetCallbacks.forEach(Runnable::run);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the session of current thread, or {@code null}
+     * if current thread is not in any session.
+     */
+    public static Session getSession() {
+        return currentSession.get();
     }
 
     public Options getOptions() {
@@ -181,6 +317,58 @@ public final class World extends AbstractResultHolder
         }
     }
 
+    /**
+     * An isolated analysis session, which holds its own world and
+     * the session-level states of other components (e.g., the frontend).
+     */
+    public static final class Session {
+
+        private volatile World world;
+
+        private final Map<Object, Object> locals = new ConcurrentHashMap<>();
+
+        private Session() {
+        }
+
+        /**
+         * @return the session-level state associated with {@code key},
+         * created by {@code factory} if absent.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T getLocal(Object key, Supplier<T> factory) {
+            return (T) locals.computeIfAbsent(key, k -> factory.get());
+        }
+
+        /**
+         * Associates session-level state {@code value} with {@code key}.
+         */
+        public void setLocal(Object key, Object value) {
+            locals.put(key, value);
+        }
+    }
+
+    private static final class SessionWorkerThread extends ForkJoinWorkerThread {
+
+        private final Session session;
+
+        private SessionWorkerThread(ForkJoinPool pool, Session session) {
+            super(pool);
+            this.session = session;
+        }
+
+        @Override
+        protected void onStart() {
+            super.onStart();
+            currentSession.set(session);
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            currentSession.remove();
+            super.onTermination(exception);
+        }
+    }
+
     @Serial
     private void writeObject(ObjectOutputStream s) throws IOException {
         s.defaultWriteObject();
@@ -23,19 +23,27 @@
 package pascal.taie.analysis.pta;
 
 import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.pta.core.cs.element.ArrayBasedCSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelectorFactory;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.MahjongHeapModel;
 import pascal.taie.analysis.pta.core.solver.DefaultSolver;
+import pascal.taie.analysis.pta.core.solver.ParallelSolver;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.AnalysisTimer;
 import pascal.taie.analysis.pta.plugin.ClassInitializer;
 import pascal.taie.analysis.pta.plugin.CompositePlugin;
 import pascal.taie.analysis.pta.plugin.EntryPointHandler;
+import pascal.taie.analysis.pta.plugin.GraphExporter;
+import pascal.taie.analysis.pta.plugin.IRPrefetcher;
 import pascal.taie.analysis.pta.plugin.Plugin;
 import pascal.taie.analysis.pta.plugin.ReferenceHandler;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
@@ -48,21 +56,31 @@ import pascal.taie.analysis.pta.plugin.natives.NativeModeller;
 import pascal.taie.analysis.pta.plugin.reflection.ReflectionAnalysis;
 import pascal.taie.analysis.pta.plugin.taint.TaintAnalysis;
 import pascal.taie.analysis.pta.toolkit.CollectionMethods;
-import pascal.taie.analysis.pta.toolkit.zipper3.Zipper;
+import pascal.taie.analysis.pta.toolkit.mahjong.Mahjong;
+import pascal.taie.analysis.pta.toolkit.scaler.Scaler;
+import pascal.taie.analysis.pta.toolkit.zipper.PreAnalysisCache;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper.MethodGroups;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.Timer;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
 
     public static final String ID = "pta";
 
+    private static final Logger logger = LogManager.getLogger(PointerAnalysis.class);
+
     public PointerAnalysis(AnalysisConfig config) {
         super(config);
     }
@@ -78,40 +96,105 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
             if (advanced.equals("collection")) {
                 selector = ContextSelectorFactory.makeSelectiveSelector(cs,
                         new CollectionMethods(World.get().getClassHierarchy()).get());
+            } else if (advanced.startsWith("zipper")) {
+                selector = ContextSelectorFactory.makeSelectiveSelector(cs,
+                        runZipper(heapModel, advanced));
+            } else if (advanced.startsWith("scaler")) {
+                PointerAnalysisResult preResult = runPreAnalysis(heapModel);
+                selector = Timer.runAndCount(() -> ContextSelectorFactory
+                                .makeGuidedSelector(Scaler.run(preResult, advanced)),
+                        "Scaler", Level.INFO);
+            } else if (advanced.startsWith("mahjong")) {
+                PointerAnalysisResult preResult = runPreAnalysis(heapModel);
+                Map<New, New> representatives = Timer.runAndCount(
+                        () -> Mahjong.run(preResult, advanced), "Mahjong", Level.INFO);
+                heapModel = new MahjongHeapModel(options, representatives);
             } else {
-                // run context-insensitive analysis as pre-analysis
-                PointerAnalysisResult preResult = runAnalysis(heapModel,
-                        ContextSelectorFactory.makeCISelector());
-                if (advanced.startsWith("zipper")) {
-                    selector = Timer.runAndCount(() -> ContextSelectorFactory
-                                    .makeSelectiveSelector(cs, Zipper.run(preResult, advanced)),
-                            "Zipper", Level.INFO);
-                } else {
-                    throw new IllegalArgumentException(
-                            "Illegal advanced analysis argument: " + advanced);
-                }
+                throw new IllegalArgumentException(
+                        "Illegal advanced analysis argument: " + advanced);
             }
         }
         if (selector == null) {
             selector = ContextSelectorFactory.makePlainSelector(cs);
         }
-        return runAnalysis(heapModel, selector);
+        return runAnalysis(heapModel, selector, false);
+    }
+
+    /**
+     * Runs context-insensitive analysis as pre-analysis of the advanced analysis.
+     */
+    private PointerAnalysisResult runPreAnalysis(HeapModel heapModel) {
+        return runAnalysis(heapModel, ContextSelectorFactory.makeCISelector(), true);
+    }
+
+    /**
+     * Runs pre-analysis, and then runs Zipper on its result.
+     * If option pre-analysis-cache is enabled, the method groups found by
+     * Zipper are loaded from the cache when possible, which skips the
+     * pre-analysis and Zipper, and the precision-critical methods of
+     * given Zipper variant are selected from the groups.
+     *
+     * @return the precision-critical methods selected by Zipper.
+     */
+    private Set<JMethod> runZipper(HeapModel heapModel, String advanced) {
+        if (!getOptions().getBoolean("pre-analysis-cache")) {
+            PointerAnalysisResult preResult = runPreAnalysis(heapModel);
+            return Timer.runAndCount(() -> Zipper.run(preResult, advanced),
+                    "Zipper", Level.INFO);
+        }
+        PreAnalysisCache cache = new PreAnalysisCache(getOptions());
+        MethodGroups groups = cache.load();
+        if (groups != null) {
+            logger.info("Reusing {} method groups found by Zipper from the pre-analysis cache",
+                    groups.groups().size());
+        } else {
+            PointerAnalysisResult preResult = runPreAnalysis(heapModel);
+            groups = Timer.runAndCount(() -> Zipper.findMethodGroups(preResult),
+                    "Zipper", Level.INFO);
+            cache.save(groups);
+        }
+        return groups.select(advanced);
     }
 
+    /**
+     * @param isPreAnalysis whether this analysis is a pre-analysis
+     *                      of the advanced analysis.
+     */
     private PointerAnalysisResult runAnalysis(HeapModel heapModel,
-                                              ContextSelector selector) {
+                                              ContextSelector selector,
+                                              boolean isPreAnalysis) {
         AnalysisOptions options = getOptions();
-        Solver solver = new DefaultSolver(options,
-                heapModel, selector, new MapBasedCSManager());
+        Solver solver = makeSolver(options,
+                heapModel, selector, makeCSManager(options));
         // The initialization of some Plugins may read the fields in solver,
         // e.g., contextSelector or csManager, thus we initialize Plugins
         // after setting all other fields of solver.
-        setPlugin(solver, options);
+        setPlugin(solver, options, isPreAnalysis);
         solver.solve();
         return solver.getResult();
     }
 
-    private static void setPlugin(Solver solver, AnalysisOptions options) {
+    private static CSManager makeCSManager(AnalysisOptions options) {
+        String csManager = options.getString("cs-manager");
+        return switch (csManager) {
+            case "map" -> new MapBasedCSManager();
+            case "array" -> new ArrayBasedCSManager();
+            default -> throw new ConfigException("Unknown CS manager: " + csManager);
+        };
+    }
+
+    private static Solver makeSolver(AnalysisOptions options, HeapModel heapModel,
+                                     ContextSelector selector, CSManager csManager) {
+        String solver = options.getString("solver");
+        return switch (solver) {
+            case "default" -> new DefaultSolver(options, heapModel, selector, csManager);
+            case "parallel" -> new ParallelSolver(options, heapModel, selector, csManager);
+            default -> throw new ConfigException("Unknown solver: " + solver);
+        };
+    }
+
+    private static void setPlugin(Solver solver, AnalysisOptions options,
+                                  boolean isPreAnalysis) {
         CompositePlugin plugin = new CompositePlugin();
         // add builtin plugins
         // To record elapsed time precisely, AnalysisTimer should be added at first.
@@ -134,6 +217,9 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
         if (javaVersion >= 9) {
             plugin.addPlugin(new Java9StringConcatHandler());
         }
+        if (options.getBoolean("prefetch-ir")) {
+            plugin.addPlugin(new IRPrefetcher());
+        }
         if (options.getString("reflection-inference") != null ||
                 options.getString("reflection-log") != null) {
             plugin.addPlugin(new ReflectionAnalysis());
@@ -146,6 +232,9 @@ public class PointerAnalysis extends ProgramAnalysis<PointerAnalysisResult> {
             plugin.addPlugin(new TaintAnalysis());
         }
         plugin.addPlugin(new ResultProcessor());
+        if (options.getBoolean("graph-input") && !isPreAnalysis) {
+            plugin.addPlugin(new GraphExporter());
+        }
         // add plugins specified in options
         // noinspection unchecked
         addPlugins(plugin, (List<String>) options.get("plugins"));
@@ -0,0 +1,124 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Streams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Manages data by maintaining the data and their context-sensitive
+ * counterparts by maps, except that the instance fields and array indexes
+ * are stored in arrays indexed by the indexes of their base objects,
+ * so that looking up them (which is frequent when processing field and
+ * array accesses) does not involve any hashing.
+ */
+public class ArrayBasedCSManager extends MapBasedCSManager {
+
+    private static final int INITIAL_CAPACITY = 65536;
+
+    /**
+     * Maps index of CSObj to its instance fields. The fields of each object
+     * are stored in a small array, which is searched linearly as an object
+     * usually has only a few fields.
+     */
+    private InstanceField[][] instanceFields = new InstanceField[INITIAL_CAPACITY][];
+
+    /**
+     * Maps index of CSObj to its array index.
+     */
+    private ArrayIndex[] arrayIndexes = new ArrayIndex[INITIAL_CAPACITY];
+
+    private final List<InstanceField> instanceFieldList = new ArrayList<>();
+
+    private final List<ArrayIndex> arrayIndexList = new ArrayList<>();
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        int index = base.getIndex();
+        if (index >= instanceFields.length) {
+            instanceFields = Arrays.copyOf(instanceFields, newLength(index));
+        }
+        InstanceField[] fields = instanceFields[index];
+        int i = 0;
+        if (fields == null) {
+            fields = instanceFields[index] = new InstanceField[2];
+        } else {
+            for (; i < fields.length && fields[i] != null; ++i) {
+                if (fields[i].getField() == field) {
+                    return fields[i];
+                }
+            }
+            if (i == fields.length) {
+                fields = instanceFields[index] = Arrays.copyOf(fields, i * 2);
+            }
+        }
+        InstanceField instanceField = new InstanceField(base, field, newPointerIndex());
+        fields[i] = instanceField;
+        instanceFieldList.add(instanceField);
+        return instanceField;
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        int index = array.getIndex();
+        if (index >= arrayIndexes.length) {
+            arrayIndexes = Arrays.copyOf(arrayIndexes, newLength(index));
+        }
+        ArrayIndex arrayIndex = arrayIndexes[index];
+        if (arrayIndex == null) {
+            arrayIndex = arrayIndexes[index] = new ArrayIndex(array, newPointerIndex());
+            arrayIndexList.add(arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    private static int newLength(int index) {
+        return Math.max(index + 1, (int) (index * 1.5));
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return Collections.unmodifiableList(instanceFieldList);
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return Collections.unmodifiableList(arrayIndexList);
+    }
+
+    @Override
+    public Stream<Pointer> pointers() {
+        return Streams.concat(
+                getCSVars().stream(),
+                getInstanceFields().stream(),
+                getArrayIndexes().stream(),
+                getStaticFields().stream());
+    }
+}
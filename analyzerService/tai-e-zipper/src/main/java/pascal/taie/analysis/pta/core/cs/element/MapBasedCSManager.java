@@ -113,6 +113,14 @@ public class MapBasedCSManager implements CSManager {
         return ptrManager.pointers();
     }
 
+    /**
+     * @return a new unique index for Pointers, which is used by subclasses
+     * that manage some kinds of pointers by themselves.
+     */
+    int newPointerIndex() {
+        return ptrManager.counter++;
+    }
+
     @Override
     public CSObj getCSObj(Context heapContext, Obj obj) {
         return objManager.getCSObj(heapContext, obj);
@@ -30,10 +30,14 @@ import pascal.taie.ir.exp.StringLiteral;
 import pascal.taie.ir.stmt.New;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.NullType;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.Predicates;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.RegularBitSet;
 import pascal.taie.util.collection.TwoKeyMap;
 
 import java.lang.reflect.Constructor;
@@ -99,6 +103,13 @@ public abstract class AbstractHeapModel implements HeapModel {
 
     private final List<Obj> objs = new ArrayList<>(1024);
 
+    /**
+     * Type -> indexes of the objects assignable to the type.
+     * The entry of a type is built when the type is queried for the first
+     * time, and then maintained incrementally when new objects are added.
+     */
+    private final Map<Type, IBitSet> assignableObjs = Maps.newMap();
+
     protected AbstractHeapModel(AnalysisOptions options) {
         isDistinguishedSC = getSCPredicate(
                 options.getString("distinguish-string-constants"));
@@ -215,9 +226,33 @@ public abstract class AbstractHeapModel implements HeapModel {
     protected <T extends Obj> T add(T obj) {
         objs.add(obj);
         obj.setIndex(counter++);
+        assignableObjs.forEach((type, indexes) -> {
+            if (isAssignable(obj.getType(), type)) {
+                indexes.set(obj.getIndex());
+            }
+        });
         return obj;
     }
 
+    @Override
+    public IBitSet getAssignableObjects(Type type) {
+        return assignableObjs.computeIfAbsent(type, t -> {
+            IBitSet indexes = new RegularBitSet(objs.size());
+            objs.forEach(obj -> {
+                if (isAssignable(obj.getType(), t)) {
+                    indexes.set(obj.getIndex());
+                }
+            });
+            return indexes;
+        });
+    }
+
+    private boolean isAssignable(Type from, Type to) {
+        return (from instanceof NullType)
+                ? to instanceof ReferenceType
+                : typeSystem.isSubtype(to, from);
+    }
+
     @Override
     public Collection<Obj> getObjects() {
         return Collections.unmodifiableList(objs);
@@ -27,6 +27,7 @@ import pascal.taie.ir.stmt.New;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.IBitSet;
 
 import java.util.Collection;
 
@@ -77,6 +78,17 @@ public interface HeapModel extends Indexer<Obj> {
         return getMockObj(desc, alloc, type, null);
     }
 
+    /**
+     * Returns the indexes of the objects (in this heap model) which are
+     * assignable to given type, so that type checks on objects can be done
+     * by bit-set operations instead of subtype queries. The returned set
+     * is kept up-to-date when new objects are added to this heap model,
+     * and it should not be modified by the callers.
+     *
+     * @return the indexes of the objects assignable to {@code type}.
+     */
+    IBitSet getAssignableObjects(Type type);
+
     /**
      * @return all objects in this heap model.
      */
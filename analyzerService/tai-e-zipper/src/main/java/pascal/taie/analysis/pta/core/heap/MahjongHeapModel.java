@@ -0,0 +1,63 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.heap;
+
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+/**
+ * Heap model which merges the allocation sites selected by Mahjong,
+ * i.e., each group of merged sites is represented by one {@link MergedObj},
+ * and the other sites are modeled as in {@link AllocationSiteBasedModel}.
+ */
+public class MahjongHeapModel extends AbstractHeapModel {
+
+    /**
+     * Merged allocation site -> representative site of its group.
+     */
+    private final Map<New, New> representatives;
+
+    private final Map<New, MergedObj> mergedObjs = Maps.newMap();
+
+    public MahjongHeapModel(AnalysisOptions options, Map<New, New> representatives) {
+        super(options);
+        this.representatives = representatives;
+    }
+
+    @Override
+    protected Obj doGetObj(New allocSite) {
+        New rep = representatives.get(allocSite);
+        if (rep == null) {
+            return getNewObj(allocSite);
+        }
+        // the merged object is represented by the representative site
+        // selected by Mahjong, instead of the first site reached
+        MergedObj mergedObj = mergedObjs.computeIfAbsent(rep, r -> add(new MergedObj(
+                r.getRValue().getType(), "<Mahjong merged " + r + ">", getNewObj(r))));
+        mergedObj.addRepresentedObj(getNewObj(allocSite));
+        return mergedObj;
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.core.heap;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 
+import javax.annotation.Nullable;
 import java.util.Optional;
 import java.util.Set;
 
@@ -45,14 +46,22 @@ public class MergedObj extends Obj {
     private final Set<Obj> representedObjs = newSet();
 
     /**
-     * The representative object of this merged object. It is the first
-     * object added.
+     * The representative object of this merged object. Unless it is
+     * given at construction, it is the first object added.
      */
     private Obj representative;
 
     public MergedObj(Type type, String name) {
+        this(type, name, null);
+    }
+
+    /**
+     * @param representative the representative object of this merged object.
+     */
+    public MergedObj(Type type, String name, @Nullable Obj representative) {
         this.type = type;
         this.name = name;
+        this.representative = representative;
     }
 
     public void addRepresentedObj(Obj obj) {
@@ -134,23 +134,59 @@ public class DefaultSolver implements Solver {
      */
     private final long timeLimit;
 
+    /**
+     * Whether to detect and merge cycles in pointer flow graph.
+     */
+    private final boolean cycleElimination;
+
+    /**
+     * Whether to substitute equivalent variables before propagation.
+     */
+    private final boolean varSubstitution;
+
     private TimeLimiter timeLimiter;
 
     /**
      * Whether the analysis has reached time limit.
      */
-    private volatile boolean isTimeout;
+    volatile boolean isTimeout;
 
     private Plugin plugin;
 
-    private WorkList workList;
+    WorkList workList;
 
     private CSCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
 
+    /**
+     * Pointers merged by cycle elimination and variable substitution,
+     * or {@code null} if both are disabled.
+     */
+    MergedPointers mergedPointers;
+
+    /**
+     * Detects cycles of PFG, or {@code null} if cycle elimination is disabled.
+     */
+    private CycleEliminator cycleEliminator;
+
+    /**
+     * Finds equivalent variables, or {@code null}
+     * if variable substitution is disabled.
+     */
+    private VarSubstitution substitution;
+
     private Set<JMethod> reachableMethods;
 
+    /**
+     * Masks of the pointer filters, and the type filters of PFG edges.
+     * They are concurrent maps, as they are accessed by multiple threads
+     * in {@link ParallelSolver}.
+     */
+    private final Map<Predicate<CSObj>, ObjectMask> filterMasks = Maps.newConcurrentMap();
+
+    private final Map<Type, ObjectMask> typeMasks = Maps.newConcurrentMap();
+
     /**
      * Set of classes that have been initialized.
      */
@@ -174,12 +210,19 @@ public class DefaultSolver implements Solver {
         this.csManager = csManager;
         hierarchy = World.get().getClassHierarchy();
         typeSystem = World.get().getTypeSystem();
-        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer());
+        ptsFactory = new PointsToSetFactory(csManager.getObjectIndexer(),
+                options.getString("points-to-set"),
+                World.get().getOptions().getOutputDir().toPath());
+        // the points-to sets are held by the analysis result,
+        // thus their storage is released with the world
+        World.get().registerResetAction(ptsFactory::close);
         propTypes = new PropagateTypes(
                 (List<String>) options.get("propagate-types"),
                 typeSystem);
         onlyApp = options.getBoolean("only-app");
         timeLimit = options.getInt("time-limit");
+        cycleElimination = options.getBoolean("cycle-elimination");
+        varSubstitution = options.getBoolean("var-substitution");
     }
 
     @Override
@@ -232,6 +275,14 @@ public class DefaultSolver implements Solver {
         return ptsFactory.make();
     }
 
+    /**
+     * Gives the storage of given points-to set, which is owned by
+     * this solver and no longer used, back to the points-to set factory.
+     */
+    void releasePointsToSet(PointsToSet pts) {
+        ptsFactory.release(pts);
+    }
+
     @Override
     public void setPlugin(Plugin plugin) {
         this.plugin = plugin;
@@ -254,7 +305,14 @@ public class DefaultSolver implements Solver {
     private void initialize() {
         callGraph = new CSCallGraph(csManager);
         pointerFlowGraph = new PointerFlowGraph(csManager);
-        workList = new WorkList();
+        mergedPointers = cycleElimination || varSubstitution ?
+                new MergedPointers() : null;
+        cycleEliminator = cycleElimination ?
+                new CycleEliminator(mergedPointers) : null;
+        substitution = varSubstitution ? new VarSubstitution(propTypes) : null;
+        workList = new WorkList(WorkListStrategies.make(
+                options.getString("work-list"), pointerFlowGraph),
+                logger.isDebugEnabled());
         reachableMethods = Sets.newSet();
         initializedClasses = Sets.newSet();
         ignoredMethods = Sets.newSet();
@@ -307,26 +365,21 @@ public class DefaultSolver implements Solver {
     private void analyze() {
         while (!workList.isEmpty() && !isTimeout) {
             // phase starts
-            while (!workList.isEmpty() && !isTimeout) {
-                WorkList.Entry entry = workList.pollEntry();
-                if (entry instanceof WorkList.PointerEntry pEntry) {
-                    Pointer p = pEntry.pointer();
-                    PointsToSet pts = pEntry.pointsToSet();
-                    PointsToSet diff = propagate(p, pts);
-                    if (!diff.isEmpty() && p instanceof CSVar v) {
-                        processInstanceStore(v, diff);
-                        processInstanceLoad(v, diff);
-                        processArrayStore(v, diff);
-                        processArrayLoad(v, diff);
-                        processCall(v, diff);
-                        plugin.onNewPointsToSet(v, diff);
-                    }
-                } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
-                    processCallEdge(eEntry.edge());
-                }
-            }
+            processWorkList();
             plugin.onPhaseFinish();
         }
+        logPropagations();
+        if (cycleEliminator != null) {
+            logger.info("{} cycles in pointer flow graph are eliminated",
+                    cycleEliminator.getCycleCount());
+        }
+        if (substitution != null) {
+            logger.info("{} variables are substituted by equivalent variables",
+                    substitution.getSubstitutedCount());
+        }
+        if (mergedPointers != null) {
+            logger.info("{} pointers are merged", mergedPointers.getMergedCount());
+        }
         if (!workList.isEmpty() && isTimeout) {
             logger.warn("Pointer analysis stops early as it reaches time limit ({} seconds)," +
                     " and the result may be unsound!", timeLimit);
@@ -336,30 +389,196 @@ public class DefaultSolver implements Solver {
         plugin.onFinish();
     }
 
+    private void logPropagations() {
+        logger.info("Work list ({}): {} propagations",
+                options.getString("work-list"), workList.getPropagationCount());
+        Map<Pointer, Integer> propagations = workList.getPropagations();
+        if (propagations != null) {
+            logger.debug("{} pointers are propagated ({} times per pointer)",
+                    propagations.size(), String.format("%.2f",
+                            (double) workList.getPropagationCount()
+                                    / Math.max(1, propagations.size())));
+            propagations.entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<Pointer, Integer>comparingByValue().reversed())
+                    .limit(5)
+                    .forEach(e -> logger.debug("  {} propagations on {}",
+                            e.getValue(), e.getKey()));
+        }
+    }
+
+    /**
+     * Processes the entries in work list until the work list is empty,
+     * or the analysis reaches time limit. This is a phase of the analysis.
+     */
+    void processWorkList() {
+        while (!workList.isEmpty() && !isTimeout) {
+            WorkList.Entry entry = workList.pollEntry();
+            if (entry instanceof WorkList.PointerEntry pEntry) {
+                Pointer p = pEntry.pointer();
+                PointsToSet pts = pEntry.pointsToSet();
+                if (mergedPointers != null) {
+                    propagateMerged(mergedPointers.getRepresentative(p), pts);
+                } else {
+                    PointsToSet diff = propagate(p, pts);
+                    if (!diff.isEmpty() && p instanceof CSVar v) {
+                        processNewPointsTo(v, diff);
+                    }
+                }
+                // the set of the entry is owned by work list, and is
+                // no longer used, while the diff may be kept by plugins
+                releasePointsToSet(pts);
+            } else if (entry instanceof WorkList.CallEdgeEntry eEntry) {
+                processCallEdge(eEntry.edge());
+            }
+        }
+    }
+
+    /**
+     * Applies the filters of given pointer on pointsToSet. The filters are
+     * applied in place, as pointsToSet is owned by an entry of work list.
+     *
+     * @return pointsToSet after filtering.
+     */
+    PointsToSet applyFilters(Pointer pointer, PointsToSet pointsToSet) {
+        Set<Predicate<CSObj>> filters = pointer.getFilters();
+        if (!filters.isEmpty()) {
+            for (Predicate<CSObj> filter : filters) {
+                getFilterMask(filter).retain(pointsToSet);
+            }
+        }
+        return pointsToSet;
+    }
+
+    /**
+     * Tests the objects in pointsToSet which are new to the masks of
+     * the filters of given pointer, so that the filters can be applied
+     * concurrently afterwards.
+     */
+    void updateFilterMasks(Pointer pointer, PointsToSet pointsToSet) {
+        for (Predicate<CSObj> filter : pointer.getFilters()) {
+            getFilterMask(filter).update(pointsToSet);
+        }
+    }
+
+    private ObjectMask getFilterMask(Predicate<CSObj> filter) {
+        return filterMasks.computeIfAbsent(filter,
+                f -> new ObjectMask(f, this::makePointsToSet));
+    }
+
+    /**
+     * @return the mask of objects assignable to given type.
+     */
+    ObjectMask getTypeMask(Type type) {
+        return typeMasks.computeIfAbsent(type, t -> new ObjectMask(
+                TypeFilter.makeFilter(t, heapModel), this::makePointsToSet));
+    }
+
     /**
      * Propagates pointsToSet to pt(pointer) and its PFG successors,
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         logger.trace("Propagate {} to {}", pointsToSet, pointer);
-        Set<Predicate<CSObj>> filters = pointer.getFilters();
-        if (!filters.isEmpty()) {
-            // apply filters (of the pointer) on pointsToSet
-            pointsToSet = pointsToSet.objects()
-                    .filter(o -> filters.stream().allMatch(f -> f.test(o)))
-                    .collect(ptsFactory::make, PointsToSet::addObject, PointsToSet::addAll);
-        }
+        pointsToSet = applyFilters(pointer, pointsToSet);
         PointsToSet diff = getPointsToSetOf(pointer).addAllDiff(pointsToSet);
         if (!diff.isEmpty()) {
             pointerFlowGraph.getOutEdgesOf(pointer).forEach(edge -> {
                 Pointer target = edge.target();
                 edge.getTransfers().forEach(transfer ->
-                        addPointsTo(target, transfer.apply(edge, diff)));
+                        propagateAlong(edge, transfer.apply(edge, diff)));
             });
         }
         return diff;
     }
 
+    /**
+     * Processes the new objects pointed by a variable.
+     */
+    void processNewPointsTo(CSVar var, PointsToSet diff) {
+        processInstanceStore(var, diff);
+        processInstanceLoad(var, diff);
+        processArrayStore(var, diff);
+        processArrayLoad(var, diff);
+        processCall(var, diff);
+        plugin.onNewPointsToSet(var, diff);
+    }
+
+    /**
+     * Propagates pointsToSet to the pointers represented by {@code rep}
+     * and their PFG successors, when cycle elimination or
+     * variable substitution is enabled.
+     */
+    private void propagateMerged(Pointer rep, PointsToSet pointsToSet) {
+        pointsToSet = applyFilters(rep, pointsToSet);
+        PointsToSet pts = getPointsToSetOf(rep);
+        PointsToSet diff = pts.addAllDiff(pointsToSet);
+        if (diff.isEmpty()) {
+            return;
+        }
+        Pointer cycleStart = null;
+        for (Pointer member : mergedPointers.getMembers(rep)) {
+            for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(member)) {
+                Pointer target = mergedPointers.getRepresentative(edge.target());
+                if (target != rep) {
+                    edge.getTransfers().forEach(transfer ->
+                            propagateAlong(edge, transfer.apply(edge, diff)));
+                    if (cycleStart == null && cycleEliminator != null
+                            && cycleEliminator.shouldDetect(
+                            edge, pts, getPointsToSetOf(target))) {
+                        cycleStart = target;
+                    }
+                }
+            }
+        }
+        for (Pointer member : mergedPointers.getMembers(rep)) {
+            if (member instanceof CSVar v) {
+                processNewPointsTo(v, diff);
+            }
+        }
+        if (cycleStart != null) {
+            cycleEliminator.detectCycles(cycleStart).forEach(this::mergePointers);
+        }
+    }
+
+    /**
+     * Merges given representatives, e.g., the pointers in a cycle of PFG.
+     * The points-to sets of the pointers are unified at first, and the objects
+     * which are new to each pointer are processed as if they are propagated
+     * to the pointer.
+     */
+    private void mergePointers(List<Pointer> reps) {
+        PointsToSet union = makePointsToSet();
+        reps.forEach(rep -> union.addAll(getPointsToSetOf(rep)));
+        Map<Pointer, PointsToSet> diffs = Maps.newHybridMap();
+        for (Pointer rep : reps) {
+            PointsToSet diff = getPointsToSetOf(rep).addAllDiff(union);
+            if (!diff.isEmpty()) {
+                diffs.put(rep, diff);
+            }
+        }
+        // collect members before merging, as the members of
+        // each old representative receive different new objects
+        Map<Pointer, List<Pointer>> oldMembers = Maps.newHybridMap();
+        diffs.keySet().forEach(rep -> oldMembers.put(rep,
+                List.copyOf(mergedPointers.getMembers(rep))));
+        Pointer newRep = mergedPointers.merge(reps);
+        diffs.forEach((rep, diff) -> {
+            for (Pointer member : oldMembers.get(rep)) {
+                for (PointerFlowEdge edge : pointerFlowGraph.getOutEdgesOf(member)) {
+                    Pointer target = mergedPointers.getRepresentative(edge.target());
+                    if (target != newRep) {
+                        edge.getTransfers().forEach(transfer ->
+                                propagateAlong(edge, transfer.apply(edge, diff)));
+                    }
+                }
+                if (member instanceof CSVar v) {
+                    processNewPointsTo(v, diff);
+                }
+            }
+        });
+    }
+
     /**
      * Processes instance stores when points-to set of the base variable changes.
      *
@@ -493,7 +712,7 @@ public class DefaultSolver implements Solver {
         }
     }
 
-    private void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
+    void processCallEdge(Edge<CSCallSite, CSMethod> edge) {
         if (callGraph.addEdge(edge)) {
             // process new call edge
             CSMethod csCallee = edge.getCallee();
@@ -541,6 +760,9 @@ public class DefaultSolver implements Solver {
      */
     private void processNewMethod(JMethod method) {
         if (reachableMethods.add(method)) {
+            if (substitution != null) {
+                substitution.analyze(method);
+            }
             plugin.onNewMethod(method);
             method.getIR().forEach(stmt -> plugin.onNewStmt(stmt, method));
         }
@@ -740,9 +962,73 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointsTo(Pointer pointer, PointsToSet pts) {
+        if (mergedPointers != null) {
+            Pointer rep = mergedPointers.getRepresentative(pointer);
+            if (isCopyOnly(pointer) && mergedPointers.isMerged(pointer)
+                    && !pts.objects().allMatch(getPointsToSetOf(rep)::contains)) {
+                // objects flow to a copy-only variable from other pointers
+                // than its copy sources (e.g., added by plugins), thus the
+                // variable is no longer equivalent to the other variables
+                splitPointers(rep);
+                rep = pointer;
+            }
+            pointer = rep;
+        }
         workList.addEntry(pointer, pts);
     }
 
+    /**
+     * Propagates pts along given PFG edge to its target.
+     */
+    private void propagateAlong(PointerFlowEdge edge, PointsToSet pts) {
+        if (isSubstitutedCopy(edge)) {
+            // the equivalent variables of the target receive pts along
+            // their own copies, thus the group stays valid
+            workList.addEntry(mergedPointers.getRepresentative(edge.target()), pts);
+        } else {
+            addPointsTo(edge.target(), pts);
+        }
+    }
+
+    /**
+     * @return {@code true} if given variable is a copy-only variable
+     * in a group of equivalent variables, see {@link VarSubstitution}.
+     */
+    private boolean isCopyOnly(Pointer pointer) {
+        return substitution != null && pointer instanceof CSVar csVar
+                && substitution.isCopyOnly(csVar.getVar());
+    }
+
+    /**
+     * @return {@code true} if given edge is a copy from which the
+     * variables substituted by {@link VarSubstitution} receive objects.
+     */
+    private boolean isSubstitutedCopy(PointerFlowEdge edge) {
+        return substitution != null
+                && edge.kind() == FlowKind.LOCAL_ASSIGN
+                && edge.source() instanceof CSVar source
+                && edge.target() instanceof CSVar target
+                && source.getContext() == target.getContext()
+                && substitution.isCopySource(source.getVar(), target.getVar());
+    }
+
+    /**
+     * Splits the pointers merged into given representative, each of which
+     * owns a copy of the points-to set of the representative afterwards.
+     * As the edges of merged pointers are kept, the objects propagated
+     * to the representative afterwards still reach other pointers.
+     */
+    private void splitPointers(Pointer rep) {
+        PointsToSet pts = getPointsToSetOf(rep);
+        for (Pointer member : mergedPointers.split(rep)) {
+            if (member != rep) {
+                PointsToSet copy = makePointsToSet();
+                copy.addAll(pts);
+                member.setPointsToSet(copy);
+            }
+        }
+    }
+
     @Override
     public void addPointsTo(Pointer pointer, CSObj csObj) {
         PointsToSet pts = makePointsToSet();
@@ -772,6 +1058,13 @@ public class DefaultSolver implements Solver {
 
     @Override
     public void addPointerFilter(Pointer pointer, Predicate<CSObj> filter) {
+        if (mergedPointers != null && mergedPointers.isMerged(pointer)) {
+            // the filter of a merged pointer would be either ignored (on
+            // a member) or applied to the other members (on representative),
+            // thus the pointer is split from the others, which still receive
+            // objects along the edges between them
+            splitPointers(mergedPointers.getRepresentative(pointer));
+        }
         pointer.addFilter(filter);
     }
 
@@ -779,10 +1072,15 @@ public class DefaultSolver implements Solver {
     public void addPFGEdge(PointerFlowEdge edge, Transfer transfer) {
         edge = pointerFlowGraph.addEdge(edge);
         if (edge != null && edge.addTransfer(transfer)) {
+            if (mergedPointers != null && mergedPointers.getRepresentative(edge.source())
+                    == mergedPointers.getRepresentative(edge.target())) {
+                // the source and target share the same points-to set
+                return;
+            }
             PointsToSet targetSet = transfer.apply(
                     edge, getPointsToSetOf(edge.source()));
             if (!targetSet.isEmpty()) {
-                addPointsTo(edge.target(), targetSet);
+                propagateAlong(edge, targetSet);
             }
         }
     }
@@ -839,11 +1137,30 @@ public class DefaultSolver implements Solver {
                 return;
             }
             processNewMethod(method);
+            if (substitution != null) {
+                substituteVars(csMethod);
+            }
             addStmts(csMethod, method.getIR().getStmts());
             plugin.onNewCSMethod(csMethod);
         }
     }
 
+    /**
+     * Merges the substituted variables of given method into their
+     * representatives, before the statements of the method are processed.
+     */
+    private void substituteVars(CSMethod csMethod) {
+        Context context = csMethod.getContext();
+        for (Var var : substitution.getSubstitutedVars(csMethod.getMethod())) {
+            CSVar csVar = csManager.getCSVar(context, var);
+            if (!mergedPointers.isMerged(csVar)) {
+                Pointer rep = mergedPointers.getRepresentative(csManager.getCSVar(
+                        context, substitution.getRepresentative(var)));
+                mergePointers(List.of(rep, csVar));
+            }
+        }
+    }
+
     @Override
     public void addStmts(CSMethod csMethod, Collection<Stmt> stmts) {
         stmtProcessor.process(csMethod, stmts);
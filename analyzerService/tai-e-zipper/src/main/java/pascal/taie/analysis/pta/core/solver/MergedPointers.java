@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the pointers which are merged as they always point to
+ * the same objects, e.g., the pointers in a cycle of pointer flow graph
+ * (see {@link CycleEliminator}), and the variables substituted by their
+ * equivalent variables (see {@link VarSubstitution}).
+ * <p>
+ * The merged pointers share the points-to set of their representative,
+ * and they keep their own edges, thus the pointer flow graph and the
+ * points-to sets of all pointers are available after the analysis.
+ */
+class MergedPointers {
+
+    /**
+     * Merged pointer -> its parent in union-find. The pointers which are
+     * not merged into other pointers are absent from this map.
+     */
+    private final Map<Pointer, Pointer> parents = Maps.newMap();
+
+    /**
+     * Representative -> the pointers merged into it (including itself).
+     */
+    private final Map<Pointer, List<Pointer>> members = Maps.newMap();
+
+    /**
+     * @return the representative of given pointer, which is the pointer
+     * itself if it has not been merged.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        Pointer parent = parents.get(pointer);
+        if (parent == null) {
+            return pointer;
+        }
+        Pointer rep = getRepresentative(parent);
+        if (rep != parent) {
+            parents.put(pointer, rep);
+        }
+        return rep;
+    }
+
+    /**
+     * @return the pointers merged into given representative.
+     */
+    Collection<Pointer> getMembers(Pointer rep) {
+        List<Pointer> result = members.get(rep);
+        return result != null ? result : List.of(rep);
+    }
+
+    /**
+     * @return {@code true} if given pointer has been merged
+     * with any other pointers.
+     */
+    boolean isMerged(Pointer pointer) {
+        return parents.containsKey(pointer) || members.containsKey(pointer);
+    }
+
+    /**
+     * Merges given representatives, the points-to sets of which
+     * must have been made the same.
+     *
+     * @return the representative of the merged pointers.
+     */
+    Pointer merge(List<Pointer> reps) {
+        Pointer rep = reps.get(0);
+        List<Pointer> repMembers = members.computeIfAbsent(rep,
+                __ -> new ArrayList<>(List.of(rep)));
+        for (int i = 1; i < reps.size(); ++i) {
+            Pointer other = reps.get(i);
+            parents.put(other, rep);
+            List<Pointer> otherMembers = members.remove(other);
+            if (otherMembers != null) {
+                repMembers.addAll(otherMembers);
+            } else {
+                repMembers.add(other);
+            }
+        }
+        PointsToSet pts = rep.getPointsToSet();
+        repMembers.forEach(member -> member.setPointsToSet(pts));
+        return rep;
+    }
+
+    /**
+     * Splits the pointers merged into given representative, so that
+     * each of them becomes a representative of itself again.
+     *
+     * @return the pointers merged into given representative, which
+     * still share the points-to set of the representative.
+     */
+    Collection<Pointer> split(Pointer rep) {
+        List<Pointer> repMembers = members.remove(rep);
+        if (repMembers == null) {
+            return List.of(rep);
+        }
+        repMembers.forEach(parents::remove);
+        return repMembers;
+    }
+
+    /**
+     * @return number of pointers merged into other pointers so far.
+     */
+    int getMergedCount() {
+        return parents.size();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of an object filter, i.e., the objects accepted by
+ * the filter, as a points-to set, so that a points-to set is filtered by
+ * intersecting it with the mask (for bit-set-based points-to sets, this is
+ * a word-wise AND), instead of testing its objects one by one.
+ * <p>
+ * The filter is tested lazily, i.e., only once for each object when the
+ * object is filtered by this mask for the first time. This class is not
+ * thread-safe when it tests new objects, thus {@link ParallelSolver}
+ * updates the masks with the objects of each round before processing
+ * the round in parallel, so that the parallel tasks only read the masks.
+ */
+final class ObjectMask {
+
+    private final Predicate<CSObj> filter;
+
+    private final Supplier<PointsToSet> ptsFactory;
+
+    /**
+     * Objects which have been tested by the filter.
+     */
+    private final PointsToSet tested;
+
+    /**
+     * Objects which are accepted by the filter.
+     */
+    private final PointsToSet accepted;
+
+    ObjectMask(Predicate<CSObj> filter, Supplier<PointsToSet> ptsFactory) {
+        this.filter = filter;
+        this.ptsFactory = ptsFactory;
+        this.tested = ptsFactory.get();
+        this.accepted = ptsFactory.get();
+    }
+
+    /**
+     * Tests the objects in given points-to set which have not been tested.
+     */
+    void update(PointsToSet pts) {
+        if (!tested.containsAll(pts)) {
+            for (CSObj obj : pts) {
+                if (tested.addObject(obj) && filter.test(obj)) {
+                    accepted.addObject(obj);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the objects which are not accepted by the filter
+     * from given points-to set. This method only reads this mask
+     * if all objects in {@code pts} have been tested.
+     */
+    void retain(PointsToSet pts) {
+        update(pts);
+        pts.retainAll(accepted);
+    }
+
+    /**
+     * @return the objects in given points-to set which are accepted by
+     * the filter. Given set is returned as is if all its objects are
+     * accepted, and the result is a new set otherwise, thus given set
+     * is never modified and the result must not be modified by callers.
+     * Like {@link #retain(PointsToSet)}, this method only reads this mask
+     * if all objects in {@code pts} have been tested.
+     */
+    PointsToSet filter(PointsToSet pts) {
+        update(pts);
+        if (accepted.containsAll(pts)) {
+            return pts;
+        }
+        PointsToSet result = ptsFactory.get();
+        result.addAll(pts);
+        result.retainAll(accepted);
+        return result;
+    }
+}
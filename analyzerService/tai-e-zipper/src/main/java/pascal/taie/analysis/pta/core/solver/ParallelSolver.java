@@ -0,0 +1,224 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Pointer analysis solver which propagates points-to sets on multiple threads.
+ * <p>
+ * The analysis proceeds in rounds. Each round takes all pointers pending in
+ * work list, and propagates their new objects, i.e., computes the difference
+ * of their points-to sets, and the objects flowing to their successors along
+ * the edges with {@link Identity} or {@link TypeFilter} transfers, in parallel.
+ * Pointer flow graph, {@link CSManager} and the points-to sets of other
+ * pointers are not modified in this stage, thus they need no synchronization,
+ * except the objects flowing to the same successor, which are unioned in
+ * a concurrent map. Then the remaining work, i.e., adding the objects to work
+ * list, applying other transfers, and processing the new objects of variables
+ * (which adds new edges, call edges, etc., and notifies plugins),
+ * is done sequentially by the thread running the solver, in the order of
+ * the pointers in work list.
+ * <p>
+ * Threading contract for plugins: all callbacks of plugins are invoked by
+ * the thread running the solver, and the methods of {@link Solver} must be
+ * called by that thread. The pointer filters added by
+ * {@link Solver#addPointerFilter} and the type filters are also tested by
+ * that thread, before each parallel stage, on the objects pending in the
+ * round (see {@link ObjectMask}), thus the parallel tasks only read their
+ * results without locking.
+ * <p>
+ * The parallel tasks run in the fork-join pool of current thread if it is a
+ * worker of fork-join pool (e.g., an analysis session), otherwise in
+ * the common pool. When cycle elimination or variable substitution is enabled,
+ * the merged pointers share points-to sets, thus this solver falls back to
+ * propagating points-to sets sequentially.
+ */
+public class ParallelSolver extends DefaultSolver {
+
+    private static final Logger logger = LogManager.getLogger(ParallelSolver.class);
+
+    /**
+     * Rounds with fewer pointers than this threshold are processed
+     * sequentially, see option "parallel-threshold".
+     */
+    private final int parallelThreshold;
+
+    private boolean warned = false;
+
+    public ParallelSolver(AnalysisOptions options, HeapModel heapModel,
+                          ContextSelector contextSelector, CSManager csManager) {
+        super(options, heapModel, contextSelector, csManager);
+        parallelThreshold = options.getInt("parallel-threshold");
+    }
+
+    @Override
+    void processWorkList() {
+        if (mergedPointers != null) {
+            if (!warned) {
+                logger.warn("Parallel solver propagates points-to sets" +
+                        " sequentially when pointers are merged");
+                warned = true;
+            }
+            super.processWorkList();
+            return;
+        }
+        while (!workList.isEmpty() && !isTimeout) {
+            // call edges must be processed prior to pointer entries
+            while (workList.hasCallEdges()) {
+                processCallEdge(((WorkList.CallEdgeEntry) workList.pollEntry()).edge());
+            }
+            List<WorkList.PointerEntry> entries = workList.pollPointerEntries();
+            Stream<WorkList.PointerEntry> stream;
+            if (entries.size() >= parallelThreshold) {
+                // the masks of filters are updated in advance,
+                // so that the parallel tasks only read them
+                entries.forEach(this::updateMasks);
+                stream = entries.parallelStream();
+            } else {
+                stream = entries.stream();
+            }
+            ConcurrentMap<Pointer, PointsToSet> succSets = Maps.newConcurrentMap();
+            List<Propagation> propagations = stream
+                    .map(entry -> propagate(entry, succSets))
+                    .toList();
+            entries.forEach(entry -> releasePointsToSet(entry.pointsToSet()));
+            for (Propagation propagation : propagations) {
+                if (propagation == null) {
+                    continue;
+                }
+                propagation.succs().forEach(succ -> {
+                    PointsToSet pts = succSets.remove(succ);
+                    if (pts != null) {
+                        addPointsTo(succ, pts);
+                        releasePointsToSet(pts);
+                    }
+                });
+                PointsToSet diff = propagation.diff();
+                propagation.deferredEdges().forEach(edge ->
+                        edge.getTransfers().forEach(transfer -> {
+                            if (!isConcurrent(transfer)) {
+                                addPointsTo(edge.target(), transfer.apply(edge, diff));
+                            }
+                        }));
+                if (propagation.pointer() instanceof CSVar v) {
+                    processNewPointsTo(v, diff);
+                }
+            }
+        }
+    }
+
+    /**
+     * Result of propagating a pointer entry.
+     *
+     * @param pointer       the pointer.
+     * @param diff          the objects new to the pointer.
+     * @param succs         the successors which receive objects
+     *                      in the parallel stage.
+     * @param deferredEdges the edges whose transfers are to be applied
+     *                      sequentially.
+     */
+    private record Propagation(Pointer pointer, PointsToSet diff,
+                               List<Pointer> succs,
+                               List<PointerFlowEdge> deferredEdges) {
+    }
+
+    /**
+     * Propagates a pointer entry, which may run on multiple threads.
+     *
+     * @return the result of propagation, or {@code null}
+     * if the entry brings no new objects to the pointer.
+     */
+    private Propagation propagate(WorkList.PointerEntry entry,
+                                  ConcurrentMap<Pointer, PointsToSet> succSets) {
+        Pointer pointer = entry.pointer();
+        PointsToSet diff = getPointsToSetOf(pointer)
+                .addAllDiff(applyFilters(pointer, entry.pointsToSet()));
+        if (diff.isEmpty()) {
+            return null;
+        }
+        List<Pointer> succs = new ArrayList<>();
+        List<PointerFlowEdge> deferredEdges = new ArrayList<>();
+        for (PointerFlowEdge edge : pointer.getOutEdges()) {
+            Pointer target = edge.target();
+            for (Transfer transfer : edge.getTransfers()) {
+                if (isConcurrent(transfer)) {
+                    PointsToSet pts = transfer.apply(edge, diff);
+                    if (!pts.isEmpty()) {
+                        succSets.compute(target, (__, set) -> {
+                            if (set == null) {
+                                set = makePointsToSet();
+                            }
+                            set.addAll(pts);
+                            return set;
+                        });
+                        succs.add(target);
+                    }
+                } else if (deferredEdges.isEmpty()
+                        || deferredEdges.get(deferredEdges.size() - 1) != edge) {
+                    deferredEdges.add(edge);
+                }
+            }
+        }
+        return new Propagation(pointer, diff, succs, deferredEdges);
+    }
+
+    /**
+     * Tests the objects of given entry which are new to the masks of
+     * the filters that may be applied to them in the parallel stage,
+     * i.e., the filters of the pointer and the type filters of its edges.
+     */
+    private void updateMasks(WorkList.PointerEntry entry) {
+        Pointer pointer = entry.pointer();
+        PointsToSet pts = entry.pointsToSet();
+        updateFilterMasks(pointer, pts);
+        for (PointerFlowEdge edge : pointer.getOutEdges()) {
+            for (Transfer transfer : edge.getTransfers()) {
+                if (transfer instanceof TypeFilter typeFilter) {
+                    typeFilter.updateMask(pts);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if given transfer can be applied concurrently.
+     */
+    private static boolean isConcurrent(Transfer transfer) {
+        return transfer instanceof Identity || transfer instanceof TypeFilter;
+    }
+}
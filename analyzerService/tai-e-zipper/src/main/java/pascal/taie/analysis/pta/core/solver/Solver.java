@@ -125,7 +125,9 @@ public interface Solver {
      * Adds an object filter to given pointer.
      * Note that the filter works only after it is added to the pointer,
      * and it cannot filter out the objects pointed to by the pointer
-     * before it is added.
+     * before it is added. The filter is tested only by the thread running
+     * the solver, also in {@link ParallelSolver}, thus it need not be
+     * thread-safe.
      */
     void addPointerFilter(Pointer pointer, Predicate<CSObj> filter);
 
@@ -22,13 +22,13 @@
 
 package pascal.taie.analysis.pta.core.solver;
 
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.pts.PointsToSet;
-import pascal.taie.language.type.NullType;
-import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
-import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.IBitSet;
 
-import java.util.function.Supplier;
+import java.util.function.Predicate;
 
 /**
  * Transfer function that filters out the objects whose types are NOT
@@ -41,29 +41,43 @@ public class TypeFilter implements Transfer {
      */
     private final Type type;
 
-    private final TypeSystem typeSystem;
-
-    private final Supplier<PointsToSet> ptsFactory;
+    /**
+     * Objects assignable to the guard type, which are shared
+     * by the type filters of the same solver and type.
+     */
+    private final ObjectMask mask;
 
     public TypeFilter(Type type, Solver solver) {
         this.type = type;
-        this.typeSystem = solver.getTypeSystem();
-        this.ptsFactory = solver::makePointsToSet;
+        this.mask = solver instanceof DefaultSolver defaultSolver ?
+                defaultSolver.getTypeMask(type) :
+                new ObjectMask(makeFilter(type, solver.getHeapModel()),
+                        solver::makePointsToSet);
     }
 
     @Override
     public PointsToSet apply(PointerFlowEdge edge, PointsToSet input) {
-        PointsToSet result = ptsFactory.get();
-        input.objects()
-                .filter(o -> isAssignable(o.getObject().getType(), type))
-                .forEach(result::addObject);
-        return result;
+        // the objects usually pass the filter as a whole, in which case
+        // input is returned without allocation, as Identity does
+        return mask.filter(input);
     }
 
-    private boolean isAssignable(Type from, Type to) {
-        return (from instanceof NullType)
-                ? to instanceof ReferenceType
-                : typeSystem.isSubtype(to, from);
+    /**
+     * Tests the objects in {@code input} which are new to the mask of this
+     * filter in advance, so that the filter can be applied concurrently.
+     */
+    void updateMask(PointsToSet input) {
+        mask.update(input);
+    }
+
+    /**
+     * @return a filter which accepts the objects assignable to given type.
+     * The filter looks up the objects in the type index of the heap model,
+     * instead of querying the type system.
+     */
+    static Predicate<CSObj> makeFilter(Type type, HeapModel heapModel) {
+        IBitSet assignableObjs = heapModel.getAssignableObjects(type);
+        return o -> assignableObjs.get(o.getObject().getIndex());
     }
 
     @Override
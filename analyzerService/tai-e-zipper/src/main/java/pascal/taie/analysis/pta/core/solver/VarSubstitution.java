@@ -0,0 +1,218 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the variables which always point to the same objects before
+ * pointer analysis, so that such variables can be substituted by a single
+ * representative. The equivalent variables are found by hash-based value
+ * numbering (HVN) on the copy graph of each method, see Ben Hardekopf and
+ * Calvin Lin. Exploiting Pointer and Location Equivalence to Optimize
+ * Pointer Analysis. In SAS 2007.
+ * <p>
+ * The variables defined by statements other than {@link Copy}
+ * (e.g., allocations, loads, casts and invocations), as well as
+ * {@code this} and parameters, receive objects from outside the copy graph,
+ * thus each of them is given a unique value number. Other variables are
+ * numbered by the set of value numbers of their copy sources, and
+ * the variables with the same number are equivalent, e.g., all variables
+ * in a chain of copies, or in a cycle of copies.
+ * <p>
+ * The variables numbered by their copy sources are called copy-only
+ * variables. Each of them receives objects only along its copies, i.e.,
+ * from its copy sources, which are equivalent to the copy sources of
+ * the other copy-only variables with the same number. Hence, the objects
+ * flowing along such a copy can be propagated to the representative
+ * directly. The equivalence holds only if no objects flow to a copy-only
+ * variable from other pointers, e.g., the objects added by plugins,
+ * in which case the solver splits the variable from its representative.
+ */
+class VarSubstitution {
+
+    private final PropagateTypes propTypes;
+
+    /**
+     * Substituted variable -> its representative.
+     */
+    private final Map<Var, Var> reps = Maps.newMap();
+
+    /**
+     * Copy-only variable in a group of equivalent variables
+     * -> its copy sources.
+     */
+    private final Map<Var, Set<Var>> copySources = Maps.newMap();
+
+    /**
+     * Method -> substituted variables in the method.
+     */
+    private final Map<JMethod, List<Var>> substitutedVars = Maps.newMap();
+
+    VarSubstitution(PropagateTypes propTypes) {
+        this.propTypes = propTypes;
+    }
+
+    /**
+     * Finds the equivalent variables in given method.
+     * Each method is analyzed at most once.
+     */
+    void analyze(JMethod method) {
+        if (substitutedVars.containsKey(method)) {
+            return;
+        }
+        IR ir = method.getIR();
+        SimpleGraph<Var> copyGraph = new SimpleGraph<>();
+        Set<Var> indirectVars = Sets.newSet();
+        if (ir.getThis() != null) {
+            indirectVars.add(ir.getThis());
+        }
+        indirectVars.addAll(ir.getParams());
+        for (Stmt stmt : ir) {
+            if (stmt instanceof Copy copy) {
+                Var lhs = copy.getLValue();
+                if (propTypes.isAllowed(lhs)) {
+                    copyGraph.addEdge(copy.getRValue(), lhs);
+                }
+            } else {
+                stmt.getDef().ifPresent(def -> {
+                    if (def instanceof Var var) {
+                        indirectVars.add(var);
+                    }
+                });
+            }
+        }
+        // number the variables in topological order of the copy graph,
+        // so that the sources of each component are numbered before it
+        Map<Var, Integer> numbers = Maps.newMap();
+        Map<Set<Integer>, Integer> unionNumbers = Maps.newMap();
+        int nextNumber = 0;
+        Map<Integer, Var> number2Rep = Maps.newMap();
+        List<Var> substituted = new ArrayList<>();
+        List<List<Var>> components = new SCC<>(copyGraph).getComponents();
+        for (int i = components.size() - 1; i >= 0; --i) {
+            List<Var> component = components.get(i);
+            Integer number = null;
+            if (component.stream().noneMatch(indirectVars::contains)) {
+                Set<Integer> sourceNumbers = Sets.newHybridSet();
+                for (Var var : component) {
+                    for (Var source : copyGraph.getPredsOf(var)) {
+                        Integer n = numbers.get(source);
+                        if (n != null) { // source is out of the component
+                            sourceNumbers.add(n);
+                        }
+                    }
+                }
+                if (sourceNumbers.size() == 1) {
+                    number = sourceNumbers.iterator().next();
+                } else if (sourceNumbers.size() > 1) {
+                    number = unionNumbers.get(sourceNumbers);
+                    if (number == null) {
+                        number = nextNumber++;
+                        unionNumbers.put(sourceNumbers, number);
+                    }
+                }
+            }
+            if (number == null) {
+                // the component receives objects from outside the copy graph,
+                // or from nowhere, which is not merged with other variables
+                number = nextNumber++;
+            }
+            for (Var var : component) {
+                numbers.put(var, number);
+                Var rep = number2Rep.putIfAbsent(number, var);
+                if (rep != null) {
+                    reps.put(var, rep);
+                    substituted.add(var);
+                }
+            }
+        }
+        for (Var var : substituted) {
+            Var rep = reps.get(var);
+            addCopySources(var, copyGraph, indirectVars);
+            addCopySources(rep, copyGraph, indirectVars);
+        }
+        substitutedVars.put(method, substituted.isEmpty() ? List.of() : substituted);
+    }
+
+    private void addCopySources(Var var, SimpleGraph<Var> copyGraph,
+                                Set<Var> indirectVars) {
+        if (!indirectVars.contains(var) && !copySources.containsKey(var)) {
+            copySources.put(var, Set.copyOf(copyGraph.getPredsOf(var)));
+        }
+    }
+
+    /**
+     * @return the representative of given variable, which is the variable
+     * itself if it is not substituted.
+     */
+    Var getRepresentative(Var var) {
+        return reps.getOrDefault(var, var);
+    }
+
+    /**
+     * @return {@code true} if given variable is a copy-only variable
+     * in a group of equivalent variables.
+     */
+    boolean isCopyOnly(Var var) {
+        return copySources.containsKey(var);
+    }
+
+    /**
+     * @return {@code true} if {@code target} is a copy-only variable
+     * in a group of equivalent variables, and {@code source} is
+     * one of its copy sources.
+     */
+    boolean isCopySource(Var source, Var target) {
+        Set<Var> sources = copySources.get(target);
+        return sources != null && sources.contains(source);
+    }
+
+    /**
+     * @return the substituted variables in given method,
+     * which must have been analyzed.
+     */
+    List<Var> getSubstitutedVars(JMethod method) {
+        return substitutedVars.get(method);
+    }
+
+    /**
+     * @return number of substituted variables so far.
+     */
+    int getSubstitutedCount() {
+        return reps.size();
+    }
+}
@@ -30,6 +30,8 @@ import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.util.collection.Maps;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
@@ -42,19 +44,46 @@ final class WorkList {
     /**
      * Pointer entries to be processed.
      */
-    private final Map<Pointer, PointsToSet> pointerEntries = Maps.newLinkedHashMap();
+    private final Map<Pointer, PointsToSet> pointerEntries = Maps.newMap();
+
+    /**
+     * Decides the order of processing pointer entries.
+     */
+    private final WorkListStrategy strategy;
+
+    /**
+     * Number of times the pointers are propagated (i.e., polled).
+     */
+    private long propagationCount = 0;
+
+    /**
+     * Pointer -> number of times it is propagated, or {@code null}
+     * if the propagations are not counted per pointer.
+     */
+    private final Map<Pointer, Integer> propagations;
 
     /**
      * Call edges to be processed.
      */
     private final Queue<Edge<CSCallSite, CSMethod>> callEdges = new ArrayDeque<>();
 
+    /**
+     * @param countPerPointer whether to count the propagations of each
+     *                        pointer, which costs a map update per poll,
+     *                        thus it is meant for debugging strategies.
+     */
+    WorkList(WorkListStrategy strategy, boolean countPerPointer) {
+        this.strategy = strategy;
+        this.propagations = countPerPointer ? Maps.newMap() : null;
+    }
+
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
         PointsToSet set = pointerEntries.get(pointer);
         if (set != null) {
             set.addAll(pointsToSet);
         } else {
             pointerEntries.put(pointer, pointsToSet.copy());
+            strategy.add(pointer);
         }
     }
 
@@ -68,10 +97,9 @@ final class WorkList {
             // the work list must be processed prior to the pointer entries
             return new CallEdgeEntry(callEdges.poll());
         } else if (!pointerEntries.isEmpty()) {
-            var it = pointerEntries.entrySet().iterator();
-            var e = it.next();
-            it.remove();
-            return new PointerEntry(e.getKey(), e.getValue());
+            Pointer pointer = strategy.poll();
+            countPropagation(pointer);
+            return new PointerEntry(pointer, pointerEntries.remove(pointer));
         } else {
             throw new NoSuchElementException();
         }
@@ -81,6 +109,46 @@ final class WorkList {
         return pointerEntries.isEmpty() && callEdges.isEmpty();
     }
 
+    boolean hasCallEdges() {
+        return !callEdges.isEmpty();
+    }
+
+    /**
+     * Removes and returns all pointer entries, in the order decided
+     * by the strategy of this work list.
+     */
+    List<PointerEntry> pollPointerEntries() {
+        List<PointerEntry> entries = new ArrayList<>(pointerEntries.size());
+        while (!pointerEntries.isEmpty()) {
+            Pointer pointer = strategy.poll();
+            countPropagation(pointer);
+            entries.add(new PointerEntry(pointer, pointerEntries.remove(pointer)));
+        }
+        return entries;
+    }
+
+    private void countPropagation(Pointer pointer) {
+        ++propagationCount;
+        if (propagations != null) {
+            propagations.merge(pointer, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @return the number of times the pointers are propagated so far.
+     */
+    long getPropagationCount() {
+        return propagationCount;
+    }
+
+    /**
+     * @return the number of times each pointer is propagated so far,
+     * or {@code null} if the propagations are not counted per pointer.
+     */
+    Map<Pointer, Integer> getPropagations() {
+        return propagations;
+    }
+
     interface Entry {
     }
 
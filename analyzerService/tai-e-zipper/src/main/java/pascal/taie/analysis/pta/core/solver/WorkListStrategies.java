@@ -0,0 +1,236 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.SCC;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Provides the strategies of {@link WorkList}, i.e.,
+ * <ul>
+ *     <li>fifo: processes the pointers in the order they become pending.
+ *     <li>lrf: processes the least recently fired (i.e., processed)
+ *     pointer first, see Ben Hardekopf and Calvin Lin. The Ant and the
+ *     Grasshopper: Fast and Accurate Pointer Analysis for Millions of Lines
+ *     of Code. In PLDI 2007.
+ *     <li>topo: processes the pointers in topological order of the SCC
+ *     condensation of pointer flow graph, so that the objects flowing through
+ *     a chain of pointers are propagated along the chain in one pass.
+ *     <li>two-phase: divides the analysis into rounds, and each round
+ *     processes the pointers pending at the start of the round in topological
+ *     order, while the pointers which become pending during the round are
+ *     deferred to the next round, so that their new objects are accumulated
+ *     and propagated together.
+ * </ul>
+ * As pointer flow graph changes on the fly, the topological order is
+ * recomputed after the number of pointers processed since last computation
+ * exceeds the number of pointers ordered in last computation, and the
+ * pointers which are not ordered yet (mostly the pointers of new reachable
+ * methods) are processed before the ordered ones.
+ */
+final class WorkListStrategies {
+
+    private WorkListStrategies() {
+    }
+
+    static WorkListStrategy make(String name, PointerFlowGraph pfg) {
+        return switch (name) {
+            case "fifo" -> new FIFO();
+            case "lrf" -> new LeastRecentlyFired();
+            case "topo" -> new Topological(pfg);
+            case "two-phase" -> new TwoPhase(pfg);
+            default -> throw new ConfigException("Unknown work list strategy: " + name);
+        };
+    }
+
+    private static class FIFO implements WorkListStrategy {
+
+        private final Queue<Pointer> queue = new ArrayDeque<>();
+
+        @Override
+        public void add(Pointer pointer) {
+            queue.add(pointer);
+        }
+
+        @Override
+        public Pointer poll() {
+            return queue.remove();
+        }
+    }
+
+    /**
+     * A pending pointer with its priority, where the entries with
+     * the same priority are ordered by the time they are added.
+     */
+    private record Item(Pointer pointer, long priority, long time) {
+
+        private static final Comparator<Item> COMPARATOR = Comparator
+                .comparingLong(Item::priority)
+                .thenComparingLong(Item::time);
+    }
+
+    private static class LeastRecentlyFired implements WorkListStrategy {
+
+        private final Queue<Item> queue = new PriorityQueue<>(Item.COMPARATOR);
+
+        /**
+         * Pointer -> time it is fired last time.
+         */
+        private final Map<Pointer, Long> lastFired = Maps.newMap();
+
+        private long time = 0;
+
+        @Override
+        public void add(Pointer pointer) {
+            queue.add(new Item(pointer, lastFired.getOrDefault(pointer, 0L), ++time));
+        }
+
+        @Override
+        public Pointer poll() {
+            Pointer pointer = queue.remove().pointer();
+            lastFired.put(pointer, ++time);
+            return pointer;
+        }
+    }
+
+    /**
+     * Orders pointers topologically by the SCC condensation of
+     * pointer flow graph, where the pointers in the same SCC have
+     * the same rank.
+     */
+    private static abstract class Ranked implements WorkListStrategy {
+
+        private static final int UNRANKED = 0;
+
+        private final PointerFlowGraph pfg;
+
+        private Map<Pointer, Integer> ranks = Map.of();
+
+        /**
+         * Number of pointers processed since last computation of ranks.
+         */
+        private int processed = 0;
+
+        Ranked(PointerFlowGraph pfg) {
+            this.pfg = pfg;
+        }
+
+        long rank(Pointer pointer) {
+            return ranks.getOrDefault(pointer, UNRANKED);
+        }
+
+        /**
+         * Counts a processed pointer.
+         *
+         * @return {@code true} if the ranks are recomputed.
+         */
+        boolean countProcessed() {
+            if (++processed > ranks.size()) {
+                processed = 0;
+                // components are in reverse topological order
+                List<List<Pointer>> components = new SCC<>(pfg).getComponents();
+                Map<Pointer, Integer> newRanks = Maps.newMap();
+                for (int i = 0; i < components.size(); ++i) {
+                    int rank = components.size() - i;
+                    components.get(i).forEach(p -> newRanks.put(p, rank));
+                }
+                ranks = newRanks;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class Topological extends Ranked {
+
+        private Queue<Item> queue = new PriorityQueue<>(Item.COMPARATOR);
+
+        private long time = 0;
+
+        private Topological(PointerFlowGraph pfg) {
+            super(pfg);
+        }
+
+        @Override
+        public void add(Pointer pointer) {
+            queue.add(new Item(pointer, rank(pointer), ++time));
+        }
+
+        @Override
+        public Pointer poll() {
+            Pointer pointer = queue.remove().pointer();
+            if (countProcessed()) {
+                Queue<Item> newQueue = new PriorityQueue<>(
+                        Math.max(1, queue.size()), Item.COMPARATOR);
+                queue.forEach(item -> newQueue.add(
+                        new Item(item.pointer(), rank(item.pointer()), item.time())));
+                queue = newQueue;
+            }
+            return pointer;
+        }
+    }
+
+    private static class TwoPhase extends Ranked {
+
+        /**
+         * Pointers to be processed in current round.
+         */
+        private final Queue<Pointer> current = new ArrayDeque<>();
+
+        /**
+         * Pointers deferred to next round.
+         */
+        private List<Pointer> next = new ArrayList<>();
+
+        private TwoPhase(PointerFlowGraph pfg) {
+            super(pfg);
+        }
+
+        @Override
+        public void add(Pointer pointer) {
+            next.add(pointer);
+        }
+
+        @Override
+        public Pointer poll() {
+            if (current.isEmpty()) {
+                // start a new round
+                next.sort(Comparator.comparingLong(this::rank));
+                current.addAll(next);
+                next = new ArrayList<>();
+            }
+            countProcessed();
+            return current.remove();
+        }
+    }
+}
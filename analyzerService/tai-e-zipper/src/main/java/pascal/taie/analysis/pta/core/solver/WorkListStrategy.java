@@ -0,0 +1,45 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.solver;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+
+/**
+ * Decides the order in which the pointers in {@link WorkList} are processed.
+ * The strategies are selected by option {@code work-list} of pointer
+ * analysis, see {@link WorkListStrategies}.
+ */
+interface WorkListStrategy {
+
+    /**
+     * Adds a pointer which becomes pending in the work list.
+     * The pointers which are already pending are not added again.
+     */
+    void add(Pointer pointer);
+
+    /**
+     * Removes and returns the next pointer to be processed.
+     * The work list must have pending pointers.
+     */
+    Pointer poll();
+}
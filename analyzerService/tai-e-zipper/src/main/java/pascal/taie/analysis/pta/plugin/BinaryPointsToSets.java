@@ -0,0 +1,272 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads and writes points-to sets (with contexts) in a compact binary
+ * format, which is much smaller and faster to load than the text dump.
+ * <p>
+ * The file consists of:
+ * <ol>
+ *     <li>a header: magic number {@link #MAGIC} and version {@link #VERSION},
+ *     <li>a string table of all objects: the number of objects,
+ *     and each object as a string,
+ *     <li>four sections of pointers, i.e., variables, static fields,
+ *     instance fields and array indexes. Each section consists of the
+ *     number of pointers, and each pointer as a string followed by the
+ *     size of its points-to set and the delta-encoded indexes
+ *     (in the string table) of the objects in ascending order.
+ * </ol>
+ * All integers (except the magic number) are encoded as unsigned varints,
+ * and strings are encoded as the varint length followed by UTF-8 bytes.
+ */
+public class BinaryPointsToSets {
+
+    /**
+     * "TAIE" in ASCII.
+     */
+    private static final int MAGIC = 0x54414945;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Descriptions of the sections, in the order of them in the file.
+     */
+    public static final List<String> SECTIONS = List.of(
+            "variables", "static fields", "instance fields", "array indexes");
+
+    /**
+     * The mapped content of the file being read.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The objects in the string table.
+     */
+    private final String[] objects;
+
+    /**
+     * The positions of the sections in {@link #buffer}.
+     */
+    private final int[] sectionPositions;
+
+    private BinaryPointsToSets(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt() != MAGIC) {
+            throw new AnalysisException("Not a binary points-to set file");
+        }
+        int version = readVarint(buffer);
+        if (version != VERSION) {
+            throw new AnalysisException(
+                    "Unsupported binary points-to set version: " + version);
+        }
+        objects = new String[readVarint(buffer)];
+        for (int i = 0; i < objects.length; ++i) {
+            objects[i] = readString(buffer);
+        }
+        // locate the sections
+        sectionPositions = new int[SECTIONS.size()];
+        for (int i = 0; i < sectionPositions.length; ++i) {
+            sectionPositions[i] = buffer.position();
+            int nPointers = readVarint(buffer);
+            for (int j = 0; j < nPointers; ++j) {
+                skipString(buffer);
+                int size = readVarint(buffer);
+                for (int k = 0; k < size; ++k) {
+                    readVarint(buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the points-to sets in {@code result} to {@code file}.
+     */
+    public static void dump(PointerAnalysisResult result, File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+            out.writeInt(MAGIC);
+            writeVarint(out, VERSION);
+            // string table of objects, CSObj index -> table index
+            Collection<CSObj> csObjs = result.getCSObjects();
+            int maxIndex = csObjs.stream().mapToInt(CSObj::getIndex).max().orElse(-1);
+            int[] tableIndexes = new int[maxIndex + 1];
+            writeVarint(out, csObjs.size());
+            int i = 0;
+            for (CSObj csObj : csObjs) {
+                tableIndexes[csObj.getIndex()] = i++;
+                writeString(out, csObj.toString());
+            }
+            // sections of pointers
+            writePointers(out, result.getCSVars(), tableIndexes);
+            writePointers(out, result.getStaticFields(), tableIndexes);
+            writePointers(out, result.getInstanceFields(), tableIndexes);
+            writePointers(out, result.getArrayIndexes(), tableIndexes);
+        }
+    }
+
+    private static void writePointers(DataOutputStream out,
+                                      Collection<? extends Pointer> pointers,
+                                      int[] tableIndexes) throws IOException {
+        writeVarint(out, pointers.size());
+        for (Pointer pointer : pointers) {
+            writeString(out, pointer.toString());
+            int[] objs = pointer.objects()
+                    .mapToInt(o -> tableIndexes[o.getIndex()])
+                    .sorted()
+                    .toArray();
+            writeVarint(out, objs.length);
+            int last = 0;
+            for (int obj : objs) {
+                writeVarint(out, obj - last);
+                last = obj;
+            }
+        }
+    }
+
+    /**
+     * Reads the points-to sets from {@code file}, which is mapped into
+     * memory instead of being read eagerly.
+     */
+    public static BinaryPointsToSets load(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryPointsToSets(buffer);
+        } catch (IOException e) {
+            throw new AnalysisException(
+                    "Failed to read points-to set from " + file, e);
+        }
+    }
+
+    /**
+     * @return the object at {@code index} of the string table.
+     */
+    public String getObject(int index) {
+        return objects[index];
+    }
+
+    public int getObjectCount() {
+        return objects.length;
+    }
+
+    /**
+     * Applies {@code action} to each pointer (as string) in the section
+     * and the string-table indexes of the objects pointed to by it.
+     *
+     * @param section description of the section, see {@link #SECTIONS}.
+     */
+    public void forEachPointer(String section, BiConsumer<String, int[]> action) {
+        int i = SECTIONS.indexOf(section);
+        if (i == -1) {
+            throw new IllegalArgumentException("Unknown section: " + section);
+        }
+        ByteBuffer in = buffer.duplicate().position(sectionPositions[i]);
+        int nPointers = readVarint(in);
+        for (int j = 0; j < nPointers; ++j) {
+            String pointer = readString(in);
+            int[] objs = new int[readVarint(in)];
+            int last = 0;
+            for (int k = 0; k < objs.length; ++k) {
+                last += readVarint(in);
+                objs[k] = last;
+            }
+            action.accept(pointer, objs);
+        }
+    }
+
+    /**
+     * Converts the points-to sets to the format of the text dump,
+     * i.e., pointer -> points-to set as a sorted list of objects.
+     */
+    public void toStrings(Map<String, String> result) {
+        SECTIONS.forEach(section -> forEachPointer(section, (pointer, objs) -> {
+            String[] pts = new String[objs.length];
+            for (int i = 0; i < objs.length; ++i) {
+                pts[i] = objects[objs[i]];
+            }
+            Arrays.sort(pts);
+            result.put(pointer, "[" + String.join(", ", pts) + "]");
+        }));
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static void writeString(OutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarint(in)];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void skipString(ByteBuffer in) {
+        int length = readVarint(in);
+        in.position(in.position() + length);
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.core.solver.Solver;
+import pascal.taie.config.ConfigException;
+import pascal.taie.config.Options;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.AnalysisException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Exports the object graph of the analyzed program as the graph input
+ * of the analyzer service. The graph contains:
+ * <ul>
+ *     <li>a node pair for each variable which holds an object allocated
+ *     in the main method of an application class, i.e., the variable
+ *     and the object's type (with the fields of the objects of the type),
+ *     <li>an edge from variable {@code a} to variable {@code b}, labeled
+ *     {@code m}, if the object held by {@code a} may receive a call to
+ *     its one-parameter method {@code m} with the object held by {@code b}.
+ * </ul>
+ * The graph is built from the analysis result directly, and written
+ * (in the format given by option {@code graph-input-format}) to the
+ * stream given by the embedder, or to the graph input file.
+ */
+public class GraphExporter implements Plugin {
+
+    private static final Logger logger = LogManager.getLogger(GraphExporter.class);
+
+    private static final String GRAPH_INPUT_FILE = "graphInput.txt";
+
+    private static final Subsignature MAIN = Subsignature.get(
+            "void main(java.lang.String[])");
+
+    private Solver solver;
+
+    @Override
+    public void setSolver(Solver solver) {
+        this.solver = solver;
+    }
+
+    @Override
+    public void onFinish() {
+        Options options = World.get().getOptions();
+        String format = solver.getOptions().getString("graph-input-format");
+        if (options.getGraphInputStream() != null) {
+            // the stream is owned by the embedder, thus it is not closed here
+            PrintStream out = new PrintStream(options.getGraphInputStream(), false, UTF_8);
+            export(solver.getResult(), makeSink(format, out, true));
+            out.flush();
+            return;
+        }
+        File outFile = options.getGraphInputFile() != null
+                ? options.getGraphInputFile()
+                : new File(System.getenv("ANALYZER_SERVICE_PATH"), GRAPH_INPUT_FILE);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(outFile.toPath()), false, UTF_8)) {
+            logger.info("Dumping graph input to {}", outFile.getAbsolutePath());
+            export(solver.getResult(), makeSink(format, out, false));
+        } catch (IOException e) {
+            logger.error("Failed to open output file {}", outFile);
+        }
+    }
+
+    private static Sink makeSink(String format, PrintStream out, boolean flush) {
+        return switch (format) {
+            case "text" -> new TextSink(out, flush);
+            case "ndjson" -> new JsonSink(out, flush);
+            default -> throw new ConfigException(
+                    "Illegal graph input format: " + format);
+        };
+    }
+
+    /**
+     * Exports the graph to {@code sink}. Each node and edge is sent
+     * to the sink as soon as it is found, so that the consumers of
+     * the sink can process the graph progressively.
+     */
+    private void export(PointerAnalysisResult result, Sink sink) {
+        // type name -> field names of the objects of the type,
+        // which are computed in advance as they are attached to nodes
+        Map<String, Set<String>> typeToProperties = new HashMap<>();
+        result.getInstanceFields().forEach(field -> {
+            Obj base = field.getBase().getObject();
+            if (isAppObj(base)) {
+                typeToProperties.computeIfAbsent(getTypeName(base),
+                        k -> new TreeSet<>()).add(field.getField().getName());
+            }
+        });
+        Set<String> varNames = new HashSet<>();
+        result.getObjects().forEach(obj -> {
+            if (isMainObj(obj)) {
+                String varName = getVarName((NewObj) obj);
+                if (varNames.add(varName)) {
+                    String typeName = getTypeName(obj);
+                    sink.node(varName, typeName,
+                            typeToProperties.getOrDefault(typeName, Set.of()));
+                }
+            }
+        });
+        result.getCallGraph()
+                .reachableMethods()
+                .filter(GraphExporter::isRelationMethod)
+                .sorted(Comparator.comparing(JMethod::toString))
+                .forEach(method -> {
+                    IR ir = method.getIR();
+                    for (Obj recv : getMainObjs(result, ir.getThis())) {
+                        for (Obj arg : getMainObjs(result, ir.getParam(0))) {
+                            sink.edge(getVarName((NewObj) recv),
+                                    getVarName((NewObj) arg), method.getName());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Receives the nodes and edges of the exported graph.
+     */
+    private interface Sink {
+
+        /**
+         * Receives a variable node and the node of its type.
+         */
+        void node(String varName, String typeName, Set<String> properties);
+
+        /**
+         * Receives an edge between two variable nodes.
+         */
+        void edge(String source, String target, String label);
+    }
+
+    /**
+     * Writes the graph in the text format read by the IDE plugin.
+     */
+    private record TextSink(PrintStream out, boolean flush) implements Sink {
+
+        @Override
+        public void node(String varName, String typeName, Set<String> properties) {
+            String node1 = String.format("(nodeLabel = \"%s\", nodeType = \"var\", properties = [])", varName);
+            String node2 = String.format("(nodeLabel = \"%s\", nodeType = \"type\", properties = %s)", typeName, properties);
+            out.printf("(%s, %s)\n", node1, node2);
+            if (flush) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void edge(String source, String target, String label) {
+            String node1 = String.format("nodeLabel = \"%s\", nodeType = \"var\", properties = []", source);
+            String node2 = String.format("nodeLabel = \"%s\", nodeType = \"var\", properties = []", target);
+            out.printf("((%s), (%s), edgeText = \"%s\")\n", node1, node2, label);
+            if (flush) {
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Writes the graph in newline-delimited JSON, i.e., one JSON object
+     * per node or edge.
+     */
+    private static class JsonSink implements Sink {
+
+        private static final ObjectMapper mapper = new ObjectMapper();
+
+        private final PrintStream out;
+
+        private final boolean flush;
+
+        private JsonSink(PrintStream out, boolean flush) {
+            this.out = out;
+            this.flush = flush;
+        }
+
+        @Override
+        public void node(String varName, String typeName, Set<String> properties) {
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("kind", "node");
+            node.put("var", varName);
+            node.put("type", typeName);
+            node.put("properties", properties);
+            write(node);
+        }
+
+        @Override
+        public void edge(String source, String target, String label) {
+            Map<String, Object> edge = new LinkedHashMap<>();
+            edge.put("kind", "edge");
+            edge.put("source", source);
+            edge.put("target", target);
+            edge.put("label", label);
+            write(edge);
+        }
+
+        private void write(Map<String, Object> record) {
+            try {
+                out.println(mapper.writeValueAsString(record));
+            } catch (JsonProcessingException e) {
+                throw new AnalysisException("Failed to write graph input", e);
+            }
+            if (flush) {
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if {@code obj} is allocated in the main method
+     * of an application class, and its type is also an application class.
+     */
+    private static boolean isMainObj(Obj obj) {
+        return isAppObj(obj) &&
+                obj.getContainerMethod()
+                        .filter(m -> m.isStatic() && m.getSubsignature().equals(MAIN))
+                        .isPresent();
+    }
+
+    private static boolean isAppObj(Obj obj) {
+        return obj instanceof NewObj &&
+                obj.getType() instanceof ClassType type &&
+                type.getJClass().isApplication() &&
+                obj.getContainerMethod()
+                        .map(m -> m.getDeclaringClass().isApplication())
+                        .orElse(false);
+    }
+
+    private static String getTypeName(Obj obj) {
+        return ((ClassType) obj.getType()).getJClass().getSimpleName();
+    }
+
+    /**
+     * @return {@code true} if {@code method} is a one-parameter instance
+     * method of an application class, which takes an object of an
+     * application class.
+     */
+    private static boolean isRelationMethod(JMethod method) {
+        return method.getDeclaringClass().isApplication() &&
+                !method.isStatic() && !method.isConstructor() &&
+                method.getParamCount() == 1 &&
+                method.getParamType(0) instanceof ClassType type &&
+                type.getJClass().isApplication();
+    }
+
+    private static List<Obj> getMainObjs(PointerAnalysisResult result, Var var) {
+        return result.getPointsToSet(var)
+                .stream()
+                .filter(GraphExporter::isMainObj)
+                .toList();
+    }
+
+    /**
+     * @return the name of the variable which holds {@code obj} right after
+     * its allocation. The IR builders name the variables after the local
+     * variables of the source code (i.e., the local variable tables
+     * emitted by {@code javac -g}), but the allocation itself is usually
+     * assigned to a temporary variable, which is then copied to the local
+     * variable after calling the constructor. Hence, the first non-temporary
+     * variable copied from the temporary variable is used, if any.
+     */
+    private static String getVarName(NewObj obj) {
+        New alloc = obj.getAllocation();
+        Var var = alloc.getLValue();
+        if (isTempVar(var)) {
+            List<Stmt> stmts = alloc.getContainer().getIR().getStmts();
+            for (Stmt stmt : stmts.subList(alloc.getIndex() + 1, stmts.size())) {
+                if (stmt instanceof Copy copy && copy.getRValue() == var
+                        && !isTempVar(copy.getLValue())) {
+                    var = copy.getLValue();
+                    break;
+                }
+            }
+        }
+        String name = var.getName();
+        // Soot splits the local variables which are assigned multiple
+        // times, and names the split variables like "a#2"
+        int split = name.indexOf('#');
+        return split > 0 ? name.substring(0, split) : name;
+    }
+
+    /**
+     * @return {@code true} if {@code var} is introduced by the IR builders,
+     * i.e., its name starts with '$' (the stack variables of Soot)
+     * or '%' (the temporary variables of Tai-e).
+     */
+    private static boolean isTempVar(Var var) {
+        String name = var.getName();
+        return name.startsWith("$") || name.startsWith("%");
+    }
+}
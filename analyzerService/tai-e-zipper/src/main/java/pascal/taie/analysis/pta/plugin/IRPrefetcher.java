@@ -0,0 +1,69 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.analysis.pta.core.solver.Solver;
+import pascal.taie.ir.IRPrebuilder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Builds the IR of the methods which are about to be reached by
+ * pointer analysis in background, so that the solver spends less time
+ * on waiting for IR building.
+ * <p>
+ * When a method becomes reachable, the IR of the methods resolved from
+ * its call sites (i.e., the targets of static and special calls, and
+ * the declared targets of virtual calls) are built in parallel,
+ * instead of building the IR of all methods in advance.
+ */
+public class IRPrefetcher implements Plugin {
+
+    private ClassHierarchy hierarchy;
+
+    /**
+     * Methods whose IR have been prefetched.
+     */
+    private final Set<JMethod> prefetched = Sets.newSet();
+
+    @Override
+    public void setSolver(Solver solver) {
+        this.hierarchy = solver.getHierarchy();
+    }
+
+    @Override
+    public void onNewMethod(JMethod method) {
+        List<JMethod> callees = method.getIR()
+                .invokes(false)
+                .map(invoke -> hierarchy.resolveMethod(invoke.getMethodRef()))
+                .filter(Objects::nonNull)
+                .filter(prefetched::add)
+                .toList();
+        IRPrebuilder.prefetch(callees);
+    }
+}
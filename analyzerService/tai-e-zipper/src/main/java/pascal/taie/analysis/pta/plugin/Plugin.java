@@ -41,6 +41,10 @@ import pascal.taie.language.classes.JMethod;
  * It is supposed to provide a mechanism for extending functionalities
  * of the analysis, so its implementations may have side effects
  * on pointer analysis.
+ * <p>
+ * All callbacks are invoked by the thread running the solver, also when
+ * the solver propagates points-to sets on multiple threads
+ * (see {@link pascal.taie.analysis.pta.core.solver.ParallelSolver}).
  */
 public interface Plugin {
 
@@ -34,6 +34,10 @@ import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.core.solver.Solver;
 import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory.OffHeapStatistics;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory.SharingStatistics;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JMethod;
@@ -56,6 +60,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -79,6 +84,8 @@ public class ResultProcessor implements Plugin {
 
     public static final String RESULTS_YAML_FILE = "pta-results.yml";
 
+    public static final String RESULTS_BINARY_FILE = "pta-results.bin";
+
     private static final String CI_RESULTS_FILE = "pta-ci-results.txt";
 
     private static final String HEADER = "Points-to sets of all ";
@@ -104,7 +111,7 @@ public class ResultProcessor implements Plugin {
 
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
-        logStatistics(result);
+        logStatistics(options, result);
 
         boolean taintEnabled = options.getString("taint-config") != null;
         if (options.getBoolean("dump")) {
@@ -119,6 +126,10 @@ public class ResultProcessor implements Plugin {
             dumpPointsToSetInYaml(result);
         }
 
+        if (options.getBoolean("dump-binary")) {
+            dumpPointsToSetInBinary(result);
+        }
+
         String expectedFile = options.getString("expected-file");
         if (expectedFile != null) {
             if (taintEnabled) {
@@ -131,7 +142,8 @@ public class ResultProcessor implements Plugin {
         }
     }
 
-    private static void logStatistics(PointerAnalysisResult result) {
+    private static void logStatistics(AnalysisOptions options,
+                                      PointerAnalysisResult result) {
         ToIntFunction<Pointer> getSize = p -> p.getObjects().size();
         logger.info("-------------- Pointer analysis statistics: --------------");
         int varInsens = result.getVars().size();
@@ -163,9 +175,36 @@ public class ResultProcessor implements Plugin {
         long callEdgeSens = result.getCSCallGraph().edges().count();
         logger.info(String.format("%-30s%s (insens) / %s (sens)", "#call graph edges:",
                 format(callEdgeInsens), format(callEdgeSens)));
+        String ptsKind = options.getString("points-to-set");
+        logger.info(String.format("%-30s%s", "points-to sets:", ptsKind));
+        if ("shared".equals(ptsKind)) {
+            SharingStatistics sharing = PointsToSetFactory.getSharingStatistics(
+                    getPointsToSets(result));
+            logger.info(String.format("%-30s%s (stored) / %s (held)",
+                    "#points-to set chunks:", format(sharing.distinctChunks()),
+                    format(sharing.chunks())));
+        } else if ("off-heap".equals(ptsKind)) {
+            OffHeapStatistics offHeap = PointsToSetFactory.getOffHeapStatistics(
+                    getPointsToSets(result));
+            if (offHeap != null) {
+                logger.info(String.format("%-30s%s (used) / %s (mapped)",
+                        "#off-heap points-to bytes:", format(offHeap.usedBytes()),
+                        format(offHeap.mappedBytes())));
+            }
+        }
         logger.info("----------------------------------------");
     }
 
+    private static Stream<PointsToSet> getPointsToSets(PointerAnalysisResult result) {
+        return Streams.<Pointer>concat(
+                        result.getCSVars().stream(),
+                        result.getStaticFields().stream(),
+                        result.getInstanceFields().stream(),
+                        result.getArrayIndexes().stream())
+                .map(Pointer::getPointsToSet)
+                .filter(Objects::nonNull);
+    }
+
     private static String format(long i) {
         return formatter.format(i);
     }
@@ -330,6 +369,17 @@ public class ResultProcessor implements Plugin {
         }
     }
 
+    private static void dumpPointsToSetInBinary(PointerAnalysisResult result) {
+        File outFile = new File(World.get().getOptions().getOutputDir(), RESULTS_BINARY_FILE);
+        logger.info("Dumping points-to set (with contexts) in binary to {}",
+                outFile.getAbsolutePath());
+        try {
+            BinaryPointsToSets.dump(result, outFile);
+        } catch (IOException e) {
+            logger.error("Failed to write output file {}", outFile);
+        }
+    }
+
     /**
      * Dumps points-to sets for all variables (without contexts).
      */
@@ -387,6 +437,11 @@ public class ResultProcessor implements Plugin {
     }
 
     private static Map<String, String> readPointsToSets(String input) {
+        if (input.endsWith(".bin")) {
+            Map<String, String> result = Maps.newLinkedHashMap();
+            BinaryPointsToSets.load(new File(input)).toStrings(result);
+            return result;
+        }
         try (Stream<String> lines = Files.lines(Path.of(input))) {
             Map<String, String> result = Maps.newLinkedHashMap();
             lines.filter(line -> line.contains(SEP))
@@ -63,6 +63,18 @@ abstract class DelegatePointsToSet implements PointsToSet {
         return set.contains(obj);
     }
 
+    @Override
+    public boolean containsAll(PointsToSet pts) {
+        return set.containsAll(pts instanceof DelegatePointsToSet other ?
+                other.set : pts.getObjects());
+    }
+
+    @Override
+    public boolean retainAll(PointsToSet pts) {
+        return set.retainAll(pts instanceof DelegatePointsToSet other ?
+                other.set : pts.getObjects());
+    }
+
     @Override
     public boolean isEmpty() {
         return set.isEmpty();
@@ -0,0 +1,637 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Points-to set which stores the words of its bit set off the Java heap.
+ * The bit set is split into fixed-size blocks, which are allocated from
+ * a {@link WordArena} backed by a memory-mapped file, so that the OS can
+ * page the blocks out to the file, and the garbage collector does not
+ * need to scan or copy them. Only the keys and the block numbers of
+ * a set are kept on the heap.
+ * <p>
+ * The differences returned by {@link #addAllDiff(PointsToSet)} and
+ * the copies returned by {@link #copy()} are also stored in the arena,
+ * so that the sets of an arena are always combined word by word.
+ * The sets are not tracked one by one: the blocks of a set are given back
+ * to its arena only when the set is released explicitly (see
+ * {@link PointsToSetFactory#release(PointsToSet)}) or its blocks become
+ * empty, and all blocks are released at once when the arena is closed.
+ */
+class OffHeapBitPointsToSet implements PointsToSet {
+
+    /**
+     * Number of bits in a block is (1 << BLOCK_SHIFT).
+     */
+    private static final int BLOCK_SHIFT = 9;
+
+    private static final int BLOCK_MASK = (1 << BLOCK_SHIFT) - 1;
+
+    private static final int BLOCK_WORDS = 1 << (BLOCK_SHIFT - 6);
+
+    private final Indexer<CSObj> indexer;
+
+    private final WordArena arena;
+
+    private final Blocks blocks;
+
+    /**
+     * Number of objects in this set.
+     */
+    private int size;
+
+    OffHeapBitPointsToSet(Indexer<CSObj> indexer, WordArena arena) {
+        this.indexer = indexer;
+        this.arena = arena;
+        this.blocks = new Blocks();
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        int index = indexer.getIndex(obj);
+        int word = (index & BLOCK_MASK) >>> 6;
+        long bit = 1L << index;
+        int pos = blocks.find(index >>> BLOCK_SHIFT);
+        int block;
+        if (pos < 0) {
+            block = arena.allocate();
+            blocks.insert(-pos - 1, index >>> BLOCK_SHIFT, block);
+        } else {
+            block = blocks.ids[pos];
+        }
+        long bits = arena.get(block, word);
+        if ((bits & bit) != 0) {
+            return false;
+        }
+        arena.set(block, word, bits | bit);
+        ++size;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof OffHeapBitPointsToSet other && other.arena == arena) {
+            return addAll(other, null);
+        } else {
+            boolean changed = false;
+            for (CSObj o : pts) {
+                changed |= addObject(o);
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        OffHeapBitPointsToSet diff = new OffHeapBitPointsToSet(indexer, arena);
+        if (pts instanceof OffHeapBitPointsToSet other && other.arena == arena) {
+            addAll(other, diff);
+        } else {
+            for (CSObj o : pts) {
+                if (addObject(o)) {
+                    diff.addObject(o);
+                }
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Adds all objects of {@code other}, which is in the same arena,
+     * to this set, and if {@code diff} is not {@code null}, adds
+     * the objects which are new to this set to {@code diff}.
+     */
+    private boolean addAll(OffHeapBitPointsToSet other,
+                           @Nullable OffHeapBitPointsToSet diff) {
+        if (other == this) {
+            return false;
+        }
+        Blocks theirs = other.blocks;
+        blocks.merge(theirs);
+        boolean changed = false;
+        try {
+            int i = 0;
+            for (int j = 0; j < theirs.count; ++j) {
+                int key = theirs.keys[j];
+                while (blocks.keys[i] != key) {
+                    ++i;
+                }
+                int from = theirs.ids[j];
+                boolean fresh = blocks.ids[i] == Blocks.NONE;
+                int to = fresh ? (blocks.ids[i] = arena.allocate()) : blocks.ids[i];
+                for (int w = 0; w < BLOCK_WORDS; ++w) {
+                    long bits = arena.get(to, w);
+                    long newBits = arena.get(from, w) & ~bits;
+                    if (newBits != 0) {
+                        arena.set(to, w, bits | newBits);
+                        size += Long.bitCount(newBits);
+                        changed = true;
+                        if (diff != null) {
+                            diff.appendBits(key, w, newBits);
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            // the arena fails to allocate a block, and the placeholders
+            // of the blocks which are not allocated are removed, so that
+            // this set stays valid with the objects added so far
+            blocks.removeUnallocated();
+            throw e;
+        }
+        return changed;
+    }
+
+    /**
+     * Adds given bits to the w-th word of the block of given key,
+     * which must not be less than the keys of the blocks in this set.
+     */
+    private void appendBits(int key, int w, long bits) {
+        int last = blocks.count - 1;
+        int block;
+        if (last >= 0 && blocks.keys[last] == key) {
+            block = blocks.ids[last];
+        } else {
+            block = arena.allocate();
+            blocks.insert(blocks.count, key, block);
+        }
+        arena.set(block, w, arena.get(block, w) | bits);
+        size += Long.bitCount(bits);
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        int index = indexer.getIndex(obj);
+        int pos = blocks.find(index >>> BLOCK_SHIFT);
+        return pos >= 0 && (arena.get(blocks.ids[pos],
+                (index & BLOCK_MASK) >>> 6) & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean containsAll(PointsToSet pts) {
+        if (pts instanceof OffHeapBitPointsToSet other && other.arena == arena) {
+            Blocks theirs = other.blocks;
+            for (int j = 0; j < theirs.count; ++j) {
+                int pos = blocks.find(theirs.keys[j]);
+                if (pos < 0) {
+                    return false;
+                }
+                for (int w = 0; w < BLOCK_WORDS; ++w) {
+                    if ((arena.get(theirs.ids[j], w)
+                            & ~arena.get(blocks.ids[pos], w)) != 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } else {
+            for (CSObj o : pts) {
+                if (!contains(o)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public boolean retainAll(PointsToSet pts) {
+        OffHeapBitPointsToSet other = pts instanceof OffHeapBitPointsToSet s
+                && s.arena == arena ? s : null;
+        boolean changed = false;
+        int k = 0;
+        for (int i = 0; i < blocks.count; ++i) {
+            int block = blocks.ids[i];
+            int pos = other != null ? other.blocks.find(blocks.keys[i]) : 0;
+            int remaining = 0;
+            for (int w = 0; w < BLOCK_WORDS; ++w) {
+                long bits = arena.get(block, w);
+                long kept;
+                if (other == null) {
+                    kept = retained(pts, blocks.keys[i], w, bits);
+                } else {
+                    kept = pos < 0 ? 0 :
+                            bits & arena.get(other.blocks.ids[pos], w);
+                }
+                if (kept != bits) {
+                    arena.set(block, w, kept);
+                    size -= Long.bitCount(bits & ~kept);
+                    changed = true;
+                }
+                remaining += Long.bitCount(kept);
+            }
+            if (remaining == 0) {
+                arena.free(block);
+            } else {
+                blocks.keys[k] = blocks.keys[i];
+                blocks.ids[k++] = block;
+            }
+        }
+        blocks.count = k;
+        return changed;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj &&
+                        OffHeapBitPointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<CSObj> iterator() {
+                return new ObjIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    public PointsToSet copy() {
+        OffHeapBitPointsToSet copy = new OffHeapBitPointsToSet(indexer, arena);
+        for (int i = 0; i < blocks.count; ++i) {
+            int from = blocks.ids[i];
+            int to = arena.allocate();
+            copy.blocks.insert(i, blocks.keys[i], to);
+            for (int w = 0; w < BLOCK_WORDS; ++w) {
+                arena.set(to, w, arena.get(from, w));
+            }
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * @return the bits of the objects in given bits, i.e., the w-th word
+     * of the block of given key, which are contained in {@code pts}.
+     */
+    private long retained(PointsToSet pts, int key, int w, long bits) {
+        int base = (key << BLOCK_SHIFT) | (w << 6);
+        long kept = bits;
+        for (long rest = bits; rest != 0; rest &= rest - 1) {
+            long bit = Long.lowestOneBit(rest);
+            if (!pts.contains(indexer.getObject(base | Long.numberOfTrailingZeros(bit)))) {
+                kept &= ~bit;
+            }
+        }
+        return kept;
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+
+    WordArena getArena() {
+        return arena;
+    }
+
+    /**
+     * Gives the blocks of this set back to its arena,
+     * after which this set is empty.
+     */
+    void release() {
+        arena.free(blocks.ids, blocks.count);
+        blocks.count = 0;
+        size = 0;
+    }
+
+    private class ObjIterator implements Iterator<CSObj> {
+
+        private int pos = 0;
+
+        private int word = 0;
+
+        private long bits = blocks.count > 0 ? arena.get(blocks.ids[0], 0) : 0;
+
+        @Override
+        public boolean hasNext() {
+            while (bits == 0) {
+                if (++word == BLOCK_WORDS) {
+                    word = 0;
+                    ++pos;
+                }
+                if (pos >= blocks.count) {
+                    return false;
+                }
+                bits = arena.get(blocks.ids[pos], word);
+            }
+            return true;
+        }
+
+        @Override
+        public CSObj next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int bit = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            int index = (blocks.keys[pos] << BLOCK_SHIFT) | (word << 6) | bit;
+            return indexer.getObject(index);
+        }
+    }
+
+    /**
+     * Sorted keys and the numbers of the blocks of a set, where the block
+     * of key k holds the objects whose indexes are in
+     * [k << BLOCK_SHIFT, (k + 1) << BLOCK_SHIFT).
+     */
+    private static final class Blocks {
+
+        /**
+         * Placeholder of the blocks which are not allocated yet.
+         */
+        private static final int NONE = -1;
+
+        private int[] keys = new int[2];
+
+        private int[] ids = new int[2];
+
+        private int count;
+
+        /**
+         * @return position of the block of given key if it exists,
+         * otherwise (-(insertion point) - 1).
+         */
+        private int find(int key) {
+            return Arrays.binarySearch(keys, 0, count, key);
+        }
+
+        private void insert(int pos, int key, int id) {
+            if (count == keys.length) {
+                int newLength = count * 2;
+                keys = Arrays.copyOf(keys, newLength);
+                ids = Arrays.copyOf(ids, newLength);
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+            System.arraycopy(ids, pos, ids, pos + 1, count - pos);
+            keys[pos] = key;
+            ids[pos] = id;
+            ++count;
+        }
+
+        /**
+         * Adds the keys of {@code other} which are missing in this object,
+         * whose blocks are set to {@link #NONE}.
+         */
+        private void merge(Blocks other) {
+            int missing = 0;
+            for (int j = 0; j < other.count; ++j) {
+                if (find(other.keys[j]) < 0) {
+                    ++missing;
+                }
+            }
+            if (missing == 0) {
+                return;
+            }
+            int newCount = count + missing;
+            int[] newKeys = new int[Math.max(newCount, keys.length)];
+            int[] newIds = new int[newKeys.length];
+            int i = 0, j = 0, k = 0;
+            while (i < count || j < other.count) {
+                if (j == other.count ||
+                        (i < count && keys[i] <= other.keys[j])) {
+                    if (j < other.count && keys[i] == other.keys[j]) {
+                        ++j;
+                    }
+                    newKeys[k] = keys[i];
+                    newIds[k++] = ids[i++];
+                } else {
+                    newKeys[k] = other.keys[j++];
+                    newIds[k++] = NONE;
+                }
+            }
+            keys = newKeys;
+            ids = newIds;
+            count = newCount;
+        }
+
+        /**
+         * Removes the blocks which are set to {@link #NONE} by
+         * {@link #merge(Blocks)} but are not allocated.
+         */
+        private void removeUnallocated() {
+            int k = 0;
+            for (int i = 0; i < count; ++i) {
+                if (ids[i] != NONE) {
+                    keys[k] = keys[i];
+                    ids[k++] = ids[i];
+                }
+            }
+            count = k;
+        }
+    }
+
+    /**
+     * Allocates blocks of words in a memory-mapped file. The file is
+     * mapped region by region as the arena grows, and is deleted
+     * when the arena is closed. The arena is closed when the world
+     * of the pointer analysis which owns it is reset.
+     */
+    static final class WordArena {
+
+        /**
+         * Number of bytes in a block.
+         */
+        private static final int BLOCK_BYTES = BLOCK_WORDS * Long.BYTES;
+
+        /**
+         * Number of blocks in a region is (1 << REGION_SHIFT),
+         * i.e., each region is 64 MB.
+         */
+        private static final int REGION_SHIFT = 20;
+
+        private static final int REGION_MASK = (1 << REGION_SHIFT) - 1;
+
+        private final Path file;
+
+        private final FileChannel channel;
+
+        private volatile ByteBuffer[] regions = new ByteBuffer[0];
+
+        /**
+         * Number of the next block which has never been allocated.
+         */
+        private int nextBlock;
+
+        private int[] freeBlocks = new int[16];
+
+        private int freeCount;
+
+        private boolean closed;
+
+        /**
+         * @param dir directory of the file which backs this arena.
+         */
+        WordArena(Path dir) {
+            try {
+                Files.createDirectories(dir);
+                file = Files.createTempFile(dir, "pts-", ".bin");
+                channel = FileChannel.open(file, READ, WRITE, DELETE_ON_CLOSE);
+            } catch (IOException e) {
+                throw new RuntimeException(
+                        "Failed to create off-heap points-to storage in " + dir, e);
+            }
+        }
+
+        /**
+         * Closes this arena, which deletes its file. The mapped regions
+         * are released after they are garbage-collected, and the sets
+         * allocated in this arena must not be used afterwards.
+         */
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            regions = new ByteBuffer[0];
+            nextBlock = freeCount = 0;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close " + file, e);
+            }
+        }
+
+        private long get(int block, int word) {
+            return regions[block >>> REGION_SHIFT].getLong(offset(block, word));
+        }
+
+        private void set(int block, int word, long bits) {
+            regions[block >>> REGION_SHIFT].putLong(offset(block, word), bits);
+        }
+
+        private static int offset(int block, int word) {
+            return (block & REGION_MASK) * BLOCK_BYTES + word * Long.BYTES;
+        }
+
+        /**
+         * @return number of an empty block.
+         */
+        private synchronized int allocate() {
+            if (closed) {
+                throw new IllegalStateException("Off-heap points-to storage is closed");
+            }
+            if (freeCount > 0) {
+                int block = freeBlocks[--freeCount];
+                for (int w = 0; w < BLOCK_WORDS; ++w) {
+                    set(block, w, 0);
+                }
+                return block;
+            }
+            if (nextBlock < 0) {
+                throw new OutOfMemoryError("Off-heap points-to storage is full");
+            }
+            int block = nextBlock++;
+            int region = block >>> REGION_SHIFT;
+            if (region == regions.length) {
+                long regionBytes = (long) BLOCK_BYTES << REGION_SHIFT;
+                try {
+                    ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                                    region * regionBytes, regionBytes)
+                            .order(ByteOrder.nativeOrder());
+                    ByteBuffer[] newRegions = Arrays.copyOf(regions, region + 1);
+                    newRegions[region] = buffer;
+                    regions = newRegions;
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to map " + file, e);
+                }
+            }
+            return block;
+        }
+
+        private synchronized void free(int block) {
+            if (freeCount == freeBlocks.length) {
+                freeBlocks = Arrays.copyOf(freeBlocks, freeCount * 2);
+            }
+            freeBlocks[freeCount++] = block;
+        }
+
+        private synchronized void free(int[] blocks, int count) {
+            if (closed) {
+                return;
+            }
+            for (int i = 0; i < count; ++i) {
+                if (blocks[i] != Blocks.NONE) {
+                    free(blocks[i]);
+                }
+            }
+        }
+
+        /**
+         * @return number of bytes of the mapped regions.
+         */
+        long getMappedBytes() {
+            return (long) regions.length * BLOCK_BYTES << REGION_SHIFT;
+        }
+
+        /**
+         * @return number of bytes of the blocks which are in use.
+         */
+        synchronized long getUsedBytes() {
+            return (long) (nextBlock - freeCount) * BLOCK_BYTES;
+        }
+    }
+}
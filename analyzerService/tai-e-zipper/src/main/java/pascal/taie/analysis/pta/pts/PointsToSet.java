@@ -62,6 +62,20 @@ public interface PointsToSet extends Iterable<CSObj>, Copyable<PointsToSet> {
      */
     boolean contains(CSObj obj);
 
+    /**
+     * @return true if this set contains all objects in given pts,
+     * otherwise false.
+     */
+    boolean containsAll(PointsToSet pts);
+
+    /**
+     * Retains only the objects in this set that are contained in given pts.
+     *
+     * @return true if this points-to set changed as a result of the call,
+     * otherwise false.
+     */
+    boolean retainAll(PointsToSet pts);
+
     /**
      * @return whether this set if empty.
      */
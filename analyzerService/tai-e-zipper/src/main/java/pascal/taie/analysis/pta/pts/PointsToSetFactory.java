@@ -23,9 +23,17 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.config.ConfigException;
 import pascal.taie.util.Indexer;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Provides static factory methods for {@link PointsToSet}.
@@ -34,8 +42,43 @@ public class PointsToSetFactory {
 
     private final Supplier<PointsToSet> factory;
 
+    /**
+     * Arena of {@code off-heap} points-to sets, or {@code null}
+     * for other kinds of points-to sets.
+     */
+    @Nullable
+    private OffHeapBitPointsToSet.WordArena arena;
+
     public PointsToSetFactory(Indexer<CSObj> objIndexer) {
-        factory = () -> new HybridBitPointsToSet(objIndexer, true);
+        this(objIndexer, "hybrid", null);
+    }
+
+    /**
+     * @param kind kind of points-to sets made by this factory, i.e.,
+     *             {@code hybrid} (hybrid bit sets owned by each set) or
+     *             {@code shared} (bit sets whose chunks are shared among
+     *             the sets by copy-on-write and hash-consing), or
+     *             {@code off-heap} (bit sets stored in a memory-mapped file).
+     * @param dir  directory of the file which stores {@code off-heap}
+     *             points-to sets.
+     */
+    public PointsToSetFactory(Indexer<CSObj> objIndexer, String kind, Path dir) {
+        factory = switch (kind) {
+            case "hybrid" -> () -> new HybridBitPointsToSet(objIndexer, true);
+            case "shared" -> {
+                SharedBitPointsToSet.ChunkTable table =
+                        new SharedBitPointsToSet.ChunkTable();
+                yield () -> new SharedBitPointsToSet(objIndexer, table);
+            }
+            case "off-heap" -> {
+                OffHeapBitPointsToSet.WordArena arena =
+                        new OffHeapBitPointsToSet.WordArena(dir);
+                this.arena = arena;
+                yield () -> new OffHeapBitPointsToSet(objIndexer, arena);
+            }
+            default -> throw new ConfigException(
+                    "Unknown kind of points-to set: " + kind);
+        };
     }
 
     public PointsToSet make() {
@@ -50,4 +93,75 @@ public class PointsToSetFactory {
         set.addObject(obj);
         return set;
     }
+
+    /**
+     * Gives the storage of given points-to set, which is no longer used,
+     * back to this factory. This matters only for {@code off-heap} sets,
+     * whose storage is otherwise released when this factory is closed.
+     */
+    public void release(PointsToSet pts) {
+        if (pts instanceof OffHeapBitPointsToSet set && set.getArena() == arena) {
+            set.release();
+        }
+    }
+
+    /**
+     * Releases the storage of the points-to sets made by this factory,
+     * which must not be used afterwards.
+     */
+    public void close() {
+        if (arena != null) {
+            arena.close();
+        }
+    }
+
+    /**
+     * Statistics of the chunks of {@code shared} points-to sets.
+     *
+     * @param chunks         number of chunks held by the sets.
+     * @param distinctChunks number of distinct chunks, i.e., the chunks
+     *                       which are actually stored.
+     */
+    public record SharingStatistics(long chunks, long distinctChunks) {
+    }
+
+    /**
+     * Counts the chunks of given points-to sets, where the sets
+     * which are not {@code shared} are ignored.
+     */
+    public static SharingStatistics getSharingStatistics(Stream<PointsToSet> sets) {
+        long chunks = 0;
+        Set<Object> distinctChunks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Iterator<PointsToSet> it = sets.iterator(); it.hasNext(); ) {
+            if (it.next() instanceof SharedBitPointsToSet shared) {
+                chunks += shared.forEachChunk(distinctChunks::add);
+            }
+        }
+        return new SharingStatistics(chunks, distinctChunks.size());
+    }
+
+    /**
+     * Statistics of the storage of {@code off-heap} points-to sets.
+     *
+     * @param mappedBytes number of bytes mapped from the backing file.
+     * @param usedBytes   number of bytes in use by the sets.
+     */
+    public record OffHeapStatistics(long mappedBytes, long usedBytes) {
+    }
+
+    /**
+     * Reads the storage statistics of given points-to sets.
+     *
+     * @return the statistics, or {@code null} if none of the sets
+     * is {@code off-heap}.
+     */
+    @Nullable
+    public static OffHeapStatistics getOffHeapStatistics(Stream<PointsToSet> sets) {
+        return sets.filter(s -> s instanceof OffHeapBitPointsToSet)
+                .findAny()
+                .map(s -> ((OffHeapBitPointsToSet) s).getArena())
+                .map(arena -> new OffHeapStatistics(
+                        arena.getMappedBytes(), arena.getUsedBytes()))
+                .orElse(null);
+    }
 }
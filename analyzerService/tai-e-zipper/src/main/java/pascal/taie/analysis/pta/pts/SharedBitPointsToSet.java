@@ -0,0 +1,585 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.Indexer;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set which stores its objects as a bit set that is split into
+ * fixed-size chunks. The chunks are shared among points-to sets by
+ * copy-on-write, i.e., copying a set or adding a set to an empty part
+ * of another set shares the chunks instead of copying them, and a shared
+ * (i.e., frozen) chunk is copied only when a set that holds it is modified.
+ * <p>
+ * Copying a set only freezes its chunks, as most copies are short-lived
+ * (e.g., the entries of work list and the results of transfers). When a
+ * chunk is published to another set by adding a set to an empty part of
+ * it (e.g., the points-to set of a pointer), the chunk is hash-consed via
+ * {@link ChunkTable}, so that the chunks with identical contents, which
+ * are common as many pointers point to the same groups of objects, are
+ * stored only once. The hash code of each chunk is maintained as the chunk
+ * changes, thus hash-consing does not rehash the chunk. This saves memory
+ * at the cost of some CPU time, and suits the analyses whose points-to sets
+ * are large and similar.
+ */
+class SharedBitPointsToSet implements PointsToSet {
+
+    /**
+     * Number of bits in a chunk is (1 << CHUNK_SHIFT).
+     */
+    private static final int CHUNK_SHIFT = 9;
+
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private static final int CHUNK_WORDS = 1 << (CHUNK_SHIFT - 6);
+
+    private final Indexer<CSObj> indexer;
+
+    private final ChunkTable table;
+
+    /**
+     * Sorted keys of the non-empty chunks, where the chunk of key k
+     * holds the objects whose indexes are in
+     * [k << CHUNK_SHIFT, (k + 1) << CHUNK_SHIFT).
+     */
+    private int[] keys;
+
+    private Chunk[] chunks;
+
+    /**
+     * Number of chunks in this set.
+     */
+    private int count;
+
+    /**
+     * Number of objects in this set.
+     */
+    private int size;
+
+    SharedBitPointsToSet(Indexer<CSObj> indexer, ChunkTable table) {
+        this(indexer, table, new int[2], new Chunk[2], 0, 0);
+    }
+
+    private SharedBitPointsToSet(Indexer<CSObj> indexer, ChunkTable table,
+                                 int[] keys, Chunk[] chunks, int count, int size) {
+        this.indexer = indexer;
+        this.table = table;
+        this.keys = keys;
+        this.chunks = chunks;
+        this.count = count;
+        this.size = size;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        int index = indexer.getIndex(obj);
+        int key = index >>> CHUNK_SHIFT;
+        int word = (index & CHUNK_MASK) >>> 6;
+        long bit = 1L << index;
+        int pos = find(key);
+        if (pos < 0) {
+            pos = -pos - 1;
+            insert(pos, key, new Chunk());
+        } else if ((chunks[pos].words[word] & bit) != 0) {
+            return false;
+        }
+        Chunk chunk = writableChunk(pos);
+        chunk.set(word, chunk.words[word] | bit);
+        ++size;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof SharedBitPointsToSet other) {
+            return addAll(other, null);
+        } else {
+            boolean changed = false;
+            for (CSObj o : pts) {
+                changed |= addObject(o);
+            }
+            return changed;
+        }
+    }
+
+    @Override
+    public PointsToSet addAllDiff(PointsToSet pts) {
+        SharedBitPointsToSet diff = new SharedBitPointsToSet(indexer, table);
+        if (pts instanceof SharedBitPointsToSet other) {
+            addAll(other, diff);
+        } else {
+            for (CSObj o : pts) {
+                if (addObject(o)) {
+                    diff.addObject(o);
+                }
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Adds all objects of {@code other} to this set, and if {@code diff}
+     * is not {@code null}, adds the objects which are new to this set
+     * to {@code diff}, which must be empty.
+     */
+    private boolean addAll(SharedBitPointsToSet other, SharedBitPointsToSet diff) {
+        if (other == this) {
+            return false;
+        }
+        int missing = 0;
+        for (int j = 0; j < other.count; ++j) {
+            if (find(other.keys[j]) < 0) {
+                ++missing;
+            }
+        }
+        if (missing > 0) {
+            // make room for missing chunks, and merge the keys
+            // so that missing chunks are placed in order
+            int newCount = count + missing;
+            int[] newKeys = new int[Math.max(newCount, keys.length)];
+            Chunk[] newChunks = new Chunk[newKeys.length];
+            int i = 0, j = 0, k = 0;
+            while (i < count || j < other.count) {
+                if (j == other.count ||
+                        (i < count && keys[i] <= other.keys[j])) {
+                    if (j < other.count && keys[i] == other.keys[j]) {
+                        ++j;
+                    }
+                    newKeys[k] = keys[i];
+                    newChunks[k++] = chunks[i++];
+                } else {
+                    // placeholder, filled below
+                    newKeys[k++] = other.keys[j++];
+                }
+            }
+            keys = newKeys;
+            chunks = newChunks;
+            count = newCount;
+        }
+        boolean changed = false;
+        int i = 0;
+        for (int j = 0; j < other.count; ++j) {
+            int key = other.keys[j];
+            while (keys[i] != key) {
+                ++i;
+            }
+            Chunk theirs = other.chunks[j];
+            Chunk mine = chunks[i];
+            if (mine == null) {
+                Chunk shared = other.publish(j);
+                chunks[i] = shared;
+                int n = shared.cardinality();
+                size += n;
+                if (diff != null) {
+                    diff.append(key, shared, n);
+                }
+                changed = true;
+            } else if (mine != theirs && !mine.contains(theirs)) {
+                Chunk added = diff != null ? new Chunk() : null;
+                Chunk chunk = writableChunk(i);
+                int n = 0;
+                for (int w = 0; w < CHUNK_WORDS; ++w) {
+                    long newBits = theirs.words[w] & ~chunk.words[w];
+                    if (newBits != 0) {
+                        chunk.set(w, chunk.words[w] | newBits);
+                        n += Long.bitCount(newBits);
+                        if (added != null) {
+                            added.set(w, newBits);
+                        }
+                    }
+                }
+                size += n;
+                if (diff != null) {
+                    diff.append(key, added, n);
+                }
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        int index = indexer.getIndex(obj);
+        int pos = find(index >>> CHUNK_SHIFT);
+        return pos >= 0 &&
+                (chunks[pos].words[(index & CHUNK_MASK) >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean containsAll(PointsToSet pts) {
+        if (pts instanceof SharedBitPointsToSet other) {
+            for (int j = 0; j < other.count; ++j) {
+                int pos = find(other.keys[j]);
+                if (pos < 0 || !chunks[pos].contains(other.chunks[j])) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            for (CSObj o : pts) {
+                if (!contains(o)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public boolean retainAll(PointsToSet pts) {
+        SharedBitPointsToSet other;
+        if (pts instanceof SharedBitPointsToSet s) {
+            other = s;
+        } else {
+            other = new SharedBitPointsToSet(indexer, table);
+            other.addAll(pts);
+        }
+        boolean changed = false;
+        int k = 0;
+        for (int i = 0; i < count; ++i) {
+            Chunk mine = chunks[i];
+            int pos = other.find(keys[i]);
+            Chunk theirs = pos >= 0 ? other.chunks[pos] : null;
+            if (theirs != mine && (theirs == null || !theirs.contains(mine))) {
+                int removed = 0, remaining = 0;
+                Chunk chunk = writableChunk(i);
+                for (int w = 0; w < CHUNK_WORDS; ++w) {
+                    long word = chunk.words[w];
+                    long kept = theirs == null ? 0 : word & theirs.words[w];
+                    removed += Long.bitCount(word & ~kept);
+                    remaining += Long.bitCount(kept);
+                    chunk.set(w, kept);
+                }
+                size -= removed;
+                changed = true;
+                if (remaining == 0) {
+                    continue;
+                }
+            }
+            keys[k] = keys[i];
+            chunks[k++] = chunks[i];
+        }
+        Arrays.fill(chunks, k, count, null);
+        count = k;
+        return changed;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<CSObj> getObjects() {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof CSObj obj &&
+                        SharedBitPointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<CSObj> iterator() {
+                return new ObjIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    public PointsToSet copy() {
+        for (int i = 0; i < count; ++i) {
+            chunks[i].frozen = true;
+        }
+        return new SharedBitPointsToSet(indexer, table,
+                keys.clone(), chunks.clone(), count, size);
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+
+    /**
+     * Visits the chunks of this set.
+     *
+     * @return number of the chunks of this set.
+     */
+    int forEachChunk(Consumer<Object> action) {
+        for (int i = 0; i < count; ++i) {
+            action.accept(chunks[i]);
+        }
+        return count;
+    }
+
+    /**
+     * @return position of the chunk of given key if it exists,
+     * otherwise (-(insertion point) - 1).
+     */
+    private int find(int key) {
+        return Arrays.binarySearch(keys, 0, count, key);
+    }
+
+    private void insert(int pos, int key, Chunk chunk) {
+        if (count == keys.length) {
+            int newLength = count * 2;
+            keys = Arrays.copyOf(keys, newLength);
+            chunks = Arrays.copyOf(chunks, newLength);
+        }
+        System.arraycopy(keys, pos, keys, pos + 1, count - pos);
+        System.arraycopy(chunks, pos, chunks, pos + 1, count - pos);
+        keys[pos] = key;
+        chunks[pos] = chunk;
+        ++count;
+    }
+
+    /**
+     * Appends a chunk whose key is larger than the keys of all chunks
+     * in this set.
+     */
+    private void append(int key, Chunk chunk, int n) {
+        insert(count, key, chunk);
+        size += n;
+    }
+
+    /**
+     * @return the chunk at given position, which is copied before
+     * if it is shared.
+     */
+    private Chunk writableChunk(int pos) {
+        Chunk chunk = chunks[pos];
+        if (chunk.frozen) {
+            chunk = chunks[pos] = new Chunk(chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Freezes the chunk at given position, so that it can be shared
+     * with another set, and hash-conses it.
+     *
+     * @return the canonical chunk which is equal to the frozen chunk.
+     */
+    private Chunk publish(int pos) {
+        Chunk chunk = chunks[pos];
+        if (!chunk.interned) {
+            chunk = chunks[pos] = table.intern(chunk);
+        }
+        return chunk;
+    }
+
+    private class ObjIterator implements Iterator<CSObj> {
+
+        private int pos = 0;
+
+        private int word = 0;
+
+        private long bits = count > 0 ? chunks[0].words[0] : 0;
+
+        @Override
+        public boolean hasNext() {
+            while (bits == 0) {
+                if (++word == CHUNK_WORDS) {
+                    word = 0;
+                    ++pos;
+                }
+                if (pos >= count) {
+                    return false;
+                }
+                bits = chunks[pos].words[word];
+            }
+            return true;
+        }
+
+        @Override
+        public CSObj next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int bit = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            int index = (keys[pos] << CHUNK_SHIFT) | (word << 6) | bit;
+            return indexer.getObject(index);
+        }
+    }
+
+    /**
+     * A fixed-size piece of bit set. A chunk is mutable until it is frozen,
+     * and chunks are compared by their contents.
+     */
+    private static final class Chunk {
+
+        private final long[] words;
+
+        /**
+         * Whether this chunk may be shared by multiple sets,
+         * thus it must not be modified.
+         */
+        private boolean frozen;
+
+        /**
+         * Whether this chunk is the canonical one in {@link ChunkTable}.
+         */
+        private boolean interned;
+
+        /**
+         * Hash code of the words, i.e., the XOR of {@link #mix} of
+         * each word, which is updated as the words change.
+         */
+        private int hashCode;
+
+        private Chunk() {
+            words = new long[CHUNK_WORDS];
+        }
+
+        private Chunk(Chunk chunk) {
+            words = chunk.words.clone();
+            hashCode = chunk.hashCode;
+        }
+
+        /**
+         * Sets the w-th word of this chunk to {@code value}.
+         */
+        private void set(int w, long value) {
+            hashCode ^= mix(w, words[w]) ^ mix(w, value);
+            words[w] = value;
+        }
+
+        /**
+         * @return hash code of given word at position w,
+         * which is 0 for an empty word.
+         */
+        private static int mix(int w, long value) {
+            long h = (value ^ (value >>> 29)) * (0x9E3779B97F4A7C15L + 2L * w);
+            return (int) (h ^ (h >>> 32));
+        }
+
+        private boolean contains(Chunk other) {
+            for (int w = 0; w < CHUNK_WORDS; ++w) {
+                if ((other.words[w] & ~words[w]) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int cardinality() {
+            int n = 0;
+            for (long word : words) {
+                n += Long.bitCount(word);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || (o instanceof Chunk other &&
+                    Arrays.equals(words, other.words));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Hash-conses frozen chunks. Chunks are weakly referenced by this table,
+     * so that the chunks which are no longer held by any points-to sets
+     * can be garbage-collected. Each factory of points-to sets (thus each
+     * pointer analysis) has its own table, which is split into stripes
+     * by the hash codes of chunks, so that the sets on different threads
+     * (e.g., of {@code ParallelSolver}) rarely contend on the same lock.
+     */
+    static final class ChunkTable {
+
+        private static final int STRIPES = 64;
+
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        ChunkTable() {
+            Arrays.setAll(stripes, __ -> new Stripe());
+        }
+
+        private Chunk intern(Chunk chunk) {
+            chunk.frozen = true;
+            int h = chunk.hashCode;
+            Stripe stripe = stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+            synchronized (stripe) {
+                WeakReference<Chunk> ref = stripe.chunks.get(chunk);
+                Chunk canonical = ref != null ? ref.get() : null;
+                if (canonical == null) {
+                    chunk.interned = true;
+                    stripe.chunks.put(chunk, new WeakReference<>(chunk));
+                    canonical = chunk;
+                }
+                return canonical;
+            }
+        }
+
+        /**
+         * @return number of distinct chunks in this table.
+         */
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    size += stripe.chunks.size();
+                }
+            }
+            return size;
+        }
+
+        private static final class Stripe {
+
+            private final Map<Chunk, WeakReference<Chunk>> chunks = new WeakHashMap<>();
+        }
+    }
+}
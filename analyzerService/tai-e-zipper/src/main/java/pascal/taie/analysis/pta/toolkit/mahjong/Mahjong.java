@@ -0,0 +1,195 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.mahjong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.NewObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Indexer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Mahjong merges the objects whose field points-to automata are equivalent,
+ * i.e., for every sequence of fields, the objects reached from them along
+ * the sequence have the same types. Merging such objects keeps the precision
+ * of type-dependent clients, e.g., call graph construction and may-fail
+ * casting, while it shrinks the heap of the main analysis.
+ * <p>
+ * The automata are built from the field points-to graph of context-insensitive
+ * pre-analysis. Instead of determinizing the automata and comparing them
+ * pairwise, this implementation partitions the objects by refinement:
+ * it starts with grouping the objects by types, and splits the groups until
+ * the objects in each group point to the same groups via each field.
+ * The objects in a resulting group have equivalent automata, thus the
+ * merging is type-consistent, although it may merge fewer objects than
+ * the comparison of the determinized automata.
+ */
+public class Mahjong {
+
+    private static final Logger logger = LogManager.getLogger(Mahjong.class);
+
+    /**
+     * Field of the field points-to graph which represents array indexes.
+     */
+    private static final Object ARRAY_INDEX = "[*]";
+
+    private final PointerAnalysisResult pta;
+
+    private final Indexer<Obj> objIndexer;
+
+    /**
+     * Object -> field -> objects pointed to by the field of the object.
+     */
+    private final Map<Obj, Map<Object, Set<Obj>>> fpg = Maps.newMap();
+
+    /**
+     * Parses Mahjong argument and runs Mahjong.
+     *
+     * @return the map from each merged allocation site to the representative
+     * allocation site of its group.
+     */
+    public static Map<New, New> run(PointerAnalysisResult pta, String arg) {
+        if (!arg.equals("mahjong")) {
+            throw new IllegalArgumentException("Illegal Mahjong argument: " + arg);
+        }
+        return new Mahjong(pta).mergeAllocationSites();
+    }
+
+    public Mahjong(PointerAnalysisResult pta) {
+        this.pta = pta;
+        this.objIndexer = pta.getObjectIndexer();
+        pta.getInstanceFields().forEach(f ->
+                addFieldEdges(f.getBase(), f.getField(), f));
+        pta.getArrayIndexes().forEach(a ->
+                addFieldEdges(a.getArray(), ARRAY_INDEX, a));
+    }
+
+    private void addFieldEdges(CSObj base, Object field, Pointer pointer) {
+        // the fields which point to no objects are omitted, so that
+        // they do not tell apart the objects which are otherwise equivalent
+        if (pointer.getObjects().isEmpty()) {
+            return;
+        }
+        Set<Obj> objs = fpg.computeIfAbsent(base.getObject(), o -> Maps.newHybridMap())
+                .computeIfAbsent(field, f -> Sets.newHybridSet());
+        pointer.getObjects().forEach(o -> objs.add(o.getObject()));
+    }
+
+    /**
+     * @return the map from each merged allocation site to the representative
+     * allocation site of its group, which is the first site of the group
+     * in the order of their container methods and their positions in
+     * the methods, so that the representatives do not depend on the order
+     * in which the pre-analysis reaches the sites.
+     */
+    public Map<New, New> mergeAllocationSites() {
+        List<Obj> objs = new ArrayList<>(pta.getObjects());
+        int[] groups = partition(objs);
+        // group id -> representative allocation site
+        Map<Integer, New> reps = Maps.newMap();
+        Map<New, New> result = Maps.newMap();
+        List<NewObj> newObjs = objs.stream()
+                .filter(o -> o instanceof NewObj)
+                .map(o -> (NewObj) o)
+                .sorted(Comparator.comparing((NewObj o) -> o.getContainerMethod()
+                                .map(JMethod::getSignature)
+                                .orElse(""))
+                        .thenComparingInt(o -> o.getAllocation().getIndex()))
+                .toList();
+        for (NewObj newObj : newObjs) {
+            int group = groups[objIndexer.getIndex(newObj)];
+            New rep = reps.putIfAbsent(group, newObj.getAllocation());
+            if (rep != null) {
+                result.put(rep, rep);
+                result.put(newObj.getAllocation(), rep);
+            }
+        }
+        logger.info("Mahjong merges {} allocation sites into {} objects",
+                result.size(), Set.copyOf(result.values()).size());
+        return result;
+    }
+
+    /**
+     * Partitions the objects by refinement.
+     *
+     * @return the group ids of the objects, indexed by object indexes.
+     */
+    private int[] partition(List<Obj> objs) {
+        int[] groups = new int[objs.stream()
+                .mapToInt(objIndexer::getIndex)
+                .max()
+                .orElse(-1) + 1];
+        // initially, the allocation sites are grouped by their types,
+        // and other objects (e.g., merged or mock objects) are not merged
+        int nGroups = assignGroups(objs, groups, obj ->
+                obj instanceof NewObj ? obj.getType() : obj);
+        while (true) {
+            int[] current = groups.clone();
+            int n = assignGroups(objs, groups, obj -> {
+                Map<Object, Set<Integer>> succGroups = new HashMap<>();
+                fpg.getOrDefault(obj, Map.of()).forEach((field, succs) -> {
+                    Set<Integer> gs = new HashSet<>();
+                    succs.forEach(succ -> gs.add(current[objIndexer.getIndex(succ)]));
+                    succGroups.put(field, gs);
+                });
+                return new Pair<>(current[objIndexer.getIndex(obj)], succGroups);
+            });
+            if (n == nGroups) {
+                return groups;
+            }
+            nGroups = n;
+        }
+    }
+
+    /**
+     * Assigns the objects with equal keys to the same group.
+     *
+     * @return number of the groups.
+     */
+    private int assignGroups(List<Obj> objs, int[] groups,
+                             Function<Obj, Object> getKey) {
+        Map<Object, Integer> ids = Maps.newMap();
+        for (Obj obj : objs) {
+            Object key = getKey.apply(obj);
+            groups[objIndexer.getIndex(obj)] = ids.computeIfAbsent(key, k -> ids.size());
+        }
+        return ids.size();
+    }
+}
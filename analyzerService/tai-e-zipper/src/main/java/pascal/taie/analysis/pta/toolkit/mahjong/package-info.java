@@ -20,16 +20,14 @@
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
 
-package pascal.taie.analysis.pta.toolkit.zipper3;
-
-import pascal.taie.analysis.graph.flowgraph.FlowEdge;
-import pascal.taie.analysis.graph.flowgraph.FlowKind;
-import pascal.taie.analysis.graph.flowgraph.Node;
-
-record UnwrappedFlowEdge(Node source, Node target) implements FlowEdge {
-
-    @Override
-    public FlowKind kind() {
-        return FlowKind.OTHER;
-    }
-}
+/**
+ * This package contains implementation of Mahjong, which merges
+ * the type-consistent objects in the program.
+ * <p>
+ * The technique was presented in paper:
+ * Tian Tan, Yue Li, and Jingling Xue.
+ * Efficient and Precise Points-to Analysis: Modeling the Heap by Merging
+ * Equivalent Automata.
+ * In PLDI 2017.
+ */
+package pascal.taie.analysis.pta.toolkit.mahjong;
@@ -0,0 +1,224 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.scaler;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.analysis.pta.toolkit.util.OAGs;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Timer;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.Graph;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scaler selects a context sensitivity variant for each method, i.e., the
+ * most precise variant whose estimated cost on the method does not exceed
+ * a scalability threshold (ST). The ST is the largest value which keeps
+ * the total cost of all methods within the total scalability threshold
+ * (TST) given by the user.
+ * <p>
+ * The cost of a method under a variant is estimated from the result of
+ * context-insensitive pre-analysis, as the number of the contexts of
+ * the method under the variant, times the total size of the points-to
+ * sets of the variables in the method.
+ */
+public class Scaler {
+
+    private static final Logger logger = LogManager.getLogger(Scaler.class);
+
+    private static final long DEFAULT_TST = 30_000_000;
+
+    /**
+     * Context sensitivity variants selected by Scaler,
+     * from the most precise to the least.
+     */
+    static final List<String> VARIANTS = List.of(
+            "2-obj", "2-type", "1-type", "ci");
+
+    private static final int CI = VARIANTS.size() - 1;
+
+    private final PointerAnalysisResultEx pta;
+
+    private final long tst;
+
+    private final Graph<Obj> oag;
+
+    /**
+     * Method -> the objects which it is invoked on.
+     * A static method is considered to be invoked on the receiver objects
+     * of its callers, see {@link OAGs#computeInvokedMethods}.
+     */
+    private final MultiMap<JMethod, Obj> method2Recvs = Maps.newMultiMap();
+
+    /**
+     * Parses Scaler argument and runs Scaler.
+     */
+    public static Map<JMethod, String> run(PointerAnalysisResult pta, String arg) {
+        long tst;
+        if (arg.equals("scaler")) {
+            tst = DEFAULT_TST;
+        } else if (arg.startsWith("scaler=")) { // scaler=tst
+            tst = Long.parseLong(arg.split("=")[1]);
+        } else {
+            throw new IllegalArgumentException("Illegal Scaler argument: " + arg);
+        }
+        return new Scaler(pta, tst).selectVariants();
+    }
+
+    public Scaler(PointerAnalysisResult ptaBase, long tst) {
+        this.pta = new PointerAnalysisResultExImpl(ptaBase, true);
+        this.tst = tst;
+        this.oag = Timer.runAndCount(() -> OAGs.build(pta),
+                "Building OAG", Level.INFO);
+        OAGs.computeInvokedMethods(pta).forEach((obj, methods) ->
+                methods.forEach(m -> method2Recvs.put(m, obj)));
+    }
+
+    /**
+     * @return the context sensitivity variants selected for the methods
+     * reached by the pre-analysis.
+     */
+    public Map<JMethod, String> selectVariants() {
+        List<JMethod> methods = pta.getBase()
+                .getCallGraph()
+                .reachableMethods()
+                .toList();
+        long[][] costs = methods.parallelStream()
+                .map(this::computeCosts)
+                .toArray(long[][]::new);
+        long st = selectST(costs);
+        logger.info("Scaler selects ST {} for TST {}", st, tst);
+        Map<JMethod, String> csMap = Maps.newMap(methods.size());
+        int[] counts = new int[VARIANTS.size()];
+        for (int i = 0; i < methods.size(); ++i) {
+            int variant = selectVariant(costs[i], st);
+            csMap.put(methods.get(i), VARIANTS.get(variant));
+            ++counts[variant];
+        }
+        for (int v = 0; v < VARIANTS.size(); ++v) {
+            logger.info("#methods analyzed by {}: {}", VARIANTS.get(v), counts[v]);
+        }
+        return csMap;
+    }
+
+    /**
+     * @return the estimated costs of given method under {@link #VARIANTS}.
+     */
+    long[] computeCosts(JMethod method) {
+        long ptsSize = 0;
+        for (Var var : method.getIR().getVars()) {
+            ptsSize += pta.getBase().getPointsToSet(var).size();
+        }
+        Set<Obj> recvs = method2Recvs.get(method);
+        long[] costs = new long[VARIANTS.size()];
+        if (recvs.isEmpty()) {
+            // the method is not invoked on any objects,
+            // thus it is analyzed under one context by all variants
+            Arrays.fill(costs, ptsSize);
+            return costs;
+        }
+        // a k-object context of the method consists of its receiver
+        // object and the allocators of the receiver object, and
+        // a k-type context consists of the types containing the
+        // allocation sites of these objects
+        long nObjContexts = 0;
+        Set<Object> typeContexts = Sets.newHybridSet();
+        Set<Object> typeElems = Sets.newHybridSet();
+        for (Obj recv : recvs) {
+            Set<Obj> allocators = oag.getPredsOf(recv);
+            nObjContexts += Math.max(1, allocators.size());
+            if (allocators.isEmpty()) {
+                typeContexts.add(recv.getContainerType());
+            } else {
+                allocators.forEach(allocator -> typeContexts.add(new Pair<>(
+                        allocator.getContainerType(), recv.getContainerType())));
+            }
+            typeElems.add(recv.getContainerType());
+        }
+        costs[0] = nObjContexts * ptsSize;
+        costs[1] = typeContexts.size() * ptsSize;
+        costs[2] = typeElems.size() * ptsSize;
+        costs[CI] = ptsSize;
+        return costs;
+    }
+
+    /**
+     * @return the largest ST which keeps the total cost within TST.
+     */
+    private long selectST(long[][] costs) {
+        long[] candidates = Arrays.stream(costs)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .distinct()
+                .toArray();
+        // the total cost grows with ST, as the cost of a more precise
+        // variant is never smaller, thus ST is found by binary search
+        long st = 0;
+        int low = 0, high = candidates.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (getTotalCost(costs, candidates[mid]) <= tst) {
+                st = candidates[mid];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return st;
+    }
+
+    private static long getTotalCost(long[][] costs, long st) {
+        long total = 0;
+        for (long[] methodCosts : costs) {
+            total += methodCosts[selectVariant(methodCosts, st)];
+        }
+        return total;
+    }
+
+    /**
+     * @return index of the most precise variant whose cost does not exceed
+     * given ST, or {@link #CI} if there is no such variant.
+     */
+    private static int selectVariant(long[] costs, long st) {
+        for (int v = 0; v < CI; ++v) {
+            if (costs[v] <= st) {
+                return v;
+            }
+        }
+        return CI;
+    }
+}
@@ -21,16 +21,13 @@
  */
 
 /**
- * This package contains implementation of Zipper and Zipper-e, which selects
- * precision-critical methods in the program.
+ * This package contains implementation of Scaler, which selects context
+ * sensitivity variants for the methods in the program according to
+ * a scalability threshold.
  * <p>
- * The techniques were presented in papers:
- * (1) Yue Li, Tian Tan, Anders Møller, and Yannis Smaragdakis.
- * Precision-Guided Context Sensitivity for Pointer Analysis.
- * In OOPSLA 2018, and
- * <p>
- * (2) Yue Li, Tian Tan, Anders Møller, and Yannis Smaragdakis.
- * A Principled Approach to Selective Context Sensitivity for Pointer Analysis.
- * In TOPLAS 2020.
+ * The technique was presented in paper:
+ * Yue Li, Tian Tan, Anders Møller, and Yannis Smaragdakis.
+ * Scalability-First Pointer Analysis with Self-Tuning Context-Sensitivity.
+ * In FSE 2018.
  */
-package pascal.taie.analysis.pta.toolkit.zipper3;
+package pascal.taie.analysis.pta.toolkit.scaler;
@@ -25,6 +25,7 @@ package pascal.taie.analysis.pta.toolkit.zipper;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
 import pascal.taie.analysis.pta.toolkit.util.OAGs;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.ArrayType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.Canonicalizer;
@@ -50,8 +51,13 @@ class ObjectAllocationGraph extends SimpleGraph<Obj> {
 
     private Indexer<Obj> objIndexer;
 
-    ObjectAllocationGraph(PointerAnalysisResultEx pta) {
-        OAGs.computeInvokedMethods(pta).forEach((obj, methods) -> {
+    /**
+     * @param invokedMethods methods invoked on each object,
+     *                       see {@link OAGs#computeInvokedMethods}.
+     */
+    ObjectAllocationGraph(PointerAnalysisResultEx pta,
+                          Map<Obj, Set<JMethod>> invokedMethods) {
+        invokedMethods.forEach((obj, methods) -> {
             addNode(obj);
             methods.stream()
                     .map(pta::getObjectsAllocatedIn)
@@ -38,16 +38,14 @@ import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.ClassType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.collection.IndexerBitSet;
-import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.SparseBitSet;
 
 import javax.annotation.Nullable;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -77,15 +75,44 @@ class PFGBuilder {
     private final Set<JMethod> invokeMethods;
 
     /**
-     * Stores wrapped and unwrapped flow edges.
+     * PCE methods of the input type.
      */
-    private MultiMap<Node, FlowEdge> wuEdges;
+    private final Set<JMethod> pceMethods;
 
-    private Set<Node> visitedNodes;
+    /**
+     * Stores wrapped and unwrapped flow edges, encoded by
+     * {@link PrecisionFlowGraph#encode(int, int, boolean)}.
+     */
+    private long[] wuEdges;
+
+    private int nWUEdges;
+
+    /**
+     * Indexes of the visited nodes.
+     */
+    private IBitSet visitedNodes;
+
+    /**
+     * Indexes of the instance nodes which have wrapped flow edges.
+     */
+    private IBitSet wrappedNodes;
 
     private Set<VarNode> inNodes;
 
-    private Set<VarNode> outNodes;
+    /**
+     * Objects pointed to by the IN nodes.
+     */
+    private Set<Obj> inObjs;
+
+    /**
+     * Indexes of the OUT nodes.
+     */
+    private IBitSet outNodes;
+
+    /**
+     * Indexes of this variables of {@link #invokeMethods}.
+     */
+    private int[] thisNodes;
 
     PFGBuilder(PointerAnalysisResultEx pta, ObjectFlowGraph ofg,
                ObjectAllocationGraph oag, PotentialContextElement pce,
@@ -100,17 +127,36 @@ class PFGBuilder {
                 .map(pta::getMethodsInvokedOn)
                 .flatMap(Set::stream)
                 .collect(Collectors.toUnmodifiableSet());
+        this.pceMethods = pce.pceMethodsOf(type);
     }
 
     PrecisionFlowGraph build() {
         inNodes = obtainInNodes();
-        outNodes = obtainOutNodes();
-        visitedNodes = new IndexerBitSet<>(ofg, true);
-        wuEdges = Maps.newMultiMap();
+        inObjs = new IndexerBitSet<>(pta.getBase().getObjectIndexer(), true);
+        inNodes.forEach(n -> inObjs.addAll(pta.getBase().getPointsToSet(n.getVar())));
+        int[] outs = obtainOutNodes()
+                .stream()
+                .mapToInt(ofg::getIndex)
+                .toArray();
+        outNodes = new SparseBitSet();
+        for (int out : outs) {
+            outNodes.set(out);
+        }
+        thisNodes = invokeMethods.stream()
+                .map(m -> m.getIR().getThis())
+                .map(ofg::getVarNode)
+                .filter(Objects::nonNull) // filter this variable of native methods
+                .mapToInt(ofg::getIndex)
+                .toArray();
+        visitedNodes = new SparseBitSet();
+        wrappedNodes = new SparseBitSet();
+        wuEdges = new long[16];
+        nWUEdges = 0;
         for (VarNode inNode : inNodes) {
-            dfs(inNode);
+            dfs(ofg.getIndex(inNode));
         }
-        return new PrecisionFlowGraph(type, ofg, visitedNodes, outNodes, wuEdges);
+        return new PrecisionFlowGraph(type, ofg, visitedNodes, outs,
+                Arrays.copyOf(wuEdges, nWUEdges));
     }
 
     private Set<JMethod> obtainMethods() {
@@ -172,108 +218,104 @@ class PFGBuilder {
         return false;
     }
 
-    private void dfs(Node startNode) {
-        Deque<Node> stack = new ArrayDeque<>();
+    private void dfs(int startNode) {
+        IntStack stack = new IntStack();
         stack.push(startNode);
         while (!stack.isEmpty()) {
-            Node node = stack.pop();
-            if (visitedNodes.contains(node)) {
+            int index = stack.pop();
+            if (!visitedNodes.set(index)) {
                 continue;
             }
+            Node node = ofg.getObject(index);
             logger.trace("dfs on {}", node);
-            visitedNodes.add(node);
             // add unwrapped flow edges
             if (node instanceof VarNode varNode) {
                 Var var = varNode.getVar();
                 Set<Obj> varPts = pta.getBase().getPointsToSet(var);
                 // Optimization: approximate unwrapped flows to make
                 // Zipper and pointer analysis run faster
-                getReturnToVariablesOf(var).forEach(toVar -> {
+                for (Var toVar : getReturnToVariablesOf(var)) {
                     VarNode toNode = ofg.getVarNode(toVar);
-                    if (toNode != null && outNodes.contains(toNode)) {
-                        for (VarNode inNode : inNodes) {
-                            Var inVar = inNode.getVar();
-                            if (!Collections.disjoint(
-                                    pta.getBase().getPointsToSet(inVar), varPts)) {
-                                wuEdges.put(node, new UnwrappedFlowEdge(node, toNode));
-                                break;
-                            }
-                        }
+                    if (toNode != null && outNodes.get(ofg.getIndex(toNode))
+                            && !Collections.disjoint(inObjs, varPts)) {
+                        int target = ofg.getIndex(toNode);
+                        addWUEdge(index, target, false);
+                        // same as LOCAL_ASSIGN
+                        stack.push(target);
                     }
-                });
+                }
             }
-            List<FlowEdge> nextEdges = new ArrayList<>();
-            for (FlowEdge edge : getOutEdgesOf(node)) {
+            for (FlowEdge edge : ofg.getOutEdgesOf(node)) {
                 switch (edge.kind()) {
                     case LOCAL_ASSIGN, CAST -> {
-                        nextEdges.add(edge);
+                        stack.push(ofg.getIndex(edge.target()));
                     }
                     case INSTANCE_LOAD, ARRAY_LOAD,
                             THIS_PASSING, PARAMETER_PASSING, RETURN -> {
                         // target node must be a VarNode
                         VarNode toNode = (VarNode) edge.target();
-                        Var toVar = toNode.getVar();
                         // Optimization: filter out some potential spurious flows due to
                         // the imprecision of context-insensitive pre-analysis, which
                         // helps improve the performance of Zipper and pointer analysis.
-                        if (pce.pceMethodsOf(type).contains(toVar.getMethod())) {
-                            nextEdges.add(edge);
+                        if (pceMethods.contains(toNode.getVar().getMethod())) {
+                            stack.push(ofg.getIndex(toNode));
                         }
                     }
                     case INSTANCE_STORE, ARRAY_STORE -> {
                         InstanceNode toNode = (InstanceNode) edge.target();
-                        Obj base = toNode.getBase();
-                        if (base.getType().equals(type)) {
-                            // add wrapped flow edges to this variable
-                            invokeMethods.stream()
-                                    .map(m -> m.getIR().getThis())
-                                    .map(ofg::getVarNode)
-                                    .filter(Objects::nonNull) // filter this variable of native methods
-                                    .forEach(nextNode -> wuEdges.put(toNode,
-                                            new WrappedFlowEdge(toNode, nextNode)));
-                            nextEdges.add(edge);
-                        } else if (oag.getAllocateesOf(type).contains(base)) {
-                            // Optimization, similar as above.
-                            VarNode assignedNode = getAssignedNode(base);
-                            if (assignedNode != null) {
-                                wuEdges.put(toNode,
-                                        new WrappedFlowEdge(toNode, assignedNode));
+                        int[] targets = getWrappedTargets(toNode);
+                        if (targets != null) {
+                            int source = ofg.getIndex(toNode);
+                            if (wrappedNodes.set(source)) {
+                                for (int target : targets) {
+                                    addWUEdge(source, target, true);
+                                }
                             }
-                            nextEdges.add(edge);
-                        }
-                    }
-                    case OTHER -> {
-                        if (edge instanceof WrappedFlowEdge) {
-                            // same as INSTANCE_STORE
-                            // target node must be a VarNode
-                            VarNode toNode = (VarNode) edge.target();
-                            Var toVar = toNode.getVar();
-                            // Optimization: filter out some potential spurious flows due to
-                            // the imprecision of context-insensitive pre-analysis, which
-                            // helps improve the performance of Zipper and pointer analysis.
-                            if (pce.pceMethodsOf(type).contains(toVar.getMethod())) {
-                                nextEdges.add(edge);
-                            }
-                        } else if (edge instanceof UnwrappedFlowEdge) {
-                            // same as LOCAL_ASSIGN
-                            nextEdges.add(edge);
+                            stack.push(source);
                         }
                     }
                 }
             }
-            for (FlowEdge nextEdge : nextEdges) {
-                stack.push(nextEdge.target());
+            // traverse wrapped flow edges
+            if (wrappedNodes.get(index)) {
+                for (int target : getWrappedTargets((InstanceNode) node)) {
+                    // target node must be a VarNode
+                    VarNode toNode = (VarNode) ofg.getObject(target);
+                    // Optimization, same as INSTANCE_LOAD
+                    if (pceMethods.contains(toNode.getVar().getMethod())) {
+                        stack.push(target);
+                    }
+                }
             }
         }
     }
 
-    public Set<FlowEdge> getOutEdgesOf(Node node) {
-        Set<FlowEdge> outEdges = ofg.getOutEdgesOf(node);
-        if (wuEdges.containsKey(node)) {
-            outEdges = Sets.newSet(outEdges);
-            outEdges.addAll(wuEdges.get(node));
+    /**
+     * @return indexes of the targets of the wrapped flow edges from
+     * {@code node}, or {@code null} if the flows to {@code node}
+     * are not relevant to the input type.
+     */
+    @Nullable
+    private int[] getWrappedTargets(InstanceNode node) {
+        Obj base = node.getBase();
+        if (base.getType().equals(type)) {
+            // add wrapped flow edges to this variable
+            return thisNodes;
+        } else if (oag.getAllocateesOf(type).contains(base)) {
+            // Optimization, similar as above.
+            VarNode assignedNode = getAssignedNode(base);
+            return assignedNode != null
+                    ? new int[]{ofg.getIndex(assignedNode)}
+                    : new int[0];
+        }
+        return null;
+    }
+
+    private void addWUEdge(int source, int target, boolean isWrapped) {
+        if (nWUEdges == wuEdges.length) {
+            wuEdges = Arrays.copyOf(wuEdges, nWUEdges << 1);
         }
-        return outEdges;
+        wuEdges[nWUEdges++] = PrecisionFlowGraph.encode(source, target, isWrapped);
     }
 
     @Nullable
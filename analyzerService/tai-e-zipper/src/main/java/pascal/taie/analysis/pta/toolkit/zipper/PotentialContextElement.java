@@ -47,9 +47,13 @@ class PotentialContextElement {
      */
     private final Map<Type, Set<JMethod>> type2PCEMethods;
 
+    /**
+     * @param invokedMethods methods invoked on each object,
+     *                       see {@link OAGs#computeInvokedMethods}.
+     */
     PotentialContextElement(PointerAnalysisResultEx pta,
-                            ObjectAllocationGraph oag) {
-        Map<Obj, Set<JMethod>> invokedMethods = OAGs.computeInvokedMethods(pta);
+                            ObjectAllocationGraph oag,
+                            Map<Obj, Set<JMethod>> invokedMethods) {
         Canonicalizer<Set<JMethod>> canonicalizer = new Canonicalizer<>();
         Indexer<JMethod> methodIndexer = new SimpleIndexer<>(
                 pta.getBase().getCallGraph().getVisitedNodes());
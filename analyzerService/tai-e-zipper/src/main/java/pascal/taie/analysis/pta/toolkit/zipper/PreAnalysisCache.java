@@ -0,0 +1,276 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.zipper;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper.MethodGroups;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.frontend.cache.CachedWorldBuilder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the method groups which Zipper finds from the result of the
+ * context-insensitive pre-analysis on the disk, so that the subsequent
+ * runs on the same program skip the pre-analysis and Zipper.
+ * <p>
+ * The cache files are kept in directory {@code pre-analysis} under the
+ * cache directory (see {@link pascal.taie.config.Options#getCacheDir()}),
+ * and are keyed by the fingerprint of the world
+ * (see {@link CachedWorldBuilder#getWorldFingerprint}) and the options
+ * which affect the pre-analysis. The method groups do not depend on the
+ * variant of Zipper (see {@link MethodGroups}) or the context sensitivity
+ * of the main analysis, thus the runs with different {@code advanced}
+ * Zipper options or {@code cs} share the same cache file, and each run
+ * selects its precision-critical methods from the loaded groups.
+ * The files which are not used for {@link #MAX_AGE}, or beyond the
+ * {@link #MAX_FILES} most recently used ones, are deleted.
+ */
+public class PreAnalysisCache {
+
+    private static final Logger logger = LogManager.getLogger(PreAnalysisCache.class);
+
+    private static final String CACHE_DIR = "pre-analysis";
+
+    private static final String FILE_PREFIX = "pcm-";
+
+    private static final String HEADER = "#pre-analysis-cache-v2";
+
+    /**
+     * Separates the methods and the groups in the cache files.
+     */
+    private static final String GROUPS = "#groups";
+
+    private static final int MAX_FILES = 16;
+
+    private static final Duration MAX_AGE = Duration.ofDays(7);
+
+    /**
+     * Options of pointer analysis which affect the pre-analysis.
+     */
+    private static final List<String> KEY_OPTIONS = List.of(
+            "only-app", "implicit-entries", "distinguish-string-constants",
+            "merge-string-objects", "merge-string-builders",
+            "merge-exception-objects", "handle-invokedynamic",
+            "propagate-types", "reflection-inference", "reflection-log",
+            "taint-config", "plugins");
+
+    /**
+     * Options whose values are paths to the files read by the pre-analysis.
+     */
+    private static final List<String> FILE_OPTIONS = List.of(
+            "reflection-log", "taint-config");
+
+    private final Path dir;
+
+    private final Path file;
+
+    private final String key;
+
+    public PreAnalysisCache(AnalysisOptions options) {
+        this.key = computeKey(options);
+        this.dir = World.get().getOptions().getCacheDir().toPath().resolve(CACHE_DIR);
+        this.file = dir.resolve(FILE_PREFIX + key.substring(0, 16) + ".txt");
+    }
+
+    /**
+     * @return the cached method groups, or {@code null} if the cache file
+     * does not exist or was written for another program or other options.
+     */
+    @Nullable
+    public MethodGroups load() {
+        if (!Files.isRegularFile(file)) {
+            logger.info("Pre-analysis cache {} does not exist", file);
+            return null;
+        }
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            if (!(HEADER + " " + key).equals(reader.readLine())) {
+                logger.info("Pre-analysis cache {} is stale", file);
+                return null;
+            }
+            long totalPts = Long.parseLong(reader.readLine());
+            List<JMethod> methods = new ArrayList<>();
+            Map<JMethod, Integer> methodPts = Maps.newMap();
+            String line;
+            while (!(line = reader.readLine()).equals(GROUPS)) {
+                // <size of points-to sets> <signature>
+                String[] parts = line.split(" ", 2);
+                JMethod method = hierarchy.getMethod(parts[1]);
+                if (method == null) {
+                    logger.info("Pre-analysis cache {} contains unknown method {}",
+                            file, parts[1]);
+                    return null;
+                }
+                methods.add(method);
+                methodPts.put(method, Integer.parseInt(parts[0]));
+            }
+            List<Set<JMethod>> groups = new ArrayList<>();
+            while ((line = reader.readLine()) != null) {
+                groups.add(Arrays.stream(line.split(","))
+                        .map(i -> methods.get(Integer.parseInt(i)))
+                        .collect(Collectors.toUnmodifiableSet()));
+            }
+            // mark the file as recently used
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return new MethodGroups(groups, methodPts, totalPts);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read pre-analysis cache {}: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Saves the method groups found by Zipper, and deletes the stale files.
+     */
+    public void save(MethodGroups groups) {
+        try {
+            Files.createDirectories(dir);
+            // write to a temporary file and then move it, so that
+            // other runs never read a partially written cache
+            Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try (PrintWriter writer = new PrintWriter(
+                    Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+                writer.println(HEADER + " " + key);
+                writer.println(groups.totalPts());
+                List<JMethod> methods = groups.methodPts()
+                        .keySet()
+                        .stream()
+                        .sorted(Comparator.comparing(JMethod::getSignature))
+                        .toList();
+                Map<JMethod, Integer> indexes = Maps.newMap(methods.size());
+                for (JMethod m : methods) {
+                    indexes.put(m, indexes.size());
+                    writer.println(groups.methodPts().get(m) + " " + m.getSignature());
+                }
+                writer.println(GROUPS);
+                groups.groups()
+                        .stream()
+                        .map(group -> group.stream()
+                                .map(indexes::get)
+                                .sorted()
+                                .map(String::valueOf)
+                                .collect(Collectors.joining(",")))
+                        .sorted()
+                        .forEach(writer::println);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to save pre-analysis cache {}: {}", file, e.toString());
+        }
+        deleteStaleFiles();
+    }
+
+    /**
+     * Deletes the cache files which are not used for {@link #MAX_AGE},
+     * or beyond the {@link #MAX_FILES} most recently used ones.
+     */
+    private void deleteStaleFiles() {
+        Instant expiry = Instant.now().minus(MAX_AGE);
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> cacheFiles = files
+                    .filter(f -> f.getFileName().toString().startsWith(FILE_PREFIX))
+                    .sorted(Comparator.comparing(PreAnalysisCache::getLastModifiedTime)
+                            .reversed())
+                    .toList();
+            for (int i = 0; i < cacheFiles.size(); ++i) {
+                Path f = cacheFiles.get(i);
+                if (i >= MAX_FILES || getLastModifiedTime(f).toInstant().isBefore(expiry)) {
+                    Files.deleteIfExists(f);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete stale pre-analysis caches in {}: {}",
+                    dir, e.toString());
+        }
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            // the file may have been deleted by another run
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * @return SHA-256 of the world fingerprint and the options
+     * which affect the pre-analysis in hexadecimal.
+     */
+    private static String computeKey(AnalysisOptions options) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        update(digest, "world=" + CachedWorldBuilder.getWorldFingerprint(
+                World.get().getOptions()));
+        for (String option : KEY_OPTIONS) {
+            update(digest, option + "=" + options.get(option));
+        }
+        for (String option : FILE_OPTIONS) {
+            String path = options.getString(option);
+            if (path != null) {
+                try {
+                    digest.update(Files.readAllBytes(Path.of(path)));
+                } catch (IOException e) {
+                    update(digest, "missing=" + path);
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update((s + '\n').getBytes(StandardCharsets.UTF_8));
+    }
+}
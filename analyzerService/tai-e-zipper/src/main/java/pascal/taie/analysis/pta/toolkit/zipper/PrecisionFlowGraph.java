@@ -25,52 +25,153 @@ package pascal.taie.analysis.pta.toolkit.zipper;
 import pascal.taie.analysis.graph.flowgraph.FlowEdge;
 import pascal.taie.analysis.graph.flowgraph.Node;
 import pascal.taie.analysis.graph.flowgraph.ObjectFlowGraph;
-import pascal.taie.analysis.graph.flowgraph.VarNode;
 import pascal.taie.language.type.Type;
-import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.IBitSet;
+import pascal.taie.util.collection.IndexerBitSet;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.SparseBitSet;
 import pascal.taie.util.collection.Views;
 import pascal.taie.util.graph.Graph;
 
+import java.util.Arrays;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * Precision flow graph of a type, which is represented by the indexes
+ * of its nodes in {@link ObjectFlowGraph}, so that the graphs of many types
+ * can be kept in memory at the same time: the nodes are kept in a bit set,
+ * the edges of OFG are not copied, and the wrapped and unwrapped flow edges
+ * are encoded as {@code long}s (see {@link #encode(int, int, boolean)}).
+ */
 class PrecisionFlowGraph implements Graph<Node> {
 
     private final Type type;
 
     private final ObjectFlowGraph ofg;
 
-    private final Set<Node> nodes;
+    /**
+     * Indexes of the nodes in this graph.
+     */
+    private final IBitSet nodes;
+
+    /**
+     * Indexes of the OUT nodes in this graph.
+     */
+    private final int[] outNodes;
+
+    /**
+     * Wrapped and unwrapped flow edges, sorted by their targets.
+     */
+    private final long[] wuEdges;
+
+    /**
+     * @param outNodes indexes of the OUT nodes, which may not be in this graph.
+     * @param wuEdges  wrapped and unwrapped flow edges, which may contain
+     *                 duplicate edges.
+     */
+    PrecisionFlowGraph(Type type, ObjectFlowGraph ofg, IBitSet nodes,
+                       int[] outNodes, long[] wuEdges) {
+        this.type = type;
+        this.ofg = ofg;
+        this.nodes = nodes;
+        this.outNodes = Arrays.stream(outNodes)
+                .filter(nodes::get)
+                .toArray();
+        this.wuEdges = Arrays.stream(wuEdges)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
 
-    private final Set<VarNode> outNodes;
+    /**
+     * Encodes a wrapped or unwrapped flow edge, where the target is in the
+     * high 32 bits, so that the encoded edges are ordered by their targets.
+     */
+    static long encode(int source, int target, boolean isWrapped) {
+        return ((long) target << 32) | ((long) source << 1) | (isWrapped ? 1 : 0);
+    }
 
-    private final MultiMap<Node, FlowEdge> inWUEdges;
+    private static int sourceOf(long edge) {
+        return (int) edge >>> 1;
+    }
 
-    private final MultiMap<Node, FlowEdge> outWUEdges;
+    private static int targetOf(long edge) {
+        return (int) (edge >>> 32);
+    }
 
-    PrecisionFlowGraph(Type type, ObjectFlowGraph ofg,
-                       Set<Node> nodes, Set<VarNode> outNodes,
-                       MultiMap<Node, FlowEdge> outWUEdges) {
-        this.type = type;
-        this.ofg = ofg;
-        this.nodes = nodes;
-        this.outNodes = outNodes
-                .stream()
-                .filter(nodes::contains)
-                .collect(Collectors.toUnmodifiableSet());
-        this.outWUEdges = outWUEdges;
-        this.inWUEdges = Maps.newMultiMap();
-        outWUEdges.values()
-                .forEach(edge -> inWUEdges.put(edge.target(), edge));
+    private FlowEdge decode(long edge) {
+        Node source = ofg.getObject(sourceOf(edge));
+        Node target = ofg.getObject(targetOf(edge));
+        return (edge & 1) != 0
+                ? new WrappedFlowEdge(source, target)
+                : new UnwrappedFlowEdge(source, target);
     }
 
     Type getType() {
         return type;
     }
 
-    Set<VarNode> getOutNodes() {
-        return outNodes;
+    /**
+     * @return indexes of the nodes that flow to the OUT nodes,
+     * including the OUT nodes themselves.
+     */
+    IBitSet getFlowNodes() {
+        IBitSet visited = new SparseBitSet();
+        IntStack stack = new IntStack();
+        for (int outNode : outNodes) {
+            stack.push(outNode);
+        }
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (!visited.set(node)) {
+                continue;
+            }
+            for (FlowEdge edge : ofg.getInEdgesOf(ofg.getObject(node))) {
+                int source = ofg.getIndex(edge.source());
+                if (nodes.get(source) && !visited.get(source)) {
+                    stack.push(source);
+                }
+            }
+            for (int i = firstWUEdgeTo(node);
+                 i < wuEdges.length && targetOf(wuEdges[i]) == node; ++i) {
+                int source = sourceOf(wuEdges[i]);
+                if (!visited.get(source)) {
+                    stack.push(source);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * @return position of the first wrapped or unwrapped edge whose target
+     * is {@code node} in {@link #wuEdges}, or the position where such edge
+     * would be inserted.
+     */
+    private int firstWUEdgeTo(int node) {
+        int i = Arrays.binarySearch(wuEdges, (long) node << 32);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.cardinality();
+    }
+
+    /**
+     * @return number of edges of this graph, which is computed
+     * without creating the edge sets.
+     */
+    int getNumberOfEdges() {
+        int count = wuEdges.length;
+        for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+            for (FlowEdge edge : ofg.getOutEdgesOf(ofg.getObject(i))) {
+                if (nodes.get(ofg.getIndex(edge.target()))) {
+                    ++count;
+                }
+            }
+        }
+        return count;
     }
 
     @Override
@@ -85,11 +186,17 @@ class PrecisionFlowGraph implements Graph<Node> {
 
     @Override
     public Set<FlowEdge> getInEdgesOf(Node node) {
-        Set<FlowEdge> inEdges = ofg.getInEdgesOf(node)
-                .stream()
-                .filter(e -> nodes.contains(e.source()))
-                .collect(Collectors.toSet());
-        inEdges.addAll(inWUEdges.get(node));
+        Set<FlowEdge> inEdges = Sets.newSet();
+        ofg.getInEdgesOf(node).forEach(e -> {
+            if (nodes.get(ofg.getIndex(e.source()))) {
+                inEdges.add(e);
+            }
+        });
+        int index = ofg.getIndex(node);
+        for (int i = firstWUEdgeTo(index);
+             i < wuEdges.length && targetOf(wuEdges[i]) == index; ++i) {
+            inEdges.add(decode(wuEdges[i]));
+        }
         return inEdges;
     }
 
@@ -100,16 +207,27 @@ class PrecisionFlowGraph implements Graph<Node> {
 
     @Override
     public Set<FlowEdge> getOutEdgesOf(Node node) {
-        Set<FlowEdge> outEdges = ofg.getOutEdgesOf(node)
-                .stream()
-                .filter(e -> nodes.contains(e.target()))
-                .collect(Collectors.toSet());
-        outEdges.addAll(outWUEdges.get(node));
+        Set<FlowEdge> outEdges = Sets.newSet();
+        ofg.getOutEdgesOf(node).forEach(e -> {
+            if (nodes.get(ofg.getIndex(e.target()))) {
+                outEdges.add(e);
+            }
+        });
+        int index = ofg.getIndex(node);
+        for (long edge : wuEdges) {
+            if (sourceOf(edge) == index) {
+                outEdges.add(decode(edge));
+            }
+        }
         return outEdges;
     }
 
     @Override
     public Set<Node> getVisitedNodes() {
-        return nodes;
+        Set<Node> visited = new IndexerBitSet<>(ofg, true);
+        for (int i = nodes.nextSetBit(0); i >= 0; i = nodes.nextSetBit(i + 1)) {
+            visited.add(ofg.getObject(i));
+        }
+        return visited;
     }
 }
@@ -33,24 +33,24 @@ import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.analysis.pta.toolkit.util.OAGs;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.New;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.MutableInt;
 import pascal.taie.util.Timer;
+import pascal.taie.util.collection.IBitSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
 import javax.annotation.Nullable;
-import java.util.ArrayDeque;
 import java.util.Collection;
-import java.util.Deque;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class Zipper {
@@ -59,6 +59,18 @@ public class Zipper {
 
     private static final float DEFAULT_PV = 0.05f;
 
+    /**
+     * Estimated number of bytes taken by each node of precision flow graphs,
+     * including the bits of the node sets and the wrapped/unwrapped edges.
+     */
+    private static final int BYTES_PER_PFG_NODE = 64;
+
+    /**
+     * Ratio of the maximum heap which the precision flow graphs
+     * being built and analyzed at the same time may take.
+     */
+    private static final int PFG_MEMORY_RATIO = 4;
+
     private final PointerAnalysisResultEx pta;
 
     private final boolean isExpress;
@@ -78,43 +90,76 @@ public class Zipper {
 
     private AtomicInteger totalPFGEdges;
 
-    private Map<Type, Collection<JMethod>> pcmMap;
+    private Map<Type, Set<JMethod>> pcmMap;
 
-    private int pcmThreshold;
+    /**
+     * Bounds the estimated total size (in nodes) of the precision
+     * flow graphs which are built and analyzed at the same time.
+     */
+    private Semaphore pfgBudget;
 
-    private Map<JMethod, MutableInt> methodPts;
+    private int maxPFGBudget;
 
     /**
      * Parses Zipper argument and runs Zipper.
      */
     public static Set<JMethod> run(PointerAnalysisResult pta, String arg) {
-        boolean isExpress;
-        float pv;
-        if (arg.equals("zipper")) {
-            isExpress = false;
-            pv = 1;
-        } else if (arg.equals("zipper-e")) {
-            isExpress = true;
-            pv = DEFAULT_PV;
-        } else if (arg.startsWith("zipper-e=")) { // zipper-e=pv
-            isExpress = true;
-            pv = Float.parseFloat(arg.split("=")[1]);
-        } else {
-            throw new IllegalArgumentException("Illegal Zipper argument: " + arg);
-        }
-        return new Zipper(pta, isExpress, pv)
+        Variant variant = Variant.parse(arg);
+        return new Zipper(pta, variant.isExpress(), variant.pv())
                 .selectPrecisionCriticalMethods();
     }
 
+    /**
+     * Runs Zipper, and finds the method groups from which
+     * the variants of Zipper select precision-critical methods.
+     */
+    public static MethodGroups findMethodGroups(PointerAnalysisResult pta) {
+        return new Zipper(pta, false, 1).findMethodGroups();
+    }
+
+    /**
+     * Variant of Zipper, i.e., Zipper or Zipper-e with a threshold.
+     */
+    private record Variant(boolean isExpress, float pv) {
+
+        private static Variant parse(String arg) {
+            if (arg.equals("zipper")) {
+                return new Variant(false, 1);
+            } else if (arg.equals("zipper-e")) {
+                return new Variant(true, DEFAULT_PV);
+            } else if (arg.startsWith("zipper-e=")) { // zipper-e=pv
+                return new Variant(true, Float.parseFloat(arg.split("=")[1]));
+            } else {
+                throw new IllegalArgumentException("Illegal Zipper argument: " + arg);
+            }
+        }
+    }
+
     public Zipper(PointerAnalysisResult ptaBase, boolean isExpress, float pv) {
-        this.pta = new PointerAnalysisResultExImpl(ptaBase, true);
+        this(new PointerAnalysisResultExImpl(ptaBase, true), isExpress, pv);
+    }
+
+    /**
+     * Creates Zipper on an extended pre-analysis result, which may be
+     * shared with other analyses, so that its maps are not recomputed.
+     * The result is accessed concurrently, thus it must be initialized eagerly.
+     */
+    public Zipper(PointerAnalysisResultEx pta, boolean isExpress, float pv) {
+        this.pta = pta;
         this.isExpress = isExpress;
         this.pv = pv;
-        this.oag = Timer.runAndCount(() -> new ObjectAllocationGraph(pta),
+        // both OAG and PCE are built on the methods invoked on each object,
+        // which are computed once from the receiver objects kept by pta
+        Map<Obj, Set<JMethod>> invokedMethods = Timer.runAndCount(
+                () -> OAGs.computeInvokedMethods(pta),
+                "Computing invoked methods", Level.INFO);
+        this.oag = Timer.runAndCount(
+                () -> new ObjectAllocationGraph(pta, invokedMethods),
                 "Building OAG", Level.INFO);
-        this.pce = Timer.runAndCount(() -> new PotentialContextElement(pta, oag),
+        this.pce = Timer.runAndCount(
+                () -> new PotentialContextElement(pta, oag, invokedMethods),
                 "Building PCE", Level.INFO);
-        this.ofg = ptaBase.getObjectFlowGraph();
+        this.ofg = pta.getBase().getObjectFlowGraph();
         logger.info("{} nodes in OFG", ofg.getVisitedNodes().size());
         logger.info("{} edges in OFG",
                 ofg.getVisitedNodes().stream().mapToInt(ofg::getOutDegreeOf).sum());
@@ -125,28 +170,23 @@ public class Zipper {
      * context-sensitively.
      */
     public Set<JMethod> selectPrecisionCriticalMethods() {
+        return findMethodGroups().select(isExpress, pv);
+    }
+
+    /**
+     * Finds the methods on the precision-critical flows of each type,
+     * from which both Zipper and Zipper-e select precision-critical methods.
+     */
+    public MethodGroups findMethodGroups() {
         totalPFGNodes = new AtomicInteger(0);
         totalPFGEdges = new AtomicInteger(0);
         pcmMap = Maps.newConcurrentMap(1024);
 
-        // prepare information for Zipper-e
-        if (isExpress) {
-            PointerAnalysisResult pta = this.pta.getBase();
-            int totalPts = 0;
-            methodPts = Maps.newMap(pta.getCallGraph().getNumberOfMethods());
-            for (Var var : pta.getVars()) {
-                int size = pta.getPointsToSet(var).size();
-                if (size > 0) {
-                    totalPts += size;
-                    methodPts.computeIfAbsent(var.getMethod(),
-                                    __ -> new MutableInt(0))
-                            .add(size);
-                }
-            }
-            pcmThreshold = (int) (pv * totalPts);
-        }
-
         // build and analyze precision-flow graphs
+        long maxNodes = Runtime.getRuntime().maxMemory()
+                / PFG_MEMORY_RATIO / BYTES_PER_PFG_NODE;
+        maxPFGBudget = (int) Math.max(1, Math.min(maxNodes, Integer.MAX_VALUE));
+        pfgBudget = new Semaphore(maxPFGBudget, true);
         Set<Type> types = pta.getObjectTypes();
         Timer.runAndCount(() -> types.parallelStream().forEach(this::analyze),
                 "Building and analyzing PFG", Level.INFO);
@@ -154,65 +194,121 @@ public class Zipper {
         logger.info("#avg. nodes in PFG: {}", totalPFGNodes.get() / types.size());
         logger.info("#avg. edges in PFG: {}", totalPFGEdges.get() / types.size());
 
-        // collect all precision-critical methods
-        Set<JMethod> pcms = pcmMap.values()
-                .stream()
-                .flatMap(Collection::stream)
-                .collect(Collectors.toUnmodifiableSet());
-        logger.info("#precision-critical methods: {}", pcms.size());
-        return pcms;
+        // collect the sizes of points-to sets for Zipper-e
+        PointerAnalysisResult pta = this.pta.getBase();
+        long totalPts = 0;
+        Map<JMethod, MutableInt> methodPts = Maps.newMap();
+        pcmMap.values().forEach(pcms -> pcms.forEach(m ->
+                methodPts.put(m, new MutableInt(0))));
+        for (Var var : pta.getVars()) {
+            int size = pta.getPointsToSet(var).size();
+            if (size > 0) {
+                totalPts += size;
+                MutableInt pts = methodPts.get(var.getMethod());
+                if (pts != null) {
+                    pts.add(size);
+                }
+            }
+        }
+        return new MethodGroups(List.copyOf(pcmMap.values()),
+                methodPts.entrySet()
+                        .stream()
+                        .collect(Collectors.toUnmodifiableMap(
+                                Map.Entry::getKey, e -> e.getValue().intValue())),
+                totalPts);
     }
 
-    private void analyze(Type type) {
-        PrecisionFlowGraph pfg = new PFGBuilder(pta, ofg, oag, pce, type).build();
-        totalPFGNodes.addAndGet(pfg.getNumberOfNodes());
-        totalPFGEdges.addAndGet(pfg.getVisitedNodes()
-                .stream()
-                .mapToInt(pfg::getOutDegreeOf)
-                .sum());
-        Set<JMethod> pcms = getPrecisionCriticalMethods(pfg);
-        if (!pcms.isEmpty()) {
-            pcmMap.put(type, pcms);
+    /**
+     * The methods on the precision-critical flows of each type, i.e.,
+     * the precision-critical methods selected by Zipper, grouped by types.
+     * Zipper-e drops the groups whose methods have too large points-to sets.
+     * The groups do not depend on the variant of Zipper, thus they can be
+     * shared by the variants (e.g., via {@link PreAnalysisCache}).
+     *
+     * @param groups    the method groups, one per type.
+     * @param methodPts the total size of the points-to sets of the variables
+     *                  of each method in the groups.
+     * @param totalPts  the total size of the points-to sets of all variables.
+     */
+    public record MethodGroups(List<Set<JMethod>> groups,
+                               Map<JMethod, Integer> methodPts, long totalPts) {
+
+        /**
+         * Parses Zipper argument and selects precision-critical methods
+         * from the groups.
+         */
+        public Set<JMethod> select(String arg) {
+            Variant variant = Variant.parse(arg);
+            return select(variant.isExpress(), variant.pv());
+        }
+
+        private Set<JMethod> select(boolean isExpress, float pv) {
+            long pcmThreshold = (long) (pv * totalPts);
+            Set<JMethod> pcms = groups.stream()
+                    .filter(group -> !isExpress ||
+                            // drop precision-critical method group whose
+                            // accumulative points-to size exceeds the threshold
+                            group.stream()
+                                    .mapToLong(m -> methodPts.getOrDefault(m, 0))
+                                    .sum() <= pcmThreshold)
+                    .flatMap(Collection::stream)
+                    .collect(Collectors.toUnmodifiableSet());
+            logger.info("#precision-critical methods: {}", pcms.size());
+            return pcms;
         }
     }
 
-    private Set<JMethod> getPrecisionCriticalMethods(PrecisionFlowGraph pfg) {
-        Set<JMethod> pcms = getFlowNodes(pfg)
-                .stream()
-                .map(Zipper::node2Method)
-                .filter(Objects::nonNull)
-                .filter(pce.pceMethodsOf(pfg.getType())::contains)
-                .collect(Collectors.toUnmodifiableSet());
-        if (isExpress) {
-            int accPts = 0;
-            for (JMethod m : pcms) {
-                accPts += methodPts.get(m).intValue();
+    /**
+     * Builds and analyzes the precision flow graph of {@code type}.
+     * The types are analyzed in parallel, and this method blocks until
+     * the estimated size of the graph fits in {@link #pfgBudget},
+     * so that the graphs of large types are not built at the same time.
+     */
+    private void analyze(Type type) {
+        int size = estimatePFGSize(type);
+        pfgBudget.acquireUninterruptibly(size);
+        try {
+            PrecisionFlowGraph pfg = new PFGBuilder(pta, ofg, oag, pce, type).build();
+            totalPFGNodes.addAndGet(pfg.getNumberOfNodes());
+            totalPFGEdges.addAndGet(pfg.getNumberOfEdges());
+            Set<JMethod> pcms = getPrecisionCriticalMethods(pfg);
+            if (!pcms.isEmpty()) {
+                pcmMap.put(type, pcms);
             }
-            if (accPts > pcmThreshold) {
-                // clear precision-critical method group whose accumulative
-                // points-to size exceeds the threshold
-                pcms = Set.of();
+        } finally {
+            pfgBudget.release(size);
+        }
+    }
+
+    /**
+     * The flows in the precision flow graph of a type mostly go through
+     * its PCE methods, thus the size of the graph is estimated by
+     * the number of variables in these methods.
+     *
+     * @return estimated number of nodes in the precision flow graph
+     * of {@code type}, which is at most {@link #maxPFGBudget}.
+     */
+    private int estimatePFGSize(Type type) {
+        long size = 1;
+        for (JMethod method : pce.pceMethodsOf(type)) {
+            if (!method.isAbstract()) {
+                size += method.getIR().getVars().size();
             }
         }
-        return pcms;
+        return (int) Math.min(size, maxPFGBudget);
     }
 
-    private static Set<Node> getFlowNodes(PrecisionFlowGraph pfg) {
-        Set<Node> visited = Sets.newSet();
-        for (VarNode outNode : pfg.getOutNodes()) {
-            Deque<Node> workList = new ArrayDeque<>();
-            workList.add(outNode);
-            while (!workList.isEmpty()) {
-                Node node = workList.poll();
-                if (visited.add(node)) {
-                    pfg.getPredsOf(node)
-                            .stream()
-                            .filter(Predicate.not(visited::contains))
-                            .forEach(workList::add);
-                }
+    private Set<JMethod> getPrecisionCriticalMethods(PrecisionFlowGraph pfg) {
+        Set<JMethod> pceMethods = pce.pceMethodsOf(pfg.getType());
+        Set<JMethod> pcms = Sets.newSet();
+        IBitSet flowNodes = pfg.getFlowNodes();
+        for (int i = flowNodes.nextSetBit(0); i >= 0; i = flowNodes.nextSetBit(i + 1)) {
+            JMethod method = node2Method(ofg.getObject(i));
+            if (method != null && pceMethods.contains(method)) {
+                pcms.add(method);
             }
         }
-        return visited;
+        return pcms;
     }
 
     /**
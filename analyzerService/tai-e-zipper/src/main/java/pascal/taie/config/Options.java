@@ -22,6 +22,7 @@
 
 package pascal.taie.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
@@ -43,6 +44,7 @@ import picocli.CommandLine.Option;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.file.Path;
 import java.time.Instant;
@@ -177,7 +179,8 @@ public class Options implements Serializable {
     // ---------- general analysis options ----------
     @JsonProperty
     @Option(names = "--world-builder",
-            description = "Specify world builder class (default: ${DEFAULT-VALUE})",
+            description = "Specify world builder class, e.g., pascal.taie.frontend.asm.AsmWorldBuilder" +
+                    " builds the world from class files without Soot (default: ${DEFAULT-VALUE})",
             defaultValue = "pascal.taie.frontend.soot.SootWorldBuilder")
     private Class<? extends WorldBuilder> worldBuilderClass;
 
@@ -222,6 +225,17 @@ public class Options implements Serializable {
         return worldCacheMode;
     }
 
+    @JsonProperty
+    @Option(names = "--cache-dir",
+            description = "Specify the directory of the caches kept between runs,"
+                    + " e.g., the world cache (default: ${DEFAULT-VALUE})",
+            defaultValue = "cache")
+    private File cacheDir;
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
     @JsonProperty
     @Option(names = "-scope",
             description = "Scope for method/class analyses (default: ${DEFAULT-VALUE}," +
@@ -287,6 +301,55 @@ public class Options implements Serializable {
         return keepResult;
     }
 
+    // ---------- programmatic options ----------
+    /**
+     * Classes given in memory (class name -> class file content), e.g.,
+     * by an embedder that compiles the program being analyzed in memory.
+     * These classes are treated as input classes. This option cannot be
+     * given from command line, and it is not written to the options file.
+     */
+    @JsonIgnore
+    private transient Map<String, byte[]> inMemoryClasses = Map.of();
+
+    public Map<String, byte[]> getInMemoryClasses() {
+        return inMemoryClasses;
+    }
+
+    public void setInMemoryClasses(Map<String, byte[]> inMemoryClasses) {
+        this.inMemoryClasses = Map.copyOf(inMemoryClasses);
+    }
+
+    /**
+     * The file to which the graph input of the analyzer service is written.
+     * If it is not set, the file is placed in the directory of the service.
+     */
+    @JsonIgnore
+    private transient File graphInputFile;
+
+    public File getGraphInputFile() {
+        return graphInputFile;
+    }
+
+    public void setGraphInputFile(File graphInputFile) {
+        this.graphInputFile = graphInputFile;
+    }
+
+    /**
+     * The stream to which the graph input is written progressively,
+     * e.g., the response of the analyzer service. If it is set,
+     * the graph input file is not written.
+     */
+    @JsonIgnore
+    private transient OutputStream graphInputStream;
+
+    public OutputStream getGraphInputStream() {
+        return graphInputStream;
+    }
+
+    public void setGraphInputStream(OutputStream graphInputStream) {
+        this.graphInputStream = graphInputStream;
+    }
+
     /**
      * Parses arguments and return the parsed and post-processed Options.
      */
@@ -512,12 +575,16 @@ public class Options implements Serializable {
                 ", outputDir='" + outputDir + '\'' +
                 ", preBuildIR=" + preBuildIR +
                 ", worldCacheMode=" + worldCacheMode +
+                ", cacheDir='" + cacheDir + '\'' +
                 ", scope=" + scope +
                 ", nativeModel=" + nativeModel +
                 ", planFile=" + planFile +
                 ", analyses=" + analyses +
                 ", onlyGenPlan=" + onlyGenPlan +
                 ", keepResult=" + keepResult +
+                ", inMemoryClasses=" + inMemoryClasses.keySet() +
+                ", graphInputFile=" + graphInputFile +
+                ", graphInputStream=" + graphInputStream +
                 '}';
     }
 }
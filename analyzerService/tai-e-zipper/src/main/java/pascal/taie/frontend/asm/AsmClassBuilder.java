@@ -0,0 +1,161 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InnerClassNode;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.generics.ClassGSignature;
+import pascal.taie.language.generics.GSignatures;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Lists;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+
+class AsmClassBuilder implements JClassBuilder {
+
+    private final Converter converter;
+
+    private final ClassNode classNode;
+
+    /**
+     * Content of the class file, which is kept in the method sources
+     * for building IR lazily.
+     */
+    @Nullable
+    private final byte[] classBytes;
+
+    private final boolean isApplication;
+
+    private final boolean isPhantom;
+
+    private JClass jclass;
+
+    AsmClassBuilder(Converter converter, ClassNode classNode,
+                    @Nullable byte[] classBytes,
+                    boolean isApplication, boolean isPhantom) {
+        this.converter = converter;
+        this.classNode = classNode;
+        this.classBytes = classBytes;
+        this.isApplication = isApplication;
+        this.isPhantom = isPhantom;
+    }
+
+    @Override
+    public void build(JClass jclass) {
+        this.jclass = jclass;
+        jclass.build(this);
+    }
+
+    @Override
+    public Set<Modifier> getModifiers() {
+        return Modifiers.convertClass(classNode.access);
+    }
+
+    @Override
+    public String getSimpleName() {
+        String name = jclass.getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    @Override
+    public ClassType getClassType() {
+        return converter.convertClassType(classNode.name);
+    }
+
+    @Override
+    public JClass getSuperClass() {
+        return classNode.superName == null ? null :
+                converter.convertClass(classNode.superName);
+    }
+
+    @Override
+    public Collection<JClass> getInterfaces() {
+        return classNode.interfaces.stream()
+                .map(converter::convertClass)
+                // the missing interfaces are not loaded when
+                // phantom classes are not allowed
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public JClass getOuterClass() {
+        for (InnerClassNode innerClass : classNode.innerClasses) {
+            if (innerClass.name.equals(classNode.name)
+                    && innerClass.outerName != null) {
+                return converter.convertClass(innerClass.outerName);
+            }
+        }
+        // local and anonymous classes are given by EnclosingMethod attribute
+        return classNode.outerClass == null ? null :
+                converter.convertClass(classNode.outerClass);
+    }
+
+    @Override
+    public Collection<JField> getDeclaredFields() {
+        return Lists.map(classNode.fields,
+                f -> converter.convertField(jclass, f));
+    }
+
+    @Override
+    public Collection<JMethod> getDeclaredMethods() {
+        return Lists.map(classNode.methods,
+                m -> converter.convertMethod(jclass, m,
+                        (m.access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0 ?
+                                null : new MethodSource(classBytes, m.name, m.desc)));
+    }
+
+    @Override
+    public AnnotationHolder getAnnotationHolder() {
+        return Converter.convertAnnotations(classNode.visibleAnnotations,
+                classNode.invisibleAnnotations);
+    }
+
+    @Override
+    public boolean isApplication() {
+        return isApplication;
+    }
+
+    @Override
+    public boolean isPhantom() {
+        return isPhantom;
+    }
+
+    @Nullable
+    @Override
+    public ClassGSignature getGSignature() {
+        return classNode.signature == null ? null :
+                GSignatures.toClassSig(
+                        (classNode.access & Opcodes.ACC_INTERFACE) != 0,
+                        classNode.signature);
+    }
+}
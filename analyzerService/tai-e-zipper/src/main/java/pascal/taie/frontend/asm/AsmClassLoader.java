@@ -0,0 +1,266 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.ClassNode;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class AsmClassLoader implements JClassLoader {
+
+    private static final Logger logger = LogManager.getLogger(AsmClassLoader.class);
+
+    /**
+     * The class path to read classes from, which is released
+     * after the classes of the program have been loaded.
+     */
+    private transient ClassPath classPath;
+
+    private final ClassHierarchy hierarchy;
+
+    private final boolean allowPhantom;
+
+    private transient Converter converter;
+
+    private final Map<String, JClass> classes = Maps.newConcurrentMap(4096);
+
+    /**
+     * Classes that have been parsed but not built yet.
+     */
+    private final transient Map<String, ParsedClass> parsedClasses
+            = Maps.newConcurrentMap();
+
+    /**
+     * A class read from class path.
+     *
+     * @param node       the class without code, which is read from
+     *                   the class file when building the IR of its methods.
+     * @param file       the class file of the class.
+     * @param references the classes referenced by the class.
+     */
+    private record ParsedClass(ClassNode node, ClassPath.ClassFile file,
+                               Set<String> references) {
+    }
+
+    AsmClassLoader(ClassPath classPath, ClassHierarchy hierarchy,
+                   boolean allowPhantom) {
+        this.classPath = classPath;
+        this.hierarchy = hierarchy;
+        this.allowPhantom = allowPhantom;
+    }
+
+    @Override
+    public JClass loadClass(String name) {
+        JClass jclass = classes.get(name);
+        if (jclass == null && classPath != null) {
+            synchronized (this) {
+                jclass = classes.get(name);
+                if (jclass == null) {
+                    jclass = defineClass(name);
+                }
+            }
+        }
+        return jclass;
+    }
+
+    @Nullable
+    private JClass defineClass(String name) {
+        ParsedClass parsed = parsedClasses.remove(name);
+        if (parsed == null) {
+            parsed = parse(name);
+        }
+        AsmClassBuilder builder;
+        String moduleName;
+        if (parsed != null) {
+            builder = new AsmClassBuilder(converter, parsed.node(),
+                    parsed.file().bytes(), !parsed.file().isJRE(), false);
+            moduleName = parsed.file().moduleName();
+        } else if (allowPhantom) {
+            builder = new AsmClassBuilder(converter, newPhantomNode(name),
+                    null, false, true);
+            moduleName = null;
+        } else {
+            return null;
+        }
+        JClass jclass = new JClass(this, name, moduleName);
+        // New class must be put into classes map at first,
+        // at build(jclass) may also trigger the loading of
+        // the new created class. Not putting the class into classes
+        // may cause infinite recursion.
+        classes.put(name, jclass);
+        builder.build(jclass);
+        hierarchy.addClass(jclass);
+        return jclass;
+    }
+
+    /**
+     * Loads given classes and the classes referenced by them transitively,
+     * and releases the class path afterwards, so that the classes
+     * out of the closure are not loaded, as in Soot frontend.
+     * The class files are read and parsed in parallel level by level,
+     * and then the classes are built in the order they are reached,
+     * which keeps the result deterministic.
+     */
+    void loadClasses(Collection<String> roots) {
+        Set<String> visited = Sets.newSet();
+        List<String> order = new ArrayList<>();
+        List<String> level = new ArrayList<>();
+        for (String root : roots) {
+            if (visited.add(root)) {
+                level.add(root);
+            }
+        }
+        while (!level.isEmpty()) {
+            List<ParsedClass> parsed = level.parallelStream()
+                    .map(this::parse)
+                    .toList();
+            List<String> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); ++i) {
+                String name = level.get(i);
+                order.add(name);
+                ParsedClass p = parsed.get(i);
+                if (p != null) {
+                    parsedClasses.put(name, p);
+                    for (String ref : p.references()) {
+                        if (visited.add(ref)) {
+                            next.add(ref);
+                        }
+                    }
+                }
+            }
+            level = next;
+        }
+        order.forEach(this::loadClass);
+        logger.info("{} classes are loaded", classes.size());
+        parsedClasses.clear();
+        classPath.close();
+        classPath = null;
+    }
+
+    @Nullable
+    private ParsedClass parse(String name) {
+        ClassPath.ClassFile file = classPath.find(name);
+        if (file == null) {
+            return null;
+        }
+        ClassReader reader = new ClassReader(file.bytes());
+        ClassNode node = new ClassNode();
+        reader.accept(node, ClassReader.SKIP_CODE
+                | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return new ParsedClass(node, file, collectReferences(reader, node));
+    }
+
+    /**
+     * Collects the classes referenced by a class, i.e., the classes in
+     * its constant pool and in the descriptors of its members.
+     */
+    private static Set<String> collectReferences(ClassReader reader, ClassNode node) {
+        Set<String> refs = Sets.newHybridSet();
+        char[] buffer = new char[reader.getMaxStringLength()];
+        for (int i = 1; i < reader.getItemCount(); ++i) {
+            int offset = reader.getItem(i);
+            if (offset == 0) { // the unused entry after long and double
+                continue;
+            }
+            switch (reader.readByte(offset - 1)) {
+                case 7 -> // CONSTANT_Class
+                        addInternalName(reader.readUTF8(offset, buffer), refs);
+                case 12 -> // CONSTANT_NameAndType
+                        addDescriptor(reader.readUTF8(offset + 2, buffer), refs);
+                case 16 -> // CONSTANT_MethodType
+                        addDescriptor(reader.readUTF8(offset, buffer), refs);
+                default -> {
+                }
+            }
+        }
+        node.fields.forEach(f -> addDescriptor(f.desc, refs));
+        node.methods.forEach(m -> addDescriptor(m.desc, refs));
+        refs.remove(node.name.replace('/', '.'));
+        return refs;
+    }
+
+    private static void addInternalName(String internalName, Set<String> refs) {
+        if (internalName.startsWith("[")) {
+            addType(Type.getType(internalName), refs);
+        } else {
+            refs.add(internalName.replace('/', '.'));
+        }
+    }
+
+    private static void addDescriptor(String desc, Set<String> refs) {
+        if (desc.startsWith("(")) {
+            for (Type type : Type.getArgumentTypes(desc)) {
+                addType(type, refs);
+            }
+            addType(Type.getReturnType(desc), refs);
+        } else {
+            addType(Type.getType(desc), refs);
+        }
+    }
+
+    private static void addType(Type type, Set<String> refs) {
+        if (type.getSort() == Type.ARRAY) {
+            type = type.getElementType();
+        }
+        if (type.getSort() == Type.OBJECT) {
+            refs.add(type.getClassName());
+        }
+    }
+
+    /**
+     * @return the class node of a phantom class, which extends
+     * {@code java.lang.Object} and has no members.
+     */
+    private static ClassNode newPhantomNode(String name) {
+        ClassNode node = new ClassNode();
+        node.access = Opcodes.ACC_PUBLIC;
+        node.name = name.replace('.', '/');
+        node.superName = name.equals(ClassNames.OBJECT) ?
+                null : ClassNames.OBJECT.replace('.', '/');
+        return node;
+    }
+
+    @Override
+    public Collection<JClass> getLoadedClasses() {
+        return classes.values();
+    }
+
+    void setConverter(Converter converter) {
+        this.converter = converter;
+    }
+}
@@ -20,15 +20,19 @@
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
 
-package pascal.taie.analysis.pta.toolkit.zipper3;
-
-import pascal.taie.analysis.graph.flowgraph.FlowEdge;
-import pascal.taie.analysis.graph.flowgraph.FlowKind;
-import pascal.taie.analysis.graph.flowgraph.Node;
+package pascal.taie.frontend.asm;
 
 /**
- * Represents basic (non-OTHER) edges in flow graph.
+ * Represents the errors raised during reading program information
+ * from class files.
  */
-record BasicFlowEdge(FlowKind kind, Node source, Node target)
-        implements FlowEdge {
+class AsmFrontendException extends RuntimeException {
+
+    AsmFrontendException(String msg) {
+        super(msg);
+    }
+
+    AsmFrontendException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
 }
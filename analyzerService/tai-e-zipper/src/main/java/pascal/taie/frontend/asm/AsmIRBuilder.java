@@ -0,0 +1,65 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuildHelper;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.ir.IRPrebuilder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Builds IR from the bytecode of methods.
+ */
+class AsmIRBuilder implements IRBuilder {
+
+    private static final Logger logger = LogManager.getLogger(AsmIRBuilder.class);
+
+    private final transient Converter converter;
+
+    AsmIRBuilder(Converter converter) {
+        this.converter = converter;
+    }
+
+    @Override
+    public IR buildIR(JMethod method) {
+        try {
+            return new MethodIRBuilder(method, converter).build();
+        } catch (AsmFrontendException | AnalyzerException e) {
+            logger.warn("ASM frontend failed to build method body for {}" +
+                    " due to {}, constructs an empty IR instead", method, e.getMessage());
+            return new IRBuildHelper(method).buildEmpty();
+        }
+    }
+
+    /**
+     * Builds IR for all methods in given class hierarchy.
+     */
+    @Override
+    public void buildAll(ClassHierarchy hierarchy) {
+        IRPrebuilder.buildAll(hierarchy);
+    }
+}
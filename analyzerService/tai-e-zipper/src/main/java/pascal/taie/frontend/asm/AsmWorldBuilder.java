@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.AbstractWorldBuilder;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Options;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.language.type.TypeSystemImpl;
+import pascal.taie.util.Timer;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Builds the world from class files by ASM, without Soot.
+ * <p>
+ * Compared to {@link pascal.taie.frontend.soot.SootWorldBuilder}, this
+ * builder reads the class files in parallel, builds the IR of methods
+ * directly from bytecode on demand, and keeps no global state, thus
+ * multiple worlds can be built concurrently in different sessions.
+ * It does not support Java source files as input.
+ */
+public class AsmWorldBuilder extends AbstractWorldBuilder {
+
+    private static final Logger logger = LogManager.getLogger(AsmWorldBuilder.class);
+
+    private static final String MAIN = "void main(java.lang.String[])";
+
+    /**
+     * Classes which are used by the JVM implicitly, thus may not be
+     * referenced by other classes. Soot always loads these classes,
+     * and the analyses rely on some of them, e.g., {@code Finalizer}.
+     */
+    private static final List<String> JVM_CLASSES = List.of(
+            "java.lang.Object", "java.lang.Class", "java.lang.String",
+            "java.lang.Thread", "java.lang.Runnable", "java.lang.Cloneable",
+            "java.io.Serializable", "java.lang.ref.Finalizer",
+            "java.lang.invoke.LambdaMetafactory");
+
+    @Override
+    public void build(Options options, List<AnalysisConfig> analyses) {
+        Timer timer = new Timer("Build world by ASM");
+        timer.start();
+        World.reset();
+        World world = new World();
+        World.set(world);
+
+        // options will be used during World building, thus it should be
+        // set at first.
+        world.setOptions(options);
+        // initialize class hierarchy
+        ClassHierarchy hierarchy = new ClassHierarchyImpl();
+        AsmClassLoader loader = new AsmClassLoader(
+                createClassPath(options), hierarchy, options.isAllowPhantom());
+        hierarchy.setDefaultClassLoader(loader);
+        hierarchy.setBootstrapClassLoader(loader);
+        world.setClassHierarchy(hierarchy);
+        // initialize type manager
+        TypeSystem typeSystem = new TypeSystemImpl(hierarchy);
+        world.setTypeSystem(typeSystem);
+        // initialize converter
+        Converter converter = new Converter(loader, typeSystem);
+        loader.setConverter(converter);
+        // build classes in hierarchy
+        List<String> inputClasses = getInputClasses(options);
+        if (options.getMainClass() != null) {
+            inputClasses.add(options.getMainClass());
+        }
+        List<String> roots = new ArrayList<>(inputClasses);
+        roots.addAll(JVM_CLASSES);
+        roots.addAll(getBasicClasses());
+        roots.addAll(getReflectionLogClasses(analyses));
+        implicitEntries.forEach(sig -> roots.add(StringReps.getClassNameOf(sig)));
+        loader.loadClasses(roots);
+        inputClasses.forEach(name -> {
+            if (hierarchy.getClass(name) == null) {
+                throw new RuntimeException("Failed to find class " + name +
+                        ", are your class path and class name given properly?");
+            }
+        });
+        // set main method
+        if (options.getMainClass() != null) {
+            JClass mainClass = hierarchy.getClass(options.getMainClass());
+            JMethod mainMethod = mainClass.getDeclaredMethod(Subsignature.get(MAIN));
+            if (mainMethod != null && mainMethod.isStatic()) {
+                world.setMainMethod(mainMethod);
+            } else {
+                logger.warn("Warning: main class '{}'" +
+                                " does not have main(String[]) method!",
+                        options.getMainClass());
+            }
+        } else {
+            logger.warn("Warning: main class was not given!");
+        }
+        // set implicit entries
+        world.setImplicitEntries(implicitEntries.stream()
+                .map(hierarchy::getJREMethod)
+                // some implicit entries may not exist in certain JDK version,
+                // thus we filter out null
+                .filter(Objects::nonNull)
+                .toList());
+        // initialize IR builder
+        world.setNativeModel(getNativeModel(typeSystem, hierarchy, options));
+        AsmIRBuilder irBuilder = new AsmIRBuilder(converter);
+        world.setIRBuilder(irBuilder);
+        timer.stop();
+        logger.info(timer);
+        if (options.isPreBuildIR()) {
+            irBuilder.buildAll(hierarchy);
+        }
+    }
+
+    /**
+     * Creates the class path in the order of in-memory classes,
+     * JRE classes and then the class paths given by options.
+     */
+    private static ClassPath createClassPath(Options options) {
+        ClassPath classPath = new ClassPath();
+        classPath.addInMemoryClasses(options.getInMemoryClasses());
+        if (options.isPrependJVM()) {
+            classPath.addJVM();
+        }
+        Path jreDir = Path.of(JREs).toAbsolutePath().normalize();
+        for (String path : getClassPath(options).split(File.pathSeparator)) {
+            if (!path.isEmpty()) {
+                classPath.addPath(path, !options.isPrependJVM() &&
+                        Path.of(path).toAbsolutePath().normalize().startsWith(jreDir));
+            }
+        }
+        if (options.isPrependJVM()) {
+            // the class path given by getClassPath() includes
+            // application class path only when JVM is not prepended
+            options.getAppClassPath().forEach(path -> classPath.addPath(path, false));
+        }
+        return classPath;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Locates and reads class files from memory, directories, JAR files and
+ * the run-time image of current JVM (i.e., the {@code jrt:/} file system).
+ * The entries are looked up in the order they are added, and this class
+ * is thread-safe after all entries are added.
+ */
+class ClassPath implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(ClassPath.class);
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * A class file found in the class path.
+     *
+     * @param bytes      content of the class file.
+     * @param isJRE      whether the class file belongs to Java runtime.
+     * @param moduleName name of the module of the class, or {@code null}
+     *                   if the class is not in a named module.
+     */
+    record ClassFile(byte[] bytes, boolean isJRE, @Nullable String moduleName) {
+    }
+
+    void addInMemoryClasses(Map<String, byte[]> classes) {
+        if (!classes.isEmpty()) {
+            entries.add(new MemoryEntry(classes));
+        }
+    }
+
+    /**
+     * Adds a directory or a JAR file to this class path.
+     */
+    void addPath(String path, boolean isJRE) {
+        File file = new File(path);
+        try {
+            if (file.isDirectory()) {
+                entries.add(new DirEntry(file.toPath(), isJRE));
+            } else if (file.isFile()) {
+                entries.add(new JarEntry(new ZipFile(file), isJRE));
+            } else {
+                logger.warn("Class path entry {} does not exist", path);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to open class path entry {} due to {}", path, e);
+        }
+    }
+
+    /**
+     * Adds the classes of current JVM to this class path, i.e., rt.jar
+     * of Java 8 and earlier, or the run-time image of later versions.
+     */
+    void addJVM() {
+        File rtJar = new File(System.getProperty("java.home"), "lib/rt.jar");
+        if (rtJar.isFile()) {
+            addPath(rtJar.getPath(), true);
+            return;
+        }
+        try {
+            entries.add(new JrtEntry(FileSystems.getFileSystem(URI.create("jrt:/"))));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to open the run-time image of JVM due to {}", e.toString());
+        }
+    }
+
+    /**
+     * @param className the binary name of the class, e.g., {@code java.lang.String}.
+     * @return the class file of the class, or {@code null} if it is not found.
+     */
+    @Nullable
+    ClassFile find(String className) {
+        String path = className.replace('.', '/') + ".class";
+        for (Entry entry : entries) {
+            try {
+                ClassFile classFile = entry.find(className, path);
+                if (classFile != null) {
+                    return classFile;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to read {} due to {}", path, e);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        for (Entry entry : entries) {
+            try {
+                entry.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close class path entry due to {}", e.toString());
+            }
+        }
+    }
+
+    private interface Entry extends Closeable {
+
+        @Nullable
+        ClassFile find(String className, String path) throws IOException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    private record MemoryEntry(Map<String, byte[]> classes) implements Entry {
+
+        @Override
+        public ClassFile find(String className, String path) {
+            byte[] bytes = classes.get(className);
+            return bytes == null ? null : new ClassFile(bytes, false, null);
+        }
+    }
+
+    private record DirEntry(Path dir, boolean isJRE) implements Entry {
+
+        @Override
+        public ClassFile find(String className, String path) throws IOException {
+            Path file = dir.resolve(path);
+            return Files.isRegularFile(file) ?
+                    new ClassFile(Files.readAllBytes(file), isJRE, null) : null;
+        }
+    }
+
+    private record JarEntry(ZipFile jar, boolean isJRE) implements Entry {
+
+        @Override
+        public ClassFile find(String className, String path) throws IOException {
+            ZipEntry entry = jar.getEntry(path);
+            if (entry == null) {
+                return null;
+            }
+            try (InputStream in = jar.getInputStream(entry)) {
+                return new ClassFile(in.readAllBytes(), isJRE, null);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            jar.close();
+        }
+    }
+
+    /**
+     * Reads classes from the jrt file system, where class files are
+     * located at /modules/(module)/(path), and the modules of each package
+     * are listed in /packages/(package).
+     */
+    private static class JrtEntry implements Entry {
+
+        private final FileSystem jrt;
+
+        /**
+         * Package name -> modules that contain the package.
+         */
+        private final ConcurrentMap<String, List<String>> pkg2Modules
+                = Maps.newConcurrentMap();
+
+        private JrtEntry(FileSystem jrt) {
+            this.jrt = jrt;
+        }
+
+        @Override
+        public ClassFile find(String className, String path) throws IOException {
+            int i = className.lastIndexOf('.');
+            if (i == -1) {
+                return null;
+            }
+            for (String module : getModules(className.substring(0, i))) {
+                Path file = jrt.getPath("/modules", module, path);
+                if (Files.isRegularFile(file)) {
+                    return new ClassFile(Files.readAllBytes(file), true, module);
+                }
+            }
+            return null;
+        }
+
+        private List<String> getModules(String pkg) {
+            return pkg2Modules.computeIfAbsent(pkg, p -> {
+                Path dir = jrt.getPath("/packages", p);
+                if (!Files.isDirectory(dir)) {
+                    return List.of();
+                }
+                List<String> modules = new ArrayList<>();
+                try (DirectoryStream<Path> paths = Files.newDirectoryStream(dir)) {
+                    paths.forEach(m -> modules.add(m.getFileName().toString()));
+                } catch (IOException e) {
+                    logger.warn("Failed to list modules of package {} due to {}",
+                            p, e);
+                }
+                return modules;
+            });
+        }
+    }
+}
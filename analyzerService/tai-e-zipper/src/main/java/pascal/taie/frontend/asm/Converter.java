@@ -0,0 +1,323 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AnnotationNode;
+import org.objectweb.asm.tree.FieldNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.ParameterNode;
+import pascal.taie.ir.exp.MethodHandle;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MemberRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.language.annotation.Annotation;
+import pascal.taie.language.annotation.AnnotationElement;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.annotation.ArrayElement;
+import pascal.taie.language.annotation.BooleanElement;
+import pascal.taie.language.annotation.ClassElement;
+import pascal.taie.language.annotation.DoubleElement;
+import pascal.taie.language.annotation.Element;
+import pascal.taie.language.annotation.EnumElement;
+import pascal.taie.language.annotation.FloatElement;
+import pascal.taie.language.annotation.IntElement;
+import pascal.taie.language.annotation.LongElement;
+import pascal.taie.language.annotation.StringElement;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.generics.GSignatures;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Lists;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static pascal.taie.language.type.BooleanType.BOOLEAN;
+import static pascal.taie.language.type.ByteType.BYTE;
+import static pascal.taie.language.type.CharType.CHAR;
+import static pascal.taie.language.type.DoubleType.DOUBLE;
+import static pascal.taie.language.type.FloatType.FLOAT;
+import static pascal.taie.language.type.IntType.INT;
+import static pascal.taie.language.type.LongType.LONG;
+import static pascal.taie.language.type.ShortType.SHORT;
+import static pascal.taie.language.type.VoidType.VOID;
+
+/**
+ * Converts the class information read by ASM to Tai-e's representation.
+ */
+class Converter {
+
+    private final JClassLoader loader;
+
+    private final TypeSystem typeSystem;
+
+    Converter(JClassLoader loader, TypeSystem typeSystem) {
+        this.loader = loader;
+        this.typeSystem = typeSystem;
+    }
+
+    TypeSystem getTypeSystem() {
+        return typeSystem;
+    }
+
+    Type convertType(org.objectweb.asm.Type type) {
+        return switch (type.getSort()) {
+            case org.objectweb.asm.Type.BOOLEAN -> BOOLEAN;
+            case org.objectweb.asm.Type.CHAR -> CHAR;
+            case org.objectweb.asm.Type.BYTE -> BYTE;
+            case org.objectweb.asm.Type.SHORT -> SHORT;
+            case org.objectweb.asm.Type.INT -> INT;
+            case org.objectweb.asm.Type.FLOAT -> FLOAT;
+            case org.objectweb.asm.Type.LONG -> LONG;
+            case org.objectweb.asm.Type.DOUBLE -> DOUBLE;
+            case org.objectweb.asm.Type.VOID -> VOID;
+            case org.objectweb.asm.Type.ARRAY -> typeSystem.getArrayType(
+                    convertType(type.getElementType()), type.getDimensions());
+            case org.objectweb.asm.Type.OBJECT ->
+                    typeSystem.getClassType(loader, type.getClassName());
+            default -> throw new AsmFrontendException("Cannot convert type: " + type);
+        };
+    }
+
+    /**
+     * Converts a type descriptor, e.g., {@code Ljava/lang/String;}.
+     */
+    Type convertType(String desc) {
+        return convertType(org.objectweb.asm.Type.getType(desc));
+    }
+
+    /**
+     * Converts an internal name of class, e.g., {@code java/lang/String}.
+     */
+    @Nullable
+    JClass convertClass(String internalName) {
+        return loader.loadClass(internalName.replace('/', '.'));
+    }
+
+    ClassType convertClassType(String internalName) {
+        return typeSystem.getClassType(loader, internalName.replace('/', '.'));
+    }
+
+    JField convertField(JClass jclass, FieldNode field) {
+        return new JField(jclass, field.name,
+                Modifiers.convertField(field.access),
+                convertType(field.desc),
+                field.signature == null ? null :
+                        GSignatures.toTypeSig(field.signature),
+                convertAnnotations(field.visibleAnnotations,
+                        field.invisibleAnnotations));
+    }
+
+    JMethod convertMethod(JClass jclass, MethodNode method, Object methodSource) {
+        org.objectweb.asm.Type[] argTypes =
+                org.objectweb.asm.Type.getArgumentTypes(method.desc);
+        List<Type> paramTypes = Arrays.stream(argTypes)
+                .map(this::convertType)
+                .toList();
+        Type returnType = convertType(
+                org.objectweb.asm.Type.getReturnType(method.desc));
+        List<ClassType> exceptions = Lists.map(method.exceptions,
+                this::convertClassType);
+        return new JMethod(jclass, method.name,
+                Modifiers.convertMethod(method.access),
+                paramTypes, returnType, exceptions,
+                method.signature == null ? null :
+                        GSignatures.toMethodSig(method.signature),
+                convertAnnotations(method.visibleAnnotations,
+                        method.invisibleAnnotations),
+                convertParamAnnotations(method, argTypes.length),
+                convertParamNames(method, argTypes.length),
+                methodSource);
+    }
+
+    FieldRef convertFieldRef(String owner, String name, String desc,
+                             boolean isStatic) {
+        return FieldRef.get(getDeclaringClass(owner), name,
+                convertType(desc), isStatic);
+    }
+
+    MethodRef convertMethodRef(String owner, String name, String desc,
+                               boolean isStatic) {
+        List<Type> paramTypes = Arrays.stream(
+                        org.objectweb.asm.Type.getArgumentTypes(desc))
+                .map(this::convertType)
+                .toList();
+        Type returnType = convertType(org.objectweb.asm.Type.getReturnType(desc));
+        return MethodRef.get(getDeclaringClass(owner), name,
+                paramTypes, returnType, isStatic);
+    }
+
+    private JClass getDeclaringClass(String owner) {
+        // the methods called on arrays (e.g., clone()) are
+        // seen as the methods of java.lang.Object, as in Soot
+        JClass jclass = owner.startsWith("[") ?
+                loader.loadClass(ClassNames.OBJECT) : convertClass(owner);
+        if (jclass == null) {
+            throw new AsmFrontendException("Cannot find class " + owner);
+        }
+        return jclass;
+    }
+
+    MethodHandle convertHandle(Handle handle) {
+        int tag = handle.getTag();
+        MemberRef memberRef = switch (tag) {
+            case Opcodes.H_GETFIELD, Opcodes.H_PUTFIELD -> convertFieldRef(
+                    handle.getOwner(), handle.getName(), handle.getDesc(), false);
+            case Opcodes.H_GETSTATIC, Opcodes.H_PUTSTATIC -> convertFieldRef(
+                    handle.getOwner(), handle.getName(), handle.getDesc(), true);
+            default -> convertMethodRef(handle.getOwner(), handle.getName(),
+                    handle.getDesc(), tag == Opcodes.H_INVOKESTATIC);
+        };
+        return MethodHandle.get(MethodHandle.Kind.get(tag), memberRef);
+    }
+
+    /**
+     * @return an annotation holder that contains the annotations
+     * which are visible and invisible at runtime.
+     */
+    static AnnotationHolder convertAnnotations(
+            @Nullable List<AnnotationNode> visible,
+            @Nullable List<AnnotationNode> invisible) {
+        if (visible == null && invisible == null) {
+            return AnnotationHolder.emptyHolder();
+        }
+        List<Annotation> annotations = new ArrayList<>();
+        if (visible != null) {
+            visible.forEach(a -> annotations.add(convertAnnotation(a)));
+        }
+        if (invisible != null) {
+            invisible.forEach(a -> annotations.add(convertAnnotation(a)));
+        }
+        return AnnotationHolder.make(annotations);
+    }
+
+    private static Annotation convertAnnotation(AnnotationNode node) {
+        String annotationType = StringReps.toTaieTypeDesc(node.desc);
+        Map<String, Element> elements = Maps.newHybridMap();
+        if (node.values != null) {
+            // ASM stores the elements as a list of name-value pairs
+            for (int i = 0; i < node.values.size(); i += 2) {
+                elements.put((String) node.values.get(i),
+                        convertAnnotationElement(node.values.get(i + 1)));
+            }
+        }
+        return new Annotation(annotationType, elements);
+    }
+
+    private static Element convertAnnotationElement(Object value) {
+        if (value instanceof String s) {
+            return new StringElement(s);
+        } else if (value instanceof org.objectweb.asm.Type t) {
+            return new ClassElement(StringReps.toTaieTypeDesc(t.getDescriptor()));
+        } else if (value instanceof String[] e) {
+            // ASM represents enum constant by its type and name
+            return new EnumElement(StringReps.toTaieTypeDesc(e[0]), e[1]);
+        } else if (value instanceof AnnotationNode a) {
+            return new AnnotationElement(convertAnnotation(a));
+        } else if (value instanceof List<?> values) {
+            return new ArrayElement(Lists.map(values,
+                    Converter::convertAnnotationElement));
+        } else if (value instanceof Boolean b) {
+            return new BooleanElement(b);
+        } else if (value instanceof Character c) {
+            return new IntElement(c);
+        } else if (value instanceof Byte
+                || value instanceof Short
+                || value instanceof Integer) {
+            return new IntElement(((Number) value).intValue());
+        } else if (value instanceof Long l) {
+            return new LongElement(l);
+        } else if (value instanceof Float f) {
+            return new FloatElement(f);
+        } else if (value instanceof Double d) {
+            return new DoubleElement(d);
+        } else if (value.getClass().isArray()) {
+            // ASM represents arrays of primitive values as Java arrays
+            int length = java.lang.reflect.Array.getLength(value);
+            List<Element> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; ++i) {
+                elements.add(convertAnnotationElement(
+                        java.lang.reflect.Array.get(value, i)));
+            }
+            return new ArrayElement(elements);
+        }
+        throw new AsmFrontendException(
+                "Unable to handle annotation element: " + value);
+    }
+
+    /**
+     * Converts the annotations of parameters of {@code method} to a list
+     * of {@link AnnotationHolder}, one for annotations of each parameter.
+     */
+    @Nullable
+    private static List<AnnotationHolder> convertParamAnnotations(
+            MethodNode method, int paramCount) {
+        if (method.visibleParameterAnnotations == null
+                && method.invisibleParameterAnnotations == null) {
+            return null;
+        }
+        List<AnnotationHolder> holders = new ArrayList<>(paramCount);
+        for (int i = 0; i < paramCount; ++i) {
+            holders.add(convertAnnotations(
+                    getParamAnnotations(method.visibleParameterAnnotations, i),
+                    getParamAnnotations(method.invisibleParameterAnnotations, i)));
+        }
+        return holders;
+    }
+
+    @Nullable
+    private static List<AnnotationNode> getParamAnnotations(
+            @Nullable List<AnnotationNode>[] annotations, int i) {
+        // the annotations of synthetic parameters may be absent
+        return annotations != null && i < annotations.length ?
+                annotations[i] : null;
+    }
+
+    /**
+     * Converts the names of parameters in the MethodParameters attribute.
+     * The names in the local variable table are not read here, as the code
+     * of methods is read only when building IR.
+     */
+    @Nullable
+    private static List<String> convertParamNames(
+            MethodNode method, int paramCount) {
+        List<ParameterNode> parameters = method.parameters;
+        if (parameters != null && parameters.size() == paramCount
+                && parameters.stream().allMatch(p -> p.name != null)) {
+            return Lists.map(parameters, p -> p.name);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,990 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.JumpInsnNode;
+import org.objectweb.asm.tree.LabelNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.LineNumberNode;
+import org.objectweb.asm.tree.LookupSwitchInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TableSwitchInsnNode;
+import org.objectweb.asm.tree.TryCatchBlockNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.analysis.Analyzer;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.Frame;
+import pascal.taie.frontend.asm.TypedInterpreter.TypedValue;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ArrayAccess;
+import pascal.taie.ir.exp.ArrayLengthExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.CastExp;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.ComparisonExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.DoubleLiteral;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.FloatLiteral;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InstanceOfExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.InvokeDynamic;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.InvokeInterface;
+import pascal.taie.ir.exp.InvokeSpecial;
+import pascal.taie.ir.exp.InvokeStatic;
+import pascal.taie.ir.exp.InvokeVirtual;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.MethodType;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.NewArray;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.NewMultiArray;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.ShiftExp;
+import pascal.taie.ir.exp.StaticFieldAccess;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.ExceptionEntry;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.InstanceOf;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.LookupSwitch;
+import pascal.taie.ir.stmt.Monitor;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.ir.stmt.TableSwitch;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.PrimitiveType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Lists;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static pascal.taie.language.type.BooleanType.BOOLEAN;
+import static pascal.taie.language.type.ByteType.BYTE;
+import static pascal.taie.language.type.CharType.CHAR;
+import static pascal.taie.language.type.DoubleType.DOUBLE;
+import static pascal.taie.language.type.FloatType.FLOAT;
+import static pascal.taie.language.type.IntType.INT;
+import static pascal.taie.language.type.LongType.LONG;
+import static pascal.taie.language.type.ShortType.SHORT;
+import static pascal.taie.language.type.VoidType.VOID;
+
+/**
+ * Converts bytecode to Tai-e IR.
+ * <p>
+ * The operand stack is simulated symbolically, i.e., each stack value is
+ * a {@link Var}: the loads of local variables push the variables of the
+ * locals, and each instruction producing a value defines a new temporary
+ * variable, unless the value is stored to a local variable immediately,
+ * in which case the instruction defines the local variable directly.
+ * When a jump target is reached with non-empty operand stack
+ * (e.g., {@code c ? a : b}), the stack values are copied to the
+ * join variables of the target at each predecessor.
+ */
+class MethodIRBuilder {
+
+    private final JMethod method;
+
+    private final Converter converter;
+
+    private AbstractInsnNode[] insns;
+
+    private Frame<TypedValue>[] frames;
+
+    private VarManager varManager;
+
+    private Set<Var> returnVars;
+
+    private final List<Stmt> stmts = new ArrayList<>();
+
+    /**
+     * The simulated operand stack.
+     */
+    private final List<Var> stack = new ArrayList<>();
+
+    /**
+     * Labels that begin new blocks, i.e., the targets of jumps and
+     * the labels of exception entries.
+     */
+    private final Set<LabelNode> blockLabels = Sets.newSet();
+
+    private final Set<LabelNode> handlerLabels = Sets.newHybridSet();
+
+    /**
+     * Map from labels in {@link #blockLabels} to the indexes of
+     * the first statements at (or after) the labels.
+     */
+    private final Map<LabelNode, Integer> labelIndexes = Maps.newMap();
+
+    /**
+     * Map from jump targets reached with non-empty operand stack to
+     * the join variables which hold the stack values at the targets.
+     */
+    private final Map<LabelNode, List<Var>> joinVars = Maps.newHybridMap();
+
+    /**
+     * Map from jump statements in Tai-e IR to the corresponding instructions.
+     */
+    private final Map<Stmt, AbstractInsnNode> jumpMap = Maps.newLinkedHashMap();
+
+    /**
+     * Index of the last instruction consumed by the instruction being
+     * converted, which may consume the following store or pop.
+     */
+    private int consumed;
+
+    private int lineNumber = -1;
+
+    MethodIRBuilder(JMethod method, Converter converter) {
+        this.method = method;
+        this.converter = converter;
+    }
+
+    IR build() throws AnalyzerException {
+        MethodNode node = readMethod((MethodSource) method.getMethodSource());
+        String owner = method.getDeclaringClass().getName().replace('.', '/');
+        frames = new Analyzer<>(new TypedInterpreter()).analyze(owner, node);
+        insns = node.instructions.toArray();
+        varManager = new VarManager(method, converter, node, frames);
+        if (method.getReturnType().equals(VOID)) {
+            returnVars = Set.of();
+        } else {
+            returnVars = Sets.newLinkedSet();
+        }
+        collectBlockLabels(node);
+        buildStmts();
+        List<ExceptionEntry> exceptionEntries = buildExceptionEntries(node);
+        linkJumpTargets();
+        return new DefaultIR(method,
+                varManager.getThis(), varManager.getParams(), returnVars,
+                varManager.getVars(), stmts, exceptionEntries);
+    }
+
+    /**
+     * Reads the code of the method from its class file.
+     */
+    private static MethodNode readMethod(MethodSource source) {
+        MethodNode[] result = new MethodNode[1];
+        new ClassReader(source.classBytes()).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc,
+                                             String signature, String[] exceptions) {
+                if (name.equals(source.name()) && desc.equals(source.desc())) {
+                    return result[0] = new MethodNode(Opcodes.ASM9, access,
+                            name, desc, signature, exceptions);
+                }
+                return null;
+            }
+        }, ClassReader.SKIP_FRAMES);
+        return result[0];
+    }
+
+    private void collectBlockLabels(MethodNode node) {
+        for (AbstractInsnNode insn : insns) {
+            if (insn instanceof JumpInsnNode jump) {
+                blockLabels.add(jump.label);
+            } else if (insn instanceof TableSwitchInsnNode tableSwitch) {
+                blockLabels.addAll(tableSwitch.labels);
+                blockLabels.add(tableSwitch.dflt);
+            } else if (insn instanceof LookupSwitchInsnNode lookupSwitch) {
+                blockLabels.addAll(lookupSwitch.labels);
+                blockLabels.add(lookupSwitch.dflt);
+            }
+        }
+        // create join variables for the targets with non-empty stack
+        for (LabelNode label : blockLabels) {
+            Frame<TypedValue> frame = frames[node.instructions.indexOf(label)];
+            if (frame != null && frame.getStackSize() > 0) {
+                List<Var> vars = new ArrayList<>(frame.getStackSize());
+                for (int i = 0; i < frame.getStackSize(); ++i) {
+                    vars.add(varManager.newTempVar(
+                            convertType(frame.getStack(i).type())));
+                }
+                joinVars.put(label, vars);
+            }
+        }
+        for (TryCatchBlockNode tryCatch : node.tryCatchBlocks) {
+            blockLabels.add(tryCatch.start);
+            blockLabels.add(tryCatch.end);
+            blockLabels.add(tryCatch.handler);
+            handlerLabels.add(tryCatch.handler);
+        }
+    }
+
+    private void buildStmts() {
+        boolean fallsThrough = true;
+        for (int i = 0; i < insns.length; i = consumed + 1) {
+            consumed = i;
+            AbstractInsnNode insn = insns[i];
+            if (insn instanceof LabelNode label) {
+                visitLabel(i, label, fallsThrough);
+            } else if (insn instanceof LineNumberNode lineNumberNode) {
+                lineNumber = lineNumberNode.line;
+            } else if (insn.getOpcode() != -1) { // skip frames
+                if (frames[i] == null) { // unreachable code
+                    fallsThrough = false;
+                } else {
+                    visitInsn(i, insn);
+                    fallsThrough = canFallThrough(insn.getOpcode());
+                }
+            }
+        }
+        if (labelIndexes.containsValue(stmts.size())) {
+            // some labels are placed at the end of the code
+            addStmt(new Nop());
+        }
+    }
+
+    private void visitLabel(int i, LabelNode label, boolean fallsThrough) {
+        if (blockLabels.contains(label)) {
+            labelIndexes.put(label, stmts.size());
+        }
+        if (frames[i] == null) {
+            return;
+        }
+        List<Var> joins = joinVars.get(label);
+        if (joins != null) {
+            if (fallsThrough) {
+                copyToJoinVars(joins);
+            }
+            stack.clear();
+            stack.addAll(joins);
+        } else if (handlerLabels.contains(label)) {
+            stack.clear();
+            int next = nextInsn(i);
+            Var exceptionRef;
+            if (next != -1 && insns[next].getOpcode() == Opcodes.ASTORE) {
+                exceptionRef = varManager.getVar(next);
+                consumed = next;
+            } else {
+                org.objectweb.asm.Type type = frames[i].getStack(0).type();
+                exceptionRef = varManager.newTempVar(
+                        type.equals(TypedInterpreter.OBJECT_TYPE) ?
+                                converter.convertClassType(
+                                        ClassNames.THROWABLE.replace('.', '/')) :
+                                converter.convertType(type));
+                stack.add(exceptionRef);
+            }
+            addStmt(new Catch(exceptionRef));
+        } else if (!fallsThrough) {
+            stack.clear();
+        }
+    }
+
+    /**
+     * @return index of the next instruction after the one at {@code i},
+     * or -1 if there is a block label between the two instructions.
+     */
+    private int nextInsn(int i) {
+        for (int j = i + 1; j < insns.length; ++j) {
+            AbstractInsnNode insn = insns[j];
+            if (insn instanceof LabelNode label) {
+                if (blockLabels.contains(label)) {
+                    return -1;
+                }
+            } else if (insn.getOpcode() != -1) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean canFallThrough(int opcode) {
+        return switch (opcode) {
+            case Opcodes.GOTO, Opcodes.TABLESWITCH, Opcodes.LOOKUPSWITCH,
+                    Opcodes.IRETURN, Opcodes.LRETURN, Opcodes.FRETURN,
+                    Opcodes.DRETURN, Opcodes.ARETURN, Opcodes.RETURN,
+                    Opcodes.ATHROW -> false;
+            default -> true;
+        };
+    }
+
+    private static boolean isStore(int opcode) {
+        return opcode >= Opcodes.ISTORE && opcode <= Opcodes.ASTORE;
+    }
+
+    private void addStmt(Stmt stmt) {
+        stmt.setLineNumber(lineNumber);
+        stmt.setIndex(stmts.size());
+        stmts.add(stmt);
+    }
+
+    private void push(Var var) {
+        stack.add(var);
+    }
+
+    private Var pop() {
+        return stack.remove(stack.size() - 1);
+    }
+
+    private List<Var> pop(int n) {
+        List<Var> vars = new ArrayList<>(stack.subList(stack.size() - n, stack.size()));
+        stack.subList(stack.size() - n, stack.size()).clear();
+        return vars;
+    }
+
+    /**
+     * Emits the statement that defines a value, and pushes the value
+     * to the stack. If the value is stored to a local variable immediately,
+     * the statement defines the local variable instead.
+     */
+    private void produce(int i, Type type, Function<Var, Stmt> def) {
+        int next = nextInsn(i);
+        if (next != -1 && isStore(insns[next].getOpcode())) {
+            Var local = varManager.getVar(next);
+            spill(local);
+            consumed = next;
+            addStmt(def.apply(local));
+        } else {
+            Var temp = varManager.newTempVar(type);
+            addStmt(def.apply(temp));
+            push(temp);
+        }
+    }
+
+    private void pushConstant(int i, Literal literal) {
+        int next = nextInsn(i);
+        if (next != -1 && isStore(insns[next].getOpcode())) {
+            Var local = varManager.getVar(next);
+            spill(local);
+            consumed = next;
+            addStmt(new AssignLiteral(local, literal));
+        } else {
+            push(getConstantVar(literal));
+        }
+    }
+
+    /**
+     * @return the variable holding given literal value, which is assigned
+     * before it is used.
+     */
+    private Var getConstantVar(Literal literal) {
+        Var var = varManager.getConstantVar(literal);
+        if (!(literal instanceof NullLiteral)) {
+            // add temp assignment for non-null variable
+            addStmt(new AssignLiteral(var, literal));
+        }
+        return var;
+    }
+
+    /**
+     * Before a local variable is redefined, copies it to a temporary
+     * variable if it is still on the stack, so that the stack keeps
+     * the old value.
+     */
+    private void spill(Var local) {
+        Var temp = null;
+        for (int i = 0; i < stack.size(); ++i) {
+            if (stack.get(i) == local) {
+                if (temp == null) {
+                    temp = varManager.newTempVar(local.getType());
+                    addStmt(new Copy(temp, local));
+                }
+                stack.set(i, temp);
+            }
+        }
+    }
+
+    /**
+     * Copies the stack values to the join variables of a jump target.
+     */
+    private void copyToJoinVars(List<Var> joins) {
+        if (stack.size() != joins.size()) {
+            throw new AsmFrontendException("Inconsistent stack heights at a jump target in " + method);
+        }
+        // a join variable may be on the stack at another position,
+        // and it should not be overwritten before it is read
+        for (int i = 0; i < stack.size(); ++i) {
+            Var var = stack.get(i);
+            if (var != joins.get(i) && joins.contains(var)) {
+                spill(var);
+            }
+        }
+        for (int i = 0; i < stack.size(); ++i) {
+            if (stack.get(i) != joins.get(i)) {
+                addStmt(new Copy(joins.get(i), stack.get(i)));
+            }
+        }
+    }
+
+    private void copyToJoinVars(LabelNode target) {
+        List<Var> joins = joinVars.get(target);
+        if (joins != null) {
+            copyToJoinVars(joins);
+        }
+    }
+
+    private static boolean isCategory2(Var var) {
+        return var.getType().equals(LONG) || var.getType().equals(DOUBLE);
+    }
+
+    private Type convertType(org.objectweb.asm.Type type) {
+        return type == null || type.equals(TypedInterpreter.NULL_TYPE) ?
+                converter.convertClassType(ClassNames.OBJECT.replace('.', '/')) :
+                converter.convertType(type);
+    }
+
+    private void visitInsn(int i, AbstractInsnNode insn) {
+        int opcode = insn.getOpcode();
+        switch (opcode) {
+            case Opcodes.NOP -> {
+            }
+            case Opcodes.ACONST_NULL -> pushConstant(i, NullLiteral.get());
+            case Opcodes.ICONST_M1, Opcodes.ICONST_0, Opcodes.ICONST_1,
+                    Opcodes.ICONST_2, Opcodes.ICONST_3, Opcodes.ICONST_4,
+                    Opcodes.ICONST_5 ->
+                    pushConstant(i, IntLiteral.get(opcode - Opcodes.ICONST_0));
+            case Opcodes.LCONST_0, Opcodes.LCONST_1 ->
+                    pushConstant(i, LongLiteral.get(opcode - Opcodes.LCONST_0));
+            case Opcodes.FCONST_0, Opcodes.FCONST_1, Opcodes.FCONST_2 ->
+                    pushConstant(i, FloatLiteral.get(opcode - Opcodes.FCONST_0));
+            case Opcodes.DCONST_0, Opcodes.DCONST_1 ->
+                    pushConstant(i, DoubleLiteral.get(opcode - Opcodes.DCONST_0));
+            case Opcodes.BIPUSH, Opcodes.SIPUSH ->
+                    pushConstant(i, IntLiteral.get(((IntInsnNode) insn).operand));
+            case Opcodes.LDC -> pushConstant(i, convertConstant(((LdcInsnNode) insn).cst));
+            case Opcodes.ILOAD, Opcodes.LLOAD, Opcodes.FLOAD, Opcodes.DLOAD,
+                    Opcodes.ALOAD -> push(varManager.getVar(i));
+            case Opcodes.IALOAD, Opcodes.LALOAD, Opcodes.FALOAD, Opcodes.DALOAD,
+                    Opcodes.AALOAD, Opcodes.BALOAD, Opcodes.CALOAD,
+                    Opcodes.SALOAD -> {
+                Var index = pop();
+                Var array = pop();
+                produce(i, getElementType(i, array),
+                        v -> new LoadArray(v, new ArrayAccess(array, index)));
+            }
+            case Opcodes.ISTORE, Opcodes.LSTORE, Opcodes.FSTORE, Opcodes.DSTORE,
+                    Opcodes.ASTORE -> {
+                Var value = pop();
+                Var local = varManager.getVar(i);
+                if (value != local) {
+                    spill(local);
+                    addStmt(new Copy(local, value));
+                }
+            }
+            case Opcodes.IASTORE, Opcodes.LASTORE, Opcodes.FASTORE,
+                    Opcodes.DASTORE, Opcodes.AASTORE, Opcodes.BASTORE,
+                    Opcodes.CASTORE, Opcodes.SASTORE -> {
+                Var value = pop();
+                Var index = pop();
+                Var array = pop();
+                addStmt(new StoreArray(new ArrayAccess(array, index), value));
+            }
+            case Opcodes.POP -> pop();
+            case Opcodes.POP2 -> {
+                if (!isCategory2(pop())) {
+                    pop();
+                }
+            }
+            case Opcodes.DUP, Opcodes.DUP_X1, Opcodes.DUP_X2, Opcodes.DUP2,
+                    Opcodes.DUP2_X1, Opcodes.DUP2_X2, Opcodes.SWAP -> visitStackInsn(opcode);
+            case Opcodes.IADD, Opcodes.LADD, Opcodes.FADD, Opcodes.DADD ->
+                    buildBinary(i, ArithmeticExp.Op.ADD);
+            case Opcodes.ISUB, Opcodes.LSUB, Opcodes.FSUB, Opcodes.DSUB ->
+                    buildBinary(i, ArithmeticExp.Op.SUB);
+            case Opcodes.IMUL, Opcodes.LMUL, Opcodes.FMUL, Opcodes.DMUL ->
+                    buildBinary(i, ArithmeticExp.Op.MUL);
+            case Opcodes.IDIV, Opcodes.LDIV, Opcodes.FDIV, Opcodes.DDIV ->
+                    buildBinary(i, ArithmeticExp.Op.DIV);
+            case Opcodes.IREM, Opcodes.LREM, Opcodes.FREM, Opcodes.DREM ->
+                    buildBinary(i, ArithmeticExp.Op.REM);
+            case Opcodes.ISHL, Opcodes.LSHL -> buildBinary(i, ShiftExp.Op.SHL);
+            case Opcodes.ISHR, Opcodes.LSHR -> buildBinary(i, ShiftExp.Op.SHR);
+            case Opcodes.IUSHR, Opcodes.LUSHR -> buildBinary(i, ShiftExp.Op.USHR);
+            case Opcodes.IAND, Opcodes.LAND -> buildBinary(i, BitwiseExp.Op.AND);
+            case Opcodes.IOR, Opcodes.LOR -> buildBinary(i, BitwiseExp.Op.OR);
+            case Opcodes.IXOR, Opcodes.LXOR -> buildBinary(i, BitwiseExp.Op.XOR);
+            case Opcodes.LCMP -> buildBinary(i, ComparisonExp.Op.CMP);
+            case Opcodes.FCMPL, Opcodes.DCMPL -> buildBinary(i, ComparisonExp.Op.CMPL);
+            case Opcodes.FCMPG, Opcodes.DCMPG -> buildBinary(i, ComparisonExp.Op.CMPG);
+            case Opcodes.INEG, Opcodes.LNEG, Opcodes.FNEG, Opcodes.DNEG -> {
+                Var value = pop();
+                produce(i, value.getType(), v -> new Unary(v, new NegExp(value)));
+            }
+            case Opcodes.IINC -> {
+                Var local = varManager.getVar(i);
+                Var increment = getConstantVar(IntLiteral.get(((IincInsnNode) insn).incr));
+                spill(local);
+                addStmt(new Binary(local, new ArithmeticExp(
+                        ArithmeticExp.Op.ADD, local, increment)));
+            }
+            case Opcodes.I2L, Opcodes.F2L, Opcodes.D2L -> buildCast(i, LONG);
+            case Opcodes.I2F, Opcodes.L2F, Opcodes.D2F -> buildCast(i, FLOAT);
+            case Opcodes.I2D, Opcodes.L2D, Opcodes.F2D -> buildCast(i, DOUBLE);
+            case Opcodes.L2I, Opcodes.F2I, Opcodes.D2I -> buildCast(i, INT);
+            case Opcodes.I2B -> buildCast(i, BYTE);
+            case Opcodes.I2C -> buildCast(i, CHAR);
+            case Opcodes.I2S -> buildCast(i, SHORT);
+            case Opcodes.IFEQ, Opcodes.IFNE, Opcodes.IFLT, Opcodes.IFGE,
+                    Opcodes.IFGT, Opcodes.IFLE -> {
+                Var value = pop();
+                buildIf((JumpInsnNode) insn, value, getConstantVar(IntLiteral.get(0)));
+            }
+            case Opcodes.IFNULL, Opcodes.IFNONNULL -> {
+                Var value = pop();
+                buildIf((JumpInsnNode) insn, value, getConstantVar(NullLiteral.get()));
+            }
+            case Opcodes.IF_ICMPEQ, Opcodes.IF_ICMPNE, Opcodes.IF_ICMPLT,
+                    Opcodes.IF_ICMPGE, Opcodes.IF_ICMPGT, Opcodes.IF_ICMPLE,
+                    Opcodes.IF_ACMPEQ, Opcodes.IF_ACMPNE -> {
+                Var value2 = pop();
+                Var value1 = pop();
+                buildIf((JumpInsnNode) insn, value1, value2);
+            }
+            case Opcodes.GOTO -> {
+                JumpInsnNode jump = (JumpInsnNode) insn;
+                copyToJoinVars(jump.label);
+                Goto gotoStmt = new Goto();
+                jumpMap.put(gotoStmt, insn);
+                addStmt(gotoStmt);
+            }
+            case Opcodes.JSR, Opcodes.RET -> throw new AsmFrontendException(
+                    "JSR/RET is not supported, found in " + method);
+            case Opcodes.TABLESWITCH -> {
+                TableSwitchInsnNode tableSwitch = (TableSwitchInsnNode) insn;
+                Var key = pop();
+                tableSwitch.labels.forEach(this::copyToJoinVars);
+                copyToJoinVars(tableSwitch.dflt);
+                TableSwitch stmt = new TableSwitch(key, tableSwitch.min, tableSwitch.max);
+                jumpMap.put(stmt, insn);
+                addStmt(stmt);
+            }
+            case Opcodes.LOOKUPSWITCH -> {
+                LookupSwitchInsnNode lookupSwitch = (LookupSwitchInsnNode) insn;
+                Var key = pop();
+                lookupSwitch.labels.forEach(this::copyToJoinVars);
+                copyToJoinVars(lookupSwitch.dflt);
+                LookupSwitch stmt = new LookupSwitch(key, lookupSwitch.keys);
+                jumpMap.put(stmt, insn);
+                addStmt(stmt);
+            }
+            case Opcodes.IRETURN, Opcodes.LRETURN, Opcodes.FRETURN,
+                    Opcodes.DRETURN, Opcodes.ARETURN -> {
+                Var value = pop();
+                returnVars.add(value);
+                addStmt(new Return(value));
+            }
+            case Opcodes.RETURN -> addStmt(new Return());
+            case Opcodes.GETSTATIC -> {
+                FieldRef fieldRef = convertFieldRef((FieldInsnNode) insn, true);
+                produce(i, fieldRef.getType(), v -> new LoadField(v,
+                        new StaticFieldAccess(fieldRef)));
+            }
+            case Opcodes.PUTSTATIC -> {
+                FieldRef fieldRef = convertFieldRef((FieldInsnNode) insn, true);
+                addStmt(new StoreField(new StaticFieldAccess(fieldRef), pop()));
+            }
+            case Opcodes.GETFIELD -> {
+                FieldRef fieldRef = convertFieldRef((FieldInsnNode) insn, false);
+                FieldAccess access = new InstanceFieldAccess(fieldRef, pop());
+                produce(i, fieldRef.getType(), v -> new LoadField(v, access));
+            }
+            case Opcodes.PUTFIELD -> {
+                FieldRef fieldRef = convertFieldRef((FieldInsnNode) insn, false);
+                Var value = pop();
+                Var base = pop();
+                addStmt(new StoreField(new InstanceFieldAccess(fieldRef, base), value));
+            }
+            case Opcodes.INVOKEVIRTUAL, Opcodes.INVOKESPECIAL,
+                    Opcodes.INVOKESTATIC, Opcodes.INVOKEINTERFACE ->
+                    buildInvoke(i, getInvokeExp((MethodInsnNode) insn));
+            case Opcodes.INVOKEDYNAMIC ->
+                    buildInvoke(i, getInvokeDynamic((InvokeDynamicInsnNode) insn));
+            case Opcodes.NEW -> {
+                ClassType type = converter.convertClassType(((TypeInsnNode) insn).desc);
+                produce(i, type, v -> new New(method, v, new NewInstance(type)));
+            }
+            case Opcodes.NEWARRAY -> {
+                ArrayType type = (ArrayType) converter.convertType("[" +
+                        TypedInterpreter.getPrimitiveArrayElement(((IntInsnNode) insn).operand));
+                Var length = pop();
+                produce(i, type, v -> new New(method, v, new NewArray(type, length)));
+            }
+            case Opcodes.ANEWARRAY -> {
+                ArrayType type = (ArrayType) converter.convertType("[" +
+                        org.objectweb.asm.Type.getObjectType(((TypeInsnNode) insn).desc)
+                                .getDescriptor());
+                Var length = pop();
+                produce(i, type, v -> new New(method, v, new NewArray(type, length)));
+            }
+            case Opcodes.MULTIANEWARRAY -> {
+                MultiANewArrayInsnNode newArray = (MultiANewArrayInsnNode) insn;
+                ArrayType type = (ArrayType) converter.convertType(newArray.desc);
+                List<Var> lengths = pop(newArray.dims);
+                produce(i, type, v -> new New(method, v, new NewMultiArray(type, lengths)));
+            }
+            case Opcodes.ARRAYLENGTH -> {
+                Var array = pop();
+                produce(i, INT, v -> new Unary(v, new ArrayLengthExp(array)));
+            }
+            case Opcodes.ATHROW -> addStmt(new Throw(pop()));
+            case Opcodes.CHECKCAST -> {
+                Type type = converter.convertType(
+                        org.objectweb.asm.Type.getObjectType(((TypeInsnNode) insn).desc));
+                Var value = pop();
+                produce(i, type, v -> new Cast(v, new CastExp(value, type)));
+            }
+            case Opcodes.INSTANCEOF -> {
+                ReferenceType type = (ReferenceType) converter.convertType(
+                        org.objectweb.asm.Type.getObjectType(((TypeInsnNode) insn).desc));
+                Var value = pop();
+                produce(i, BOOLEAN, v -> new InstanceOf(v, new InstanceOfExp(value, type)));
+            }
+            case Opcodes.MONITORENTER -> addStmt(new Monitor(Monitor.Op.ENTER, pop()));
+            case Opcodes.MONITOREXIT -> addStmt(new Monitor(Monitor.Op.EXIT, pop()));
+            default -> throw new AsmFrontendException(
+                    "Cannot handle instruction with opcode " + opcode + " in " + method);
+        }
+    }
+
+    private void visitStackInsn(int opcode) {
+        switch (opcode) {
+            case Opcodes.DUP -> push(stack.get(stack.size() - 1));
+            case Opcodes.DUP_X1 -> {
+                Var v1 = pop();
+                Var v2 = pop();
+                pushAll(v1, v2, v1);
+            }
+            case Opcodes.DUP_X2 -> {
+                Var v1 = pop();
+                Var v2 = pop();
+                if (isCategory2(v2)) {
+                    pushAll(v1, v2, v1);
+                } else {
+                    Var v3 = pop();
+                    pushAll(v1, v3, v2, v1);
+                }
+            }
+            case Opcodes.DUP2 -> {
+                Var v1 = pop();
+                if (isCategory2(v1)) {
+                    pushAll(v1, v1);
+                } else {
+                    Var v2 = pop();
+                    pushAll(v2, v1, v2, v1);
+                }
+            }
+            case Opcodes.DUP2_X1 -> {
+                Var v1 = pop();
+                Var v2 = pop();
+                if (isCategory2(v1)) {
+                    pushAll(v1, v2, v1);
+                } else {
+                    Var v3 = pop();
+                    pushAll(v2, v1, v3, v2, v1);
+                }
+            }
+            case Opcodes.DUP2_X2 -> {
+                Var v1 = pop();
+                Var v2 = pop();
+                if (isCategory2(v1)) {
+                    if (isCategory2(v2)) {
+                        pushAll(v1, v2, v1);
+                    } else {
+                        Var v3 = pop();
+                        pushAll(v1, v3, v2, v1);
+                    }
+                } else {
+                    Var v3 = pop();
+                    if (isCategory2(v3)) {
+                        pushAll(v2, v1, v3, v2, v1);
+                    } else {
+                        Var v4 = pop();
+                        pushAll(v2, v1, v4, v3, v2, v1);
+                    }
+                }
+            }
+            case Opcodes.SWAP -> {
+                Var v1 = pop();
+                Var v2 = pop();
+                pushAll(v1, v2);
+            }
+            default -> throw new AsmFrontendException(
+                    "Expected stack instruction, given " + opcode);
+        }
+    }
+
+    private void pushAll(Var... vars) {
+        stack.addAll(Arrays.asList(vars));
+    }
+
+    private Type getElementType(int i, Var array) {
+        if (array.getType() instanceof ArrayType arrayType) {
+            return arrayType.elementType();
+        }
+        return switch (insns[i].getOpcode()) {
+            case Opcodes.IALOAD -> INT;
+            case Opcodes.LALOAD -> LONG;
+            case Opcodes.FALOAD -> FLOAT;
+            case Opcodes.DALOAD -> DOUBLE;
+            case Opcodes.BALOAD -> BYTE;
+            case Opcodes.CALOAD -> CHAR;
+            case Opcodes.SALOAD -> SHORT;
+            default -> {
+                // the type of array variable may be merged to Object,
+                // thus we use the type computed for current instruction
+                Frame<TypedValue> frame = frames[i];
+                yield convertType(TypedInterpreter.getElementType(
+                        frame.getStack(frame.getStackSize() - 2).type()));
+            }
+        };
+    }
+
+    private void buildBinary(int i, BinaryExp.Op op) {
+        Var v2 = pop();
+        Var v1 = pop();
+        BinaryExp binaryExp;
+        Type type;
+        if (op instanceof ArithmeticExp.Op arithmeticOp) {
+            binaryExp = new ArithmeticExp(arithmeticOp, v1, v2);
+            type = getOperandType(i);
+        } else if (op instanceof ComparisonExp.Op comparisonOp) {
+            binaryExp = new ComparisonExp(comparisonOp, v1, v2);
+            type = INT;
+        } else if (op instanceof BitwiseExp.Op bitwiseOp) {
+            binaryExp = new BitwiseExp(bitwiseOp, v1, v2);
+            type = getOperandType(i);
+        } else {
+            binaryExp = new ShiftExp((ShiftExp.Op) op, v1, v2);
+            type = getOperandType(i);
+        }
+        produce(i, type, v -> new Binary(v, binaryExp));
+    }
+
+    /**
+     * @return the type of the operands of arithmetic instruction at
+     * given index, which is given by the prefix of the instruction.
+     */
+    private PrimitiveType getOperandType(int i) {
+        // the opcodes of arithmetic instructions are ordered as
+        // IADD, LADD, FADD, DADD, ISUB, ..., and the shift and bitwise
+        // instructions are ordered as ISHL, LSHL, ISHR, ...
+        int opcode = insns[i].getOpcode();
+        if (opcode <= Opcodes.DNEG) {
+            return switch ((opcode - Opcodes.IADD) % 4) {
+                case 0 -> INT;
+                case 1 -> LONG;
+                case 2 -> FLOAT;
+                default -> DOUBLE;
+            };
+        }
+        return (opcode - Opcodes.ISHL) % 2 == 0 ? INT : LONG;
+    }
+
+    private void buildCast(int i, PrimitiveType type) {
+        Var value = pop();
+        produce(i, type, v -> new Cast(v, new CastExp(value, type)));
+    }
+
+    private void buildIf(JumpInsnNode jump, Var v1, Var v2) {
+        ConditionExp.Op op = switch (jump.getOpcode()) {
+            case Opcodes.IFEQ, Opcodes.IFNULL, Opcodes.IF_ICMPEQ,
+                    Opcodes.IF_ACMPEQ -> ConditionExp.Op.EQ;
+            case Opcodes.IFNE, Opcodes.IFNONNULL, Opcodes.IF_ICMPNE,
+                    Opcodes.IF_ACMPNE -> ConditionExp.Op.NE;
+            case Opcodes.IFLT, Opcodes.IF_ICMPLT -> ConditionExp.Op.LT;
+            case Opcodes.IFGE, Opcodes.IF_ICMPGE -> ConditionExp.Op.GE;
+            case Opcodes.IFGT, Opcodes.IF_ICMPGT -> ConditionExp.Op.GT;
+            default -> ConditionExp.Op.LE;
+        };
+        copyToJoinVars(jump.label);
+        If ifStmt = new If(new ConditionExp(op, v1, v2));
+        jumpMap.put(ifStmt, jump);
+        addStmt(ifStmt);
+    }
+
+    private FieldRef convertFieldRef(FieldInsnNode insn, boolean isStatic) {
+        return converter.convertFieldRef(insn.owner, insn.name, insn.desc, isStatic);
+    }
+
+    private void buildInvoke(int i, InvokeExp invokeExp) {
+        Type returnType = invokeExp.getType();
+        if (returnType.equals(VOID)) {
+            addStmt(new Invoke(method, invokeExp));
+            return;
+        }
+        int next = nextInsn(i);
+        if (next != -1 && (insns[next].getOpcode() == Opcodes.POP
+                || (insns[next].getOpcode() == Opcodes.POP2
+                && (returnType.equals(LONG) || returnType.equals(DOUBLE))))) {
+            // the result is unused
+            consumed = next;
+            addStmt(new Invoke(method, invokeExp));
+        } else {
+            produce(i, returnType, v -> new Invoke(method, invokeExp, v));
+        }
+    }
+
+    private InvokeExp getInvokeExp(MethodInsnNode insn) {
+        int opcode = insn.getOpcode();
+        MethodRef methodRef = converter.convertMethodRef(insn.owner, insn.name,
+                insn.desc, opcode == Opcodes.INVOKESTATIC);
+        List<Var> args = pop(methodRef.getParameterTypes().size());
+        return switch (opcode) {
+            case Opcodes.INVOKEVIRTUAL -> new InvokeVirtual(methodRef, pop(), args);
+            case Opcodes.INVOKEINTERFACE -> new InvokeInterface(methodRef, pop(), args);
+            case Opcodes.INVOKESPECIAL -> new InvokeSpecial(methodRef, pop(), args);
+            default -> new InvokeStatic(methodRef, args);
+        };
+    }
+
+    private InvokeDynamic getInvokeDynamic(InvokeDynamicInsnNode insn) {
+        Handle bsm = insn.bsm;
+        MethodRef bootstrapMethodRef = converter.convertMethodRef(
+                bsm.getOwner(), bsm.getName(), bsm.getDesc(), true);
+        List<Type> paramTypes = Arrays.stream(
+                        org.objectweb.asm.Type.getArgumentTypes(insn.desc))
+                .map(converter::convertType)
+                .toList();
+        Type returnType = converter.convertType(
+                org.objectweb.asm.Type.getReturnType(insn.desc));
+        MethodType methodType = MethodType.get(paramTypes, returnType);
+        List<Literal> bootstrapArgs = Lists.map(Arrays.asList(insn.bsmArgs),
+                this::convertConstant);
+        List<Var> args = pop(paramTypes.size());
+        return new InvokeDynamic(bootstrapMethodRef, insn.name, methodType,
+                bootstrapArgs, args);
+    }
+
+    /**
+     * Converts the constants of {@code LDC} and bootstrap arguments to Literals.
+     */
+    private Literal convertConstant(Object cst) {
+        if (cst instanceof Integer i) {
+            return IntLiteral.get(i);
+        } else if (cst instanceof Float f) {
+            return FloatLiteral.get(f);
+        } else if (cst instanceof Long l) {
+            return LongLiteral.get(l);
+        } else if (cst instanceof Double d) {
+            return DoubleLiteral.get(d);
+        } else if (cst instanceof String s) {
+            return StringLiteral.get(s);
+        } else if (cst instanceof org.objectweb.asm.Type t) {
+            if (t.getSort() == org.objectweb.asm.Type.METHOD) {
+                List<Type> paramTypes = Arrays.stream(t.getArgumentTypes())
+                        .map(converter::convertType)
+                        .toList();
+                return MethodType.get(paramTypes,
+                        converter.convertType(t.getReturnType()));
+            }
+            return ClassLiteral.get(converter.convertType(t));
+        } else if (cst instanceof Handle handle) {
+            return converter.convertHandle(handle);
+        } else if (cst instanceof ConstantDynamic) {
+            throw new AsmFrontendException(
+                    "Dynamic constant is not supported, found in " + method);
+        }
+        throw new AsmFrontendException("Cannot convert constant: " + cst);
+    }
+
+    private List<ExceptionEntry> buildExceptionEntries(MethodNode node) {
+        if (node.tryCatchBlocks.isEmpty()) {
+            return List.of();
+        }
+        List<ExceptionEntry> entries = new ArrayList<>(node.tryCatchBlocks.size());
+        for (TryCatchBlockNode tryCatch : node.tryCatchBlocks) {
+            int start = labelIndexes.get(tryCatch.start);
+            int end = labelIndexes.get(tryCatch.end);
+            if (start >= end // the try-block has no reachable code
+                    || frames[node.instructions.indexOf(tryCatch.handler)] == null) {
+                continue;
+            }
+            ClassType catchType = converter.convertClassType(tryCatch.type != null ?
+                    tryCatch.type : ClassNames.THROWABLE.replace('.', '/'));
+            entries.add(new ExceptionEntry(stmts.get(start), stmts.get(end),
+                    (Catch) stmts.get(labelIndexes.get(tryCatch.handler)),
+                    catchType));
+        }
+        return entries;
+    }
+
+    private void linkJumpTargets() {
+        jumpMap.forEach((stmt, insn) -> {
+            if (stmt instanceof Goto gotoStmt) {
+                gotoStmt.setTarget(getTarget(((JumpInsnNode) insn).label));
+            } else if (stmt instanceof If ifStmt) {
+                ifStmt.setTarget(getTarget(((JumpInsnNode) insn).label));
+            } else if (insn instanceof TableSwitchInsnNode tableSwitch) {
+                SwitchStmt switchStmt = (SwitchStmt) stmt;
+                switchStmt.setTargets(Lists.map(tableSwitch.labels, this::getTarget));
+                switchStmt.setDefaultTarget(getTarget(tableSwitch.dflt));
+            } else if (insn instanceof LookupSwitchInsnNode lookupSwitch) {
+                SwitchStmt switchStmt = (SwitchStmt) stmt;
+                switchStmt.setTargets(Lists.map(lookupSwitch.labels, this::getTarget));
+                switchStmt.setDefaultTarget(getTarget(lookupSwitch.dflt));
+            }
+        });
+    }
+
+    private Stmt getTarget(LabelNode label) {
+        return stmts.get(labelIndexes.get(label));
+    }
+}
@@ -19,17 +19,14 @@
  * You should have received a copy of the GNU Lesser General Public
  * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
  */
+package pascal.taie.frontend.asm;
 
-package pascal.taie.analysis.pta.toolkit.zipper3;
-
-import pascal.taie.analysis.graph.flowgraph.FlowEdge;
-import pascal.taie.analysis.graph.flowgraph.FlowKind;
-import pascal.taie.analysis.graph.flowgraph.Node;
-
-record WrappedFlowEdge(Node source, Node target) implements FlowEdge {
-
-    @Override
-    public FlowKind kind() {
-        return FlowKind.OTHER;
-    }
+/**
+ * Source of a method, from which its IR is built on demand.
+ *
+ * @param classBytes content of the class file that declares the method.
+ * @param name       name of the method.
+ * @param desc       descriptor of the method.
+ */
+record MethodSource(byte[] classBytes, String name, String desc) {
 }
@@ -0,0 +1,320 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.IntInsnNode;
+import org.objectweb.asm.tree.InvokeDynamicInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MultiANewArrayInsnNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.analysis.Interpreter;
+import org.objectweb.asm.tree.analysis.Value;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Computes the types of local variables and operand stack values at each
+ * instruction of a method, together with the definitions (i.e., store
+ * instructions and parameters) that reach the local variables.
+ * The former gives the types of the variables in Tai-e IR, and the
+ * latter is used to split the local variables of bytecode, which may be
+ * reused for different variables in the source code.
+ * <p>
+ * Types {@code boolean}, {@code byte}, {@code char} and {@code short} are
+ * represented by {@code int}, as in the operand stack of JVM, and the
+ * reference types are merged to {@code java.lang.Object} when they differ.
+ */
+class TypedInterpreter extends Interpreter<TypedInterpreter.TypedValue> {
+
+    /**
+     * Type of {@code null}, which is merged with any reference type.
+     */
+    static final Type NULL_TYPE = Type.getObjectType("null");
+
+    static final Type OBJECT_TYPE = Type.getObjectType("java/lang/Object");
+
+    private static final TypedValue UNINITIALIZED = new TypedValue(null, Set.of());
+
+    TypedInterpreter() {
+        super(Opcodes.ASM9);
+    }
+
+    @Override
+    public TypedValue newValue(Type type) {
+        if (type == null) {
+            return UNINITIALIZED;
+        }
+        return switch (type.getSort()) {
+            case Type.VOID -> null;
+            case Type.BOOLEAN, Type.CHAR, Type.BYTE, Type.SHORT, Type.INT ->
+                    TypedValue.of(Type.INT_TYPE);
+            default -> TypedValue.of(type);
+        };
+    }
+
+    @Override
+    public TypedValue newParameterValue(boolean isInstanceMethod, int local, Type type) {
+        TypedValue value = newValue(type);
+        return new TypedValue(value.type(), Set.of(new ParamDef(local)));
+    }
+
+    @Override
+    public TypedValue newOperation(AbstractInsnNode insn) {
+        return switch (insn.getOpcode()) {
+            case Opcodes.ACONST_NULL -> TypedValue.of(NULL_TYPE);
+            case Opcodes.ICONST_M1, Opcodes.ICONST_0, Opcodes.ICONST_1,
+                    Opcodes.ICONST_2, Opcodes.ICONST_3, Opcodes.ICONST_4,
+                    Opcodes.ICONST_5, Opcodes.BIPUSH, Opcodes.SIPUSH ->
+                    TypedValue.of(Type.INT_TYPE);
+            case Opcodes.LCONST_0, Opcodes.LCONST_1 -> TypedValue.of(Type.LONG_TYPE);
+            case Opcodes.FCONST_0, Opcodes.FCONST_1, Opcodes.FCONST_2 ->
+                    TypedValue.of(Type.FLOAT_TYPE);
+            case Opcodes.DCONST_0, Opcodes.DCONST_1 -> TypedValue.of(Type.DOUBLE_TYPE);
+            case Opcodes.LDC -> newValue(getConstantType(((LdcInsnNode) insn).cst));
+            case Opcodes.GETSTATIC -> newValue(Type.getType(((FieldInsnNode) insn).desc));
+            case Opcodes.NEW -> TypedValue.of(Type.getObjectType(((TypeInsnNode) insn).desc));
+            // JSR is not supported by Tai-e IR, and is rejected
+            // by the IR builder, thus its value does not matter
+            default -> UNINITIALIZED;
+        };
+    }
+
+    static Type getConstantType(Object cst) {
+        if (cst instanceof Integer) {
+            return Type.INT_TYPE;
+        } else if (cst instanceof Float) {
+            return Type.FLOAT_TYPE;
+        } else if (cst instanceof Long) {
+            return Type.LONG_TYPE;
+        } else if (cst instanceof Double) {
+            return Type.DOUBLE_TYPE;
+        } else if (cst instanceof String) {
+            return Type.getObjectType("java/lang/String");
+        } else if (cst instanceof Type type) {
+            return type.getSort() == Type.METHOD ?
+                    Type.getObjectType("java/lang/invoke/MethodType") :
+                    Type.getObjectType("java/lang/Class");
+        } else if (cst instanceof Handle) {
+            return Type.getObjectType("java/lang/invoke/MethodHandle");
+        } else if (cst instanceof ConstantDynamic condy) {
+            return Type.getType(condy.getDescriptor());
+        }
+        throw new AsmFrontendException("Unknown constant: " + cst);
+    }
+
+    @Override
+    public TypedValue copyOperation(AbstractInsnNode insn, TypedValue value) {
+        return switch (insn.getOpcode()) {
+            // stores define local variables
+            case Opcodes.ISTORE, Opcodes.LSTORE, Opcodes.FSTORE,
+                    Opcodes.DSTORE, Opcodes.ASTORE ->
+                    new TypedValue(value.type(), Set.of(insn));
+            default -> TypedValue.of(value.type());
+        };
+    }
+
+    @Override
+    public TypedValue unaryOperation(AbstractInsnNode insn, TypedValue value) {
+        return switch (insn.getOpcode()) {
+            case Opcodes.IINC -> new TypedValue(Type.INT_TYPE, Set.of(insn));
+            case Opcodes.INEG, Opcodes.L2I, Opcodes.F2I, Opcodes.D2I,
+                    Opcodes.I2B, Opcodes.I2C, Opcodes.I2S,
+                    Opcodes.ARRAYLENGTH, Opcodes.INSTANCEOF ->
+                    TypedValue.of(Type.INT_TYPE);
+            case Opcodes.LNEG, Opcodes.I2L, Opcodes.F2L, Opcodes.D2L ->
+                    TypedValue.of(Type.LONG_TYPE);
+            case Opcodes.FNEG, Opcodes.I2F, Opcodes.L2F, Opcodes.D2F ->
+                    TypedValue.of(Type.FLOAT_TYPE);
+            case Opcodes.DNEG, Opcodes.I2D, Opcodes.L2D, Opcodes.F2D ->
+                    TypedValue.of(Type.DOUBLE_TYPE);
+            case Opcodes.GETFIELD -> newValue(Type.getType(((FieldInsnNode) insn).desc));
+            case Opcodes.NEWARRAY -> TypedValue.of(Type.getType(
+                    "[" + getPrimitiveArrayElement(((IntInsnNode) insn).operand)));
+            case Opcodes.ANEWARRAY -> {
+                Type elem = Type.getObjectType(((TypeInsnNode) insn).desc);
+                yield TypedValue.of(Type.getType("[" + elem.getDescriptor()));
+            }
+            case Opcodes.CHECKCAST -> TypedValue.of(
+                    Type.getObjectType(((TypeInsnNode) insn).desc));
+            // the rest ones (e.g., IFEQ and PUTSTATIC) produce nothing
+            default -> null;
+        };
+    }
+
+    static String getPrimitiveArrayElement(int operand) {
+        return switch (operand) {
+            case Opcodes.T_BOOLEAN -> "Z";
+            case Opcodes.T_CHAR -> "C";
+            case Opcodes.T_BYTE -> "B";
+            case Opcodes.T_SHORT -> "S";
+            case Opcodes.T_INT -> "I";
+            case Opcodes.T_FLOAT -> "F";
+            case Opcodes.T_DOUBLE -> "D";
+            case Opcodes.T_LONG -> "J";
+            default -> throw new AsmFrontendException(
+                    "Invalid operand of NEWARRAY: " + operand);
+        };
+    }
+
+    @Override
+    public TypedValue binaryOperation(AbstractInsnNode insn,
+                                      TypedValue value1, TypedValue value2) {
+        return switch (insn.getOpcode()) {
+            case Opcodes.IALOAD, Opcodes.BALOAD, Opcodes.CALOAD, Opcodes.SALOAD,
+                    Opcodes.IADD, Opcodes.ISUB, Opcodes.IMUL, Opcodes.IDIV,
+                    Opcodes.IREM, Opcodes.ISHL, Opcodes.ISHR, Opcodes.IUSHR,
+                    Opcodes.IAND, Opcodes.IOR, Opcodes.IXOR,
+                    Opcodes.LCMP, Opcodes.FCMPL, Opcodes.FCMPG,
+                    Opcodes.DCMPL, Opcodes.DCMPG -> TypedValue.of(Type.INT_TYPE);
+            case Opcodes.LALOAD, Opcodes.LADD, Opcodes.LSUB, Opcodes.LMUL,
+                    Opcodes.LDIV, Opcodes.LREM, Opcodes.LSHL, Opcodes.LSHR,
+                    Opcodes.LUSHR, Opcodes.LAND, Opcodes.LOR, Opcodes.LXOR ->
+                    TypedValue.of(Type.LONG_TYPE);
+            case Opcodes.FALOAD, Opcodes.FADD, Opcodes.FSUB, Opcodes.FMUL,
+                    Opcodes.FDIV, Opcodes.FREM -> TypedValue.of(Type.FLOAT_TYPE);
+            case Opcodes.DALOAD, Opcodes.DADD, Opcodes.DSUB, Opcodes.DMUL,
+                    Opcodes.DDIV, Opcodes.DREM -> TypedValue.of(Type.DOUBLE_TYPE);
+            case Opcodes.AALOAD -> TypedValue.of(getElementType(value1.type()));
+            // the rest ones (e.g., IF_ICMPEQ and PUTFIELD) produce nothing
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the element type of given array type. If the array type
+     * is unknown (e.g., {@code null}), returns {@code java.lang.Object}.
+     */
+    static Type getElementType(Type arrayType) {
+        if (arrayType != null && arrayType.getSort() == Type.ARRAY) {
+            return Type.getType(arrayType.getDescriptor().substring(1));
+        }
+        return OBJECT_TYPE;
+    }
+
+    @Override
+    public TypedValue ternaryOperation(AbstractInsnNode insn, TypedValue value1,
+                                       TypedValue value2, TypedValue value3) {
+        return null;
+    }
+
+    @Override
+    public TypedValue naryOperation(AbstractInsnNode insn,
+                                    List<? extends TypedValue> values) {
+        return switch (insn.getOpcode()) {
+            case Opcodes.MULTIANEWARRAY -> TypedValue.of(
+                    Type.getType(((MultiANewArrayInsnNode) insn).desc));
+            case Opcodes.INVOKEDYNAMIC -> newValue(Type.getReturnType(
+                    ((InvokeDynamicInsnNode) insn).desc));
+            default -> newValue(Type.getReturnType(((MethodInsnNode) insn).desc));
+        };
+    }
+
+    @Override
+    public void returnOperation(AbstractInsnNode insn,
+                                TypedValue value, TypedValue expected) {
+    }
+
+    @Override
+    public TypedValue merge(TypedValue value1, TypedValue value2) {
+        if (value1.equals(value2)) {
+            return value1;
+        }
+        Type type = mergeTypes(value1.type(), value2.type());
+        if (type == null) {
+            return UNINITIALIZED;
+        }
+        Set<Object> defs = value1.defs();
+        if (!defs.containsAll(value2.defs())) {
+            defs = new HashSet<>(defs);
+            defs.addAll(value2.defs());
+        }
+        return new TypedValue(type, defs);
+    }
+
+    /**
+     * @return the merged type, or {@code null} if the two types
+     * cannot be merged (i.e., the value is unusable after merge).
+     */
+    static Type mergeTypes(Type t1, Type t2) {
+        if (Objects.equals(t1, t2)) {
+            return t1;
+        }
+        if (t1 == null || t2 == null) {
+            return null;
+        }
+        boolean isRef1 = isReference(t1);
+        boolean isRef2 = isReference(t2);
+        if (isRef1 && isRef2) {
+            if (t1.equals(NULL_TYPE)) {
+                return t2;
+            } else if (t2.equals(NULL_TYPE)) {
+                return t1;
+            } else {
+                return OBJECT_TYPE;
+            }
+        }
+        return null;
+    }
+
+    static boolean isReference(Type type) {
+        return type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY;
+    }
+
+    /**
+     * Definition of a parameter (including {@code this}) at given slot
+     * of local variables.
+     */
+    record ParamDef(int slot) {
+    }
+
+    /**
+     * Value of a local variable or an operand stack value.
+     *
+     * @param type the type of the value, or {@code null} if the value
+     *             is uninitialized.
+     * @param defs the definitions of the value, i.e., the store (or
+     *             {@code IINC}) instructions and the {@link ParamDef}s.
+     *             This is only maintained for the local variables.
+     */
+    record TypedValue(Type type, Set<Object> defs) implements Value {
+
+        private static TypedValue of(Type type) {
+            return new TypedValue(type, Set.of());
+        }
+
+        @Override
+        public int getSize() {
+            return type == null ? 1 : type.getSize();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+package pascal.taie.frontend.asm;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.IincInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.LocalVariableNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.objectweb.asm.tree.analysis.Frame;
+import pascal.taie.frontend.asm.TypedInterpreter.ParamDef;
+import pascal.taie.frontend.asm.TypedInterpreter.TypedValue;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.NullLiteral;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static pascal.taie.language.type.DoubleType.DOUBLE;
+import static pascal.taie.language.type.IntType.INT;
+import static pascal.taie.language.type.LongType.LONG;
+
+/**
+ * Creates the variables of a method from its bytecode.
+ * <p>
+ * A local variable slot of bytecode may be reused for different variables
+ * in the source code, thus the definitions of each slot (i.e., stores,
+ * {@code IINC} and parameters) are grouped into webs by the uses they
+ * reach, and each web becomes a {@link Var}. The names and types of
+ * the variables are taken from the local variable table if it is present,
+ * otherwise, the types are computed from the values defining the webs.
+ */
+class VarManager {
+
+    private static final String THIS = "%this";
+
+    private static final String PARAM = "%param";
+
+    private static final String LOCAL = "%local";
+
+    private static final String TEMP = "%temp";
+
+    private static final String STRING_CONSTANT = "%stringconst";
+
+    private static final String CLASS_CONSTANT = "%classconst";
+
+    private static final String NULL_CONSTANT = "%nullconst";
+
+    /**
+     * The method which contains the variable managed by this VarManager.
+     */
+    private final JMethod method;
+
+    private final Converter converter;
+
+    private final InsnList insns;
+
+    private final Frame<TypedValue>[] frames;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private Var thisVar;
+
+    private final List<Var> params = new ArrayList<>();
+
+    /**
+     * Index of load, store or IINC instruction -> the variable it accesses.
+     */
+    private final Map<Integer, Var> insnVars = Maps.newMap();
+
+    private final Map<Literal, Var> constantVars = Maps.newHybridMap();
+
+    private final Set<String> names = Sets.newSet();
+
+    /**
+     * Counter for indexing all variables.
+     */
+    private int varCounter = 0;
+
+    /**
+     * Counter for naming temporary variables.
+     */
+    private int tempCounter = 0;
+
+    /**
+     * Counter for naming temporary constant variables.
+     */
+    private int tempConstCounter = 0;
+
+    VarManager(JMethod method, Converter converter,
+               MethodNode node, Frame<TypedValue>[] frames) {
+        this.method = method;
+        this.converter = converter;
+        this.insns = node.instructions;
+        this.frames = frames;
+        buildVars(node);
+    }
+
+    private void buildVars(MethodNode node) {
+        // group definitions into webs by union-find
+        Map<Object, Object> parents = Maps.newMap();
+        List<Object> defs = new ArrayList<>();
+        int[] paramSlots = new int[method.getParamCount()];
+        int slot = 0;
+        if (!method.isStatic()) {
+            defs.add(new ParamDef(slot++));
+        }
+        for (int i = 0; i < paramSlots.length; ++i) {
+            paramSlots[i] = slot;
+            defs.add(new ParamDef(slot));
+            Type type = method.getParamType(i);
+            slot += type.equals(LONG) || type.equals(DOUBLE) ? 2 : 1;
+        }
+        defs.forEach(def -> parents.put(def, def));
+        Map<Integer, Object> insnDefs = Maps.newMap();
+        for (int i = 0; i < frames.length; ++i) {
+            Frame<TypedValue> frame = frames[i];
+            if (frame == null) { // unreachable
+                continue;
+            }
+            AbstractInsnNode insn = insns.get(i);
+            int opcode = insn.getOpcode();
+            if (opcode >= Opcodes.ISTORE && opcode <= Opcodes.ASTORE) {
+                // the store may have been reached by a use in a loop
+                parents.putIfAbsent(insn, insn);
+                defs.add(insn);
+                insnDefs.put(i, insn);
+            } else if ((opcode >= Opcodes.ILOAD && opcode <= Opcodes.ALOAD)
+                    || opcode == Opcodes.IINC) {
+                int var = opcode == Opcodes.IINC ?
+                        ((IincInsnNode) insn).var : ((VarInsnNode) insn).var;
+                Set<Object> reachingDefs = frame.getLocal(var).defs();
+                if (reachingDefs.isEmpty()) {
+                    throw new AsmFrontendException("Local variable " + var +
+                            " is used before definition in " + method);
+                }
+                Object use = reachingDefs.iterator().next();
+                if (opcode == Opcodes.IINC) {
+                    parents.putIfAbsent(insn, insn);
+                    defs.add(insn);
+                    union(parents, use, insn);
+                }
+                reachingDefs.forEach(def -> union(parents, use, def));
+                insnDefs.put(i, use);
+            }
+        }
+        // collect the definitions of each web
+        Map<Object, List<Object>> webs = Maps.newLinkedHashMap();
+        defs.forEach(def -> webs.computeIfAbsent(find(parents, def),
+                __ -> new ArrayList<>()).add(def));
+        // create variables, the webs of this variable and parameters
+        // are created at first, as they are added first to defs
+        Map<Object, Var> webVars = Maps.newMap();
+        int paramIndex = 0;
+        for (List<Object> web : webs.values()) {
+            Object first = web.get(0);
+            Var var;
+            if (first instanceof ParamDef paramDef) {
+                if (!method.isStatic() && paramDef.slot() == 0) {
+                    var = newVar(THIS, method.getDeclaringClass().getType());
+                    thisVar = var;
+                } else {
+                    // parameters are in order of their slots
+                    while (paramSlots[paramIndex] != paramDef.slot()) {
+                        ++paramIndex;
+                    }
+                    String name = method.getParamName(paramIndex);
+                    if (name == null) {
+                        LocalVariableNode local = findLocal(node, paramDef.slot(), web);
+                        name = local != null ? local.name : PARAM + paramIndex;
+                    }
+                    var = newVar(name, method.getParamType(paramIndex));
+                    params.add(var);
+                }
+            } else {
+                int varSlot = getSlot(first);
+                LocalVariableNode local = findLocal(node, varSlot, web);
+                if (local != null) {
+                    var = newVar(local.name, converter.convertType(local.desc));
+                } else {
+                    var = newVar(LOCAL + varSlot, computeType(web));
+                }
+            }
+            webVars.put(find(parents, first), var);
+        }
+        insnDefs.forEach((i, def) ->
+                insnVars.put(i, webVars.get(find(parents, def))));
+    }
+
+    private static Object find(Map<Object, Object> parents, Object x) {
+        // definitions after their uses (e.g., in loops) are added on demand
+        Object parent = parents.computeIfAbsent(x, def -> def);
+        while (parent != x) {
+            Object grandparent = parents.get(parent);
+            parents.put(x, grandparent);
+            x = parent;
+            parent = grandparent;
+        }
+        return x;
+    }
+
+    private static void union(Map<Object, Object> parents, Object x, Object y) {
+        Object rx = find(parents, x);
+        Object ry = find(parents, y);
+        if (rx != ry) {
+            parents.put(ry, rx);
+        }
+    }
+
+    private static int getSlot(Object def) {
+        if (def instanceof ParamDef paramDef) {
+            return paramDef.slot();
+        } else if (def instanceof IincInsnNode iinc) {
+            return iinc.var;
+        } else {
+            return ((VarInsnNode) def).var;
+        }
+    }
+
+    /**
+     * Finds the entry of local variable table that covers given web.
+     * The scope of a variable begins after its first store, thus the
+     * instructions following the definitions are checked.
+     */
+    @Nullable
+    private LocalVariableNode findLocal(MethodNode node, int slot, List<Object> web) {
+        if (node.localVariables == null) {
+            return null;
+        }
+        for (LocalVariableNode local : node.localVariables) {
+            if (local.index != slot) {
+                continue;
+            }
+            int start = insns.indexOf(local.start);
+            int end = insns.indexOf(local.end);
+            for (Object def : web) {
+                int point = def instanceof ParamDef ? 0 : insns.indexOf((AbstractInsnNode) def) + 1;
+                if (start <= point && point < end) {
+                    return local;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Computes the type of the variable for given web, i.e., the least
+     * upper bound of the types of values defining the web.
+     */
+    private Type computeType(List<Object> web) {
+        Type result = null;
+        for (Object def : web) {
+            Type type;
+            if (def instanceof IincInsnNode) {
+                type = INT;
+            } else {
+                Frame<TypedValue> frame = frames[insns.indexOf((AbstractInsnNode) def)];
+                org.objectweb.asm.Type t = frame.getStack(frame.getStackSize() - 1).type();
+                if (t == null || t.equals(TypedInterpreter.NULL_TYPE)) {
+                    continue;
+                }
+                type = converter.convertType(t);
+            }
+            result = result == null ? type : lub(result, type);
+        }
+        return result != null ? result :
+                converter.getTypeSystem().getClassType(ClassNames.OBJECT);
+    }
+
+    private Type lub(Type t1, Type t2) {
+        TypeSystem typeSystem = converter.getTypeSystem();
+        if (typeSystem.isSubtype(t1, t2)) {
+            return t1;
+        } else if (typeSystem.isSubtype(t2, t1)) {
+            return t2;
+        } else if (t1 instanceof ReferenceType && t2 instanceof ReferenceType) {
+            if (t1 instanceof ClassType c1) {
+                for (JClass c = c1.getJClass(); c != null; c = c.getSuperClass()) {
+                    if (typeSystem.isSubtype(c.getType(), t2)) {
+                        return c.getType();
+                    }
+                }
+            }
+            return typeSystem.getClassType(ClassNames.OBJECT);
+        }
+        return t1;
+    }
+
+    /**
+     * @return the variable accessed by the load, store or {@code IINC}
+     * instruction at given index.
+     */
+    Var getVar(int insnIndex) {
+        return Objects.requireNonNull(insnVars.get(insnIndex));
+    }
+
+    Var newTempVar(Type type) {
+        return newVar(TEMP + tempCounter++, type);
+    }
+
+    /**
+     * @return the temporary variable that holds given literal value.
+     * Each method has one such variable for each literal.
+     */
+    Var getConstantVar(Literal literal) {
+        return constantVars.computeIfAbsent(literal, l -> {
+            String varName;
+            if (l instanceof StringLiteral) {
+                varName = STRING_CONSTANT + tempConstCounter++;
+            } else if (l instanceof ClassLiteral) {
+                varName = CLASS_CONSTANT + tempConstCounter++;
+            } else if (l instanceof NullLiteral) {
+                varName = NULL_CONSTANT;
+            } else {
+                varName = "%" + l.getType().getName() +
+                        "const" + tempConstCounter++;
+            }
+            return newVar(varName, l.getType(), l);
+        });
+    }
+
+    Var getThis() {
+        return thisVar;
+    }
+
+    List<Var> getParams() {
+        return params;
+    }
+
+    List<Var> getVars() {
+        return vars;
+    }
+
+    private Var newVar(String name, Type type) {
+        return newVar(name, type, null);
+    }
+
+    private Var newVar(String name, Type type, @Nullable Literal literal) {
+        // the variables split from the same local variable are distinguished
+        // by suffixes, as in Soot
+        String uniqueName = name;
+        for (int i = 1; !names.add(uniqueName); ++i) {
+            uniqueName = name + "#" + i;
+        }
+        Var var = new Var(method, uniqueName, type, varCounter++, literal);
+        vars.add(var);
+        return var;
+    }
+}
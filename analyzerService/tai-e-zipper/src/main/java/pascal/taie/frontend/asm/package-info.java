@@ -21,6 +21,8 @@
  */
 
 /**
- * TODO: We'll add another frontend implemented based on ASM
+ * A frontend based on ASM, which builds the world from class files
+ * (source files are not supported) and creates IR from bytecode.
+ * Select it by {@code --world-builder pascal.taie.frontend.asm.AsmWorldBuilder}.
  */
 package pascal.taie.frontend.asm;
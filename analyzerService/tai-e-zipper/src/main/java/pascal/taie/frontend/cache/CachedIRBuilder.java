@@ -0,0 +1,75 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRBuilder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+/**
+ * An {@link IRBuilder} that holds the IR of all concrete methods
+ * in the world, so that the IR can be saved to (and loaded from)
+ * the world cache together with the other parts of the world.
+ */
+public class CachedIRBuilder implements IRBuilder {
+
+    /**
+     * Method signature -> IR of the method.
+     */
+    private final Map<String, IR> methodSig2IR;
+
+    /**
+     * Builds the IR of all methods in {@code hierarchy} by
+     * {@code irBuilder} and keeps them.
+     */
+    public CachedIRBuilder(IRBuilder irBuilder, ClassHierarchy hierarchy) {
+        irBuilder.buildAll(hierarchy);
+        methodSig2IR = Maps.newMap();
+        hierarchy.allClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .forEach(m -> methodSig2IR.put(m.getSignature(), m.getIR()));
+    }
+
+    @Override
+    public IR buildIR(JMethod method) {
+        IR ir = methodSig2IR.get(method.getSignature());
+        if (ir == null) {
+            throw new IllegalStateException(
+                    "IR of " + method + " is not in the world cache");
+        }
+        return ir;
+    }
+
+    /**
+     * IR of all methods have been built when creating this builder,
+     * thus this method does nothing.
+     */
+    @Override
+    public void buildAll(ClassHierarchy hierarchy) {
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.AbstractWorldBuilder;
+import pascal.taie.World;
+import pascal.taie.WorldBuilder;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Options;
+import pascal.taie.util.Timer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A {@link WorldBuilder} which saves the world built by another builder
+ * to the disk, and loads it from the disk in subsequent runs instead of
+ * building it again.
+ * <p>
+ * The cache files are keyed by a fingerprint of the inputs of the world,
+ * i.e., the class paths (including the JRE), the Java version and the
+ * options which affect the world. A cache file consists of a header
+ * (magic number, format version and the full fingerprint, which is checked
+ * before loading the world), followed by the serialized world. The world
+ * is serialized by a stream that writes each class descriptor as just its
+ * class name, instead of its complete field layout, since the cache is
+ * read by the same version of Tai-e as the one that wrote it
+ * (this is ensured by the fingerprint).
+ */
+public class CachedWorldBuilder implements WorldBuilder {
+
+    private static final Logger logger = LogManager.getLogger(CachedWorldBuilder.class);
+
+    /**
+     * Magic number of the world cache files, i.e., "TAIW".
+     */
+    private static final int MAGIC = 0x54414957;
+
+    /**
+     * Version of the format of the cache files. Increase it when
+     * the format changes, so that the stale caches are rebuilt.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WorldBuilder delegate;
+
+    public CachedWorldBuilder(WorldBuilder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void build(Options options, List<AnalysisConfig> analyses) {
+        File cacheFile = getWorldCacheFile(options);
+        String fingerprint = getFingerprint(options, analyses);
+        if (loadCache(options, cacheFile, fingerprint)) {
+            return;
+        }
+        delegate.build(options, analyses);
+        saveCache(cacheFile, fingerprint);
+    }
+
+    /**
+     * @return the cache file of the world built with {@code options}.
+     */
+    public static File getWorldCacheFile(Options options) {
+        String hash = getWorldFingerprint(options).substring(0, 16);
+        return new File(options.getCacheDir(), "world-" + hash + ".bin");
+    }
+
+    /**
+     * @return the fingerprint of the inputs of the world built with
+     * {@code options}, which identifies the analyzed program.
+     */
+    public static String getWorldFingerprint(Options options) {
+        return getFingerprint(options, List.of());
+    }
+
+    private static boolean loadCache(Options options, File cacheFile,
+                                     String fingerprint) {
+        if (!cacheFile.exists()) {
+            logger.info("World cache {} does not exist, building the world",
+                    cacheFile);
+            return false;
+        }
+        Timer timer = new Timer("Load world cache");
+        timer.start();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(cacheFile.toPath()), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC
+                    || in.readInt() != FORMAT_VERSION
+                    || !in.readUTF().equals(fingerprint)) {
+                logger.info("World cache {} is stale, building the world",
+                        cacheFile);
+                return false;
+            }
+            World.reset();
+            World world = (World) new WorldInputStream(in).readObject();
+            world.setOptions(options);
+            World.set(world);
+            timer.stop();
+            logger.info(timer);
+            return true;
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            logger.warn("Failed to load world cache {} due to {}, building the world",
+                    cacheFile, e.toString());
+            return false;
+        }
+    }
+
+    private static void saveCache(File cacheFile, String fingerprint) {
+        Timer timer = new Timer("Save world cache");
+        timer.start();
+        try {
+            Path dir = Files.createDirectories(cacheFile.getAbsoluteFile().toPath().getParent());
+            // write to a temporary file and then move it to the cache file,
+            // so that other runs never read a partially written cache
+            Path tmp = Files.createTempFile(dir, cacheFile.getName(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(tmp), BUFFER_SIZE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(fingerprint);
+                ObjectOutputStream oos = new WorldOutputStream(out);
+                oos.writeObject(World.get());
+                oos.flush();
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            Files.move(tmp, cacheFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            timer.stop();
+            logger.info("{}, cache file: {} ({} KB)", timer, cacheFile,
+                    cacheFile.length() / 1024);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to save world cache {} due to {}",
+                    cacheFile, e.toString());
+        }
+    }
+
+    /**
+     * Computes the fingerprint of the inputs of the world, which consists of
+     * the contents of the class paths and the options that affect the world.
+     * The class path entries are identified by their paths, sizes and
+     * modification times, so that computing the fingerprint does not
+     * need to read the (possibly large) class files or JARs.
+     *
+     * @return SHA-256 of the inputs in hexadecimal.
+     */
+    private static String getFingerprint(Options options, List<AnalysisConfig> analyses) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        Fingerprint fp = new Fingerprint(digest);
+        fp.add("format", FORMAT_VERSION);
+        // the world is written by the Java serialization of Tai-e's classes,
+        // hence it is only readable by the same build of Tai-e
+        fp.addCodeSource(World.class);
+        fp.add("java", options.getJavaVersion());
+        fp.add("prependJVM", options.isPrependJVM());
+        if (options.isPrependJVM()) {
+            fp.add("jvm", System.getProperty("java.home"));
+            fp.add("jvm-version", System.getProperty("java.version"));
+        } else {
+            fp.addPath(Path.of(AbstractWorldBuilder.JREs,
+                    "jre1." + options.getJavaVersion()));
+        }
+        options.getClassPath().forEach(p -> fp.addPath(Path.of(p)));
+        options.getAppClassPath().forEach(p -> fp.addPath(Path.of(p)));
+        fp.add("main", options.getMainClass());
+        options.getInputClasses().forEach(c -> {
+            fp.add("input", c);
+            if (c.endsWith(".txt")) {
+                fp.addPath(Path.of(c));
+            }
+        });
+        new TreeMap<>(options.getInMemoryClasses()).forEach((name, bytes) -> {
+            fp.add("class", name);
+            digest.update(bytes);
+        });
+        fp.add("allowPhantom", options.isAllowPhantom());
+        fp.add("nativeModel", options.enableNativeModel());
+        fp.add("builder", options.getWorldBuilderClass().getName());
+        // the world builder loads the classes in the reflection log of
+        // pointer analysis (see SootWorldBuilder.addReflectionLogClasses())
+        analyses.forEach(config -> {
+            if (config.getId().equals(PointerAnalysis.ID)) {
+                String log = config.getOptions().getString("reflection-log");
+                if (log != null) {
+                    fp.addPath(Path.of(log));
+                }
+            }
+        });
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Feeds the inputs of the world to a message digest.
+     */
+    private record Fingerprint(MessageDigest digest) {
+
+        private void add(String key, Object value) {
+            digest.update((key + '=' + value + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void addPath(Path path) {
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> paths = Files.walk(path)) {
+                    paths.filter(Files::isRegularFile)
+                            .sorted()
+                            .forEach(this::addFile);
+                } catch (IOException e) {
+                    add("error", path);
+                }
+            } else {
+                addFile(path);
+            }
+        }
+
+        private void addFile(Path file) {
+            File f = file.toFile();
+            add("file", file + ":" + f.length() + ":" + f.lastModified());
+        }
+
+        private void addCodeSource(Class<?> c) {
+            try {
+                addPath(Path.of(c.getProtectionDomain()
+                        .getCodeSource().getLocation().toURI()));
+            } catch (Exception e) {
+                add("code", c.getName());
+            }
+        }
+    }
+
+    /**
+     * Writes each class descriptor as its class name.
+     */
+    private static class WorldOutputStream extends ObjectOutputStream {
+
+        private WorldOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void writeClassDescriptor(ObjectStreamClass desc)
+                throws IOException {
+            writeUTF(desc.getName());
+        }
+    }
+
+    /**
+     * Reads the class descriptors written by {@link WorldOutputStream},
+     * and resolves the classes by the class loader of Tai-e.
+     */
+    private static class WorldInputStream extends ObjectInputStream {
+
+        private static final ClassLoader LOADER = WorldInputStream.class.getClassLoader();
+
+        private WorldInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor()
+                throws IOException, ClassNotFoundException {
+            return ObjectStreamClass.lookupAny(resolve(readUTF()));
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException {
+            return resolve(desc.getName());
+        }
+
+        private static Class<?> resolve(String name) throws ClassNotFoundException {
+            return Class.forName(name, false, LOADER);
+        }
+    }
+}
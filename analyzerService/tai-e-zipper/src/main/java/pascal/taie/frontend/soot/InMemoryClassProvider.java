@@ -0,0 +1,101 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.soot;
+
+import soot.ClassProvider;
+import soot.ClassSource;
+import soot.IFoundFile;
+import soot.asm.AsmClassSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+/**
+ * Provides Soot with the classes kept in memory, so that the classes
+ * can be analyzed without being written to the class path.
+ */
+class InMemoryClassProvider implements ClassProvider {
+
+    /**
+     * Maps class names to class file contents.
+     */
+    private final Map<String, byte[]> classes;
+
+    InMemoryClassProvider(Map<String, byte[]> classes) {
+        this.classes = classes;
+    }
+
+    @Override
+    public ClassSource find(String className) {
+        byte[] content = classes.get(className);
+        if (content == null) {
+            return null;
+        }
+        return new AsmClassSource(className, new InMemoryFile(className, content)) {
+        };
+    }
+
+    /**
+     * A class file which resides in memory.
+     */
+    private record InMemoryFile(String className, byte[] content)
+            implements IFoundFile {
+
+        @Override
+        public String getFilePath() {
+            return "memory:" + className;
+        }
+
+        @Override
+        public boolean isZipFile() {
+            return false;
+        }
+
+        @Override
+        public ZipFile getZipFile() {
+            return null;
+        }
+
+        @Override
+        public File getFile() {
+            return null;
+        }
+
+        @Override
+        public String getAbsolutePath() {
+            return getFilePath();
+        }
+
+        @Override
+        public InputStream inputStream() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -22,32 +22,30 @@
 
 package pascal.taie.frontend.soot;
 
-import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.AbstractWorldBuilder;
 import pascal.taie.World;
-import pascal.taie.analysis.pta.PointerAnalysis;
-import pascal.taie.analysis.pta.plugin.reflection.LogItem;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.Options;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.ClassHierarchyImpl;
-import pascal.taie.language.classes.StringReps;
 import pascal.taie.language.type.TypeSystem;
 import pascal.taie.language.type.TypeSystemImpl;
+import soot.ClassProvider;
 import soot.G;
+import soot.JavaClassProvider;
+import soot.JimpleClassProvider;
 import soot.PackManager;
 import soot.Scene;
 import soot.SceneTransformer;
 import soot.SootResolver;
+import soot.SourceLocator;
 import soot.Transform;
+import soot.asm.AsmClassProvider;
+import soot.asm.AsmJava9ClassProvider;
 
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -60,11 +58,11 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
 
     private static final Logger logger = LogManager.getLogger(SootWorldBuilder.class);
 
-    /**
-     * Path to the file which specifies the basic classes that should be
-     * added to Scene in advance.
-     */
-    private static final String BASIC_CLASSES = "basic-classes.yml";
+    static {
+        // Soot keeps its states in a global G instance, which is replaced
+        // by a per-session one for the threads in analysis sessions
+        G.setGlobalObjectGetter(new SessionObjectGetter());
+    }
 
     @Override
     public void build(Options options, List<AnalysisConfig> analyses) {
@@ -109,6 +107,11 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
         if (options.isAllowPhantom()) {
             soot.options.Options.v().set_allow_phantom_refs(true);
         }
+        if (World.getSession() != null) {
+            // the threads started by Soot do not belong to the session,
+            // thus they would see the global G instead of the session's
+            soot.options.Options.v().set_num_threads(1);
+        }
         if (options.isPreBuildIR()) {
             // we need to set this option to false when pre-building IRs,
             // otherwise Soot throws RuntimeException saying
@@ -117,6 +120,10 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
             soot.options.Options.v().set_drop_bodies_after_load(false);
         }
 
+        if (!options.getInMemoryClasses().isEmpty()) {
+            setInMemoryClassProvider(options);
+        }
+
         Scene scene = G.v().soot_Scene();
         addBasicClasses(scene);
         addReflectionLogClasses(analyses, scene);
@@ -135,22 +142,29 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
     }
 
     /**
-     * Reads basic classes specified by file {@link #BASIC_CLASSES} and
-     * adds them to {@code scene}.
+     * Lets Soot look up the in-memory classes given in {@code options}
+     * before the class path. Setting class providers overrides the default
+     * ones of Soot, thus we also add the default providers for reading
+     * class files (Tai-e uses Soot's default source precedence).
      */
-    private static void addBasicClasses(Scene scene) {
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
-        JavaType type = mapper.getTypeFactory()
-                .constructCollectionType(List.class, String.class);
-        try {
-            InputStream content = SootWorldBuilder.class
-                    .getClassLoader()
-                    .getResourceAsStream(BASIC_CLASSES);
-            List<String> classNames = mapper.readValue(content, type);
-            classNames.forEach(name -> scene.addBasicClass(name, HIERARCHY));
-        } catch (IOException e) {
-            throw new SootFrontendException("Failed to read Soot basic classes", e);
+    private static void setInMemoryClassProvider(Options options) {
+        List<ClassProvider> providers = new ArrayList<>();
+        providers.add(new InMemoryClassProvider(options.getInMemoryClasses()));
+        if (options.isPrependJVM() &&
+                Scene.isJavaGEQ9(System.getProperty("java.version"))) {
+            providers.add(new AsmJava9ClassProvider());
         }
+        providers.add(new AsmClassProvider());
+        providers.add(new JimpleClassProvider());
+        providers.add(new JavaClassProvider());
+        SourceLocator.v().setClassProviders(providers);
+    }
+
+    /**
+     * Adds the basic classes (see {@link #getBasicClasses()}) to {@code scene}.
+     */
+    private static void addBasicClasses(Scene scene) {
+        getBasicClasses().forEach(name -> scene.addBasicClass(name, HIERARCHY));
     }
 
     /**
@@ -167,27 +181,7 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
      * @param scene    the Soot's scene
      */
     private static void addReflectionLogClasses(List<AnalysisConfig> analyses, Scene scene) {
-        analyses.forEach(config -> {
-            if (config.getId().equals(PointerAnalysis.ID)) {
-                String path = config.getOptions().getString("reflection-log");
-                if (path != null) {
-                    LogItem.load(path).forEach(item -> {
-                        // add target class
-                        String target = item.target;
-                        String targetClass;
-                        if (target.startsWith("<")) {
-                            targetClass = StringReps.getClassNameOf(target);
-                        } else {
-                            targetClass = target;
-                        }
-                        if (StringReps.isArrayType(targetClass)) {
-                            targetClass = StringReps.getBaseTypeNameOf(target);
-                        }
-                        scene.addBasicClass(targetClass);
-                    });
-                }
-            }
-        });
+        getReflectionLogClasses(analyses).forEach(scene::addBasicClass);
     }
 
     private void build(Options options, Scene scene) {
@@ -248,6 +242,33 @@ public class SootWorldBuilder extends AbstractWorldBuilder {
                 hierarchy.getDefaultClassLoader().loadClass(c.getName()));
     }
 
+    /**
+     * Provides the global G of Soot to the threads outside sessions,
+     * and the G of current session to the threads in a session.
+     *
+     * @see World#runInSession(Runnable, int)
+     */
+    private static class SessionObjectGetter implements G.GlobalObjectGetter {
+
+        private G global = new G();
+
+        @Override
+        public G getG() {
+            World.Session session = World.getSession();
+            return session != null ? session.getLocal(G.class, G::new) : global;
+        }
+
+        @Override
+        public void reset() {
+            World.Session session = World.getSession();
+            if (session != null) {
+                session.setLocal(G.class, new G());
+            } else {
+                global = new G();
+            }
+        }
+    }
+
     private static void runSoot(String[] args) {
         try {
             soot.Main.v().run(args);
@@ -0,0 +1,188 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.ir;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.Timer;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds IR of methods in parallel on fork-join pools.
+ * <p>
+ * The costs of building IR vary greatly among methods, thus the methods
+ * are not divided among the threads in advance; instead, the work is
+ * split into per-class tasks, and the idle threads steal the tasks of
+ * busy ones. The tasks run in the pool of current thread if it is
+ * a fork-join worker thread (e.g., a thread of a session, which sees
+ * the world of the session), otherwise in the common pool.
+ */
+public final class IRPrebuilder {
+
+    private static final Logger logger = LogManager.getLogger(IRPrebuilder.class);
+
+    /**
+     * Number of progress reports during building IR for all methods.
+     */
+    private static final int PROGRESS_STEPS = 10;
+
+    private IRPrebuilder() {
+    }
+
+    /**
+     * Builds IR for all methods in given class hierarchy.
+     */
+    public static void buildAll(ClassHierarchy hierarchy) {
+        Timer timer = new Timer("Build IR for all methods");
+        timer.start();
+        List<JClass> classes = hierarchy.allClasses().toList();
+        Progress progress = new Progress(classes.stream()
+                .mapToInt(c -> (int) c.getDeclaredMethods()
+                        .stream()
+                        .filter(IRPrebuilder::hasBody)
+                        .count())
+                .sum());
+        BuildClasses task = new BuildClasses(classes, 0, classes.size(), progress);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+        timer.stop();
+        logger.info("Built IR for {} methods of {} classes, {} statements in total," +
+                        " the slowest method is {} ({} ms)",
+                progress.built.get(), classes.size(), progress.stmts.sum(),
+                progress.slowestMethod, progress.slowestTime.get() / 1_000_000);
+        logger.info(timer);
+    }
+
+    /**
+     * Starts building IR of given methods in background, and returns
+     * immediately. The IR of a method is still built on demand
+     * if it is requested before its background task finishes.
+     * <p>
+     * Failures of the background tasks are ignored, as they are reported
+     * again when the IR is requested.
+     */
+    public static void prefetch(Collection<JMethod> methods) {
+        for (JMethod method : methods) {
+            if (hasBody(method)) {
+                ForkJoinTask<?> task = ForkJoinTask.adapt(method::getIR);
+                if (ForkJoinTask.inForkJoinPool()) {
+                    task.fork();
+                } else {
+                    ForkJoinPool.commonPool().execute(task);
+                }
+            }
+        }
+    }
+
+    private static boolean hasBody(JMethod method) {
+        return !method.isAbstract() || method.isNative();
+    }
+
+    /**
+     * Builds IR for the methods of classes in range [from, to).
+     */
+    private static class BuildClasses extends RecursiveAction {
+
+        private final List<JClass> classes;
+
+        private final int from;
+
+        private final int to;
+
+        private final Progress progress;
+
+        private BuildClasses(List<JClass> classes, int from, int to, Progress progress) {
+            this.classes = classes;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BuildClasses(classes, from, mid, progress),
+                        new BuildClasses(classes, mid, to, progress));
+            } else if (to > from) {
+                for (JMethod method : classes.get(from).getDeclaredMethods()) {
+                    if (hasBody(method)) {
+                        long start = System.nanoTime();
+                        IR ir = method.getIR();
+                        progress.onBuilt(method, ir, System.nanoTime() - start);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Metrics of building IR for all methods.
+     */
+    private static class Progress {
+
+        private final int total;
+
+        private final AtomicInteger built = new AtomicInteger();
+
+        private final LongAdder stmts = new LongAdder();
+
+        private final AtomicLong slowestTime = new AtomicLong(-1);
+
+        private volatile JMethod slowestMethod;
+
+        private Progress(int total) {
+            this.total = total;
+        }
+
+        private void onBuilt(JMethod method, IR ir, long time) {
+            stmts.add(ir.getStmts().size());
+            long slowest;
+            while (time > (slowest = slowestTime.get())) {
+                if (slowestTime.compareAndSet(slowest, time)) {
+                    slowestMethod = method;
+                    break;
+                }
+            }
+            int n = built.incrementAndGet();
+            if (total >= PROGRESS_STEPS && n % (total / PROGRESS_STEPS) == 0
+                    && n < total) {
+                logger.info("Built IR for {}/{} methods", n, total);
+            }
+        }
+    }
+}
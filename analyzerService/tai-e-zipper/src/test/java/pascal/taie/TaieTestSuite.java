@@ -32,7 +32,9 @@ import pascal.taie.analysis.graph.callgraph.cha.CHATestFull;
 import pascal.taie.analysis.pta.PTATestSuite;
 import pascal.taie.analysis.sideeffect.SideEffectTest;
 import pascal.taie.config.OptionsTest;
+import pascal.taie.frontend.asm.AsmFrontendTest;
 import pascal.taie.frontend.cache.SerializationTest;
+import pascal.taie.frontend.soot.SessionTest;
 import pascal.taie.frontend.soot.SootFrontendTest;
 import pascal.taie.language.DefaultMethodTest;
 import pascal.taie.language.FieldTest;
@@ -46,6 +48,8 @@ import pascal.taie.util.UtilTestSuite;
 @SelectClasses({
         // world
         SootFrontendTest.class,
+        AsmFrontendTest.class,
+        SessionTest.class,
         TypeTest.class,
         GSignaturesTest.class,
         HierarchyTest.class,
@@ -50,6 +50,20 @@ public class BasicTestFull extends BasicTest {
     @MultiStringsSource({"NativeModel", "distinguish-string-constants:all"})
     @MultiStringsSource({"Annotations", "cs:1-call",
             "distinguish-string-constants:all"})
+    @MultiStringsSource({"RedBlackBST", "prefetch-ir:true"})
+    @MultiStringsSource({"Cycle", "cycle-elimination:true"})
+    @MultiStringsSource({"LinkedQueue", "cycle-elimination:true"})
+    @MultiStringsSource({"InstanceField", "var-substitution:true"})
+    @MultiStringsSource({"Recursion", "var-substitution:true"})
+    @MultiStringsSource({"LinkedQueue", "work-list:lrf"})
+    @MultiStringsSource({"RedBlackBST", "work-list:topo"})
+    @MultiStringsSource({"ComplexAssign", "work-list:two-phase"})
+    @MultiStringsSource({"RedBlackBST", "solver:parallel", "parallel-threshold:1"})
+    @MultiStringsSource({"MultiArray", "cs-manager:array"})
+    @MultiStringsSource({"LinkedQueue", "points-to-set:shared"})
+    @MultiStringsSource({"Array", "points-to-set:off-heap"})
+    @MultiStringsSource({"LinkedQueue", "points-to-set:off-heap",
+            "solver:parallel", "parallel-threshold:1"})
     void testFull(String mainClass, String... opts) {
         Tests.testPTA(DIR, mainClass, opts);
     }
@@ -31,13 +31,15 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @CommandLine.Command
 public class BenchmarkRunner {
 
-    private static final String BENCHMARK_HOME = "java-benchmarks";
-    private static final String BENCHMARK_INFO = "java-benchmarks/benchmark-info.yml";
+    static final String BENCHMARK_HOME = "java-benchmarks";
+    static final String BENCHMARK_INFO = "java-benchmarks/benchmark-info.yml";
+    static final Set<String> SKIPPED_BENCHMARKS = Set.of("fop", "jython", "briss-0.9");
     private static final Map<String, BenchmarkInfo> benchmarkInfos = BenchmarkInfo.load(BENCHMARK_INFO);
 
     @CommandLine.Option(names = "-cs", defaultValue = "2-type")
@@ -63,8 +65,7 @@ public class BenchmarkRunner {
 
     private void run(BenchmarkInfo info) {
         System.out.println("\nAnalyzing " + info.id());
-        if (Objects.equals(info.id(), "fop") || Objects.equals(info.id(), "jython") ||
-        Objects.equals(info.id(), "briss-0.9")){
+        if (SKIPPED_BENCHMARKS.contains(info.id())) {
             return;
         }
         Main.main(composeArgs(info));
@@ -96,14 +97,14 @@ public class BenchmarkRunner {
         return args.toArray(new String[0]);
     }
 
-    private String buildClassPath(List<String> paths) {
+    static String buildClassPath(List<String> paths) {
         return paths.stream()
-                .map(this::extendCP)
+                .map(BenchmarkRunner::extendCP)
                 .flatMap(List::stream)
                 .collect(Collectors.joining(File.pathSeparator));
     }
 
-    private List<String> extendCP(String path) {
+    private static List<String> extendCP(String path) {
         File file = new File(BENCHMARK_HOME, path);
         List<String> paths = new ArrayList<>();
         if (isJar(file)) {
@@ -0,0 +1,71 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.plugin.BinaryPointsToSets;
+import pascal.taie.analysis.pta.plugin.ResultProcessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinaryPointsToSetsTest {
+
+    private static final String DIR = "src/test/resources/pta/contextsensitivity";
+
+    private static final String EXPECTED = DIR + "/LinkedQueue-pta-expected.txt";
+
+    @Test
+    void testDumpAndLoad() throws IOException {
+        Main.main(getArgs("dump-binary:true;expected-file:" + EXPECTED));
+        File binaryFile = new File(World.get().getOptions().getOutputDir(),
+                ResultProcessor.RESULTS_BINARY_FILE);
+        Map<String, String> loaded = new HashMap<>();
+        BinaryPointsToSets.load(binaryFile).toStrings(loaded);
+        Map<String, String> expected = new HashMap<>();
+        Files.readAllLines(Path.of(EXPECTED)).stream()
+                .filter(line -> line.contains(" -> "))
+                .map(line -> line.split(" -> "))
+                .forEach(s -> expected.put(s[0], s[1]));
+        assertEquals(expected, loaded);
+        // compare results with the binary file
+        Main.main(getArgs("expected-file:" + binaryFile.getPath()));
+    }
+
+    private static String[] getArgs(String ptaOptions) {
+        return new String[]{
+                "-pp",
+                "-cp", DIR,
+                "-m", "LinkedQueue",
+                "-a", "pta=cs:2-obj;implicit-entries:false;only-app:true;" + ptaOptions
+        };
+    }
+}
@@ -43,6 +43,10 @@ public class ContextSensitivityTestFull extends ContextSensitivityTest {
     // Tests for handling of non-normal objects
     @MultiStringsSource({"TypeSens", "cs:2-type"})
     @MultiStringsSource({"SpecialHeapContext", "cs:2-obj"})
+    @MultiStringsSource({"TypeSens", "cs:2-type", "solver:parallel",
+            "parallel-threshold:1"})
+    @MultiStringsSource({"NestedHeap", "cs:2-obj", "cs-manager:array"})
+    @MultiStringsSource({"LongObjContext", "cs:2-obj", "points-to-set:shared"})
     void testFull(String mainClass, String... opts) {
         Tests.testPTA(DIR, mainClass, opts);
     }
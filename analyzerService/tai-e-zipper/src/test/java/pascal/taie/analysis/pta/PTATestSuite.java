@@ -37,6 +37,8 @@ import pascal.taie.analysis.pta.core.cs.context.ContextTest;
         ReflectionTest.class,
         TaintTest.class,
         WorldCacheTest.class,
+        BinaryPointsToSetsTest.class,
+        VarSubstitutionTest.class,
 })
 public class PTATestSuite {
 }
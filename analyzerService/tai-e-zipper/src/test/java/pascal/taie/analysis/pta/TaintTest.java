@@ -45,6 +45,9 @@ public class TaintTest {
     @MultiStringsSource({"CycleTaint", TAINT_CONFIG})
     @MultiStringsSource({"ComplexTaint", TAINT_CONFIG})
     @MultiStringsSource({"SimpleTaint", TAINT_CONFIG})
+    @MultiStringsSource({"SimpleTaint", "var-substitution:true", TAINT_CONFIG})
+    @MultiStringsSource({"SimpleTaint", "cycle-elimination:true", TAINT_CONFIG})
+    @MultiStringsSource({"CycleTaint", "cycle-elimination:true", TAINT_CONFIG})
     @MultiStringsSource({"ArgToResult", TAINT_CONFIG})
     @MultiStringsSource({"BaseToResult", TAINT_CONFIG})
     @MultiStringsSource({"StringAppend", TAINT_CONFIG})
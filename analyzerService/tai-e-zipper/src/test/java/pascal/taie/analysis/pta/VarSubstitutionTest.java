@@ -0,0 +1,171 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.solver.Solver;
+import pascal.taie.analysis.pta.plugin.Plugin;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VarSubstitutionTest {
+
+    private static final String DIR = "basic";
+
+    private static final String MAIN = "VarSubstitution";
+
+    /**
+     * Tests that the variables copied from the same multiple sources
+     * (x and y in VarSubstitution) stay merged during solving, and that
+     * the points-to sets are the same as those without substitution.
+     */
+    @Test
+    void testMultiSourceGroup() {
+        Map<String, String> expected = runPTA("var-substitution:false");
+        Map<String, String> actual = runPTA("var-substitution:true");
+        assertEquals(expected, actual);
+
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        List<CSVar> multiSourceVars = getMultiSourceVars(result.getCSVars());
+        assertTrue(multiSourceVars.size() >= 2,
+                "expected at least two variables copied from multiple sources");
+        CSVar rep = multiSourceVars.get(0);
+        multiSourceVars.forEach(v -> {
+            assertEquals(getCopySources(rep.getVar()), getCopySources(v.getVar()));
+            assertSame(rep.getPointsToSet(), v.getPointsToSet(),
+                    v + " is split from " + rep);
+        });
+    }
+
+    /**
+     * Tests that a filter added to a variable in a group of equivalent
+     * variables (y in VarSubstitution) takes effect only on that variable.
+     */
+    @Test
+    void testFilterOnMergedVar() {
+        Tests.testPTA(false, DIR, MAIN, "var-substitution:true",
+                "plugins:[" + FilterPlugin.class.getName() + "]");
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        List<CSVar> multiSourceVars = getMultiSourceVars(result.getCSVars());
+        CSVar filtered = multiSourceVars.get(multiSourceVars.size() - 1);
+        assertTrue(isEmpty(filtered.getPointsToSet()),
+                "filter on " + filtered + " does not take effect");
+        CSVar other = multiSourceVars.get(0);
+        assertFalse(isEmpty(other.getPointsToSet()),
+                "filter on " + filtered + " is applied to " + other);
+    }
+
+    /**
+     * Adds a filter, which rejects all objects, to the last variable
+     * copied from multiple sources in main method.
+     */
+    public static class FilterPlugin implements Plugin {
+
+        private Solver solver;
+
+        @Override
+        public void setSolver(Solver solver) {
+            this.solver = solver;
+        }
+
+        @Override
+        public void onNewCSMethod(CSMethod csMethod) {
+            JMethod method = csMethod.getMethod();
+            if (method.getDeclaringClass().getName().equals(MAIN)
+                    && method.getName().equals("main")) {
+                List<Var> vars = method.getIR().getVars()
+                        .stream()
+                        .filter(v -> getCopySources(v).size() > 1)
+                        .toList();
+                CSVar var = solver.getCSManager().getCSVar(
+                        csMethod.getContext(), vars.get(vars.size() - 1));
+                solver.addPointerFilter(var, o -> false);
+            }
+        }
+    }
+
+    /**
+     * @return the points-to set of each context-sensitive variable,
+     * keyed and printed by their string representations.
+     */
+    private static Map<String, String> runPTA(String substitution) {
+        Tests.testPTA(false, DIR, MAIN, substitution);
+        PointerAnalysisResult result = World.get().getResult(PointerAnalysis.ID);
+        Map<String, String> pts = new TreeMap<>();
+        result.getCSVars().forEach(v -> {
+            PointsToSet set = v.getPointsToSet();
+            pts.put(v.toString(), set == null ? "[]" : set.objects()
+                    .map(Object::toString)
+                    .sorted()
+                    .toList()
+                    .toString());
+        });
+        return pts;
+    }
+
+    /**
+     * @return the variables copied from multiple sources in main method,
+     * in the order of their indexes.
+     */
+    private static List<CSVar> getMultiSourceVars(Collection<CSVar> csVars) {
+        return csVars.stream()
+                .filter(v -> v.getVar().getMethod().getName().equals("main"))
+                .filter(v -> getCopySources(v.getVar()).size() > 1)
+                .sorted(Comparator.comparingInt(v -> v.getVar().getIndex()))
+                .toList();
+    }
+
+    private static boolean isEmpty(PointsToSet pts) {
+        return pts == null || pts.isEmpty();
+    }
+
+    private static Set<Var> getCopySources(Var var) {
+        MultiMap<Var, Var> sources = Maps.newMultiMap();
+        var.getMethod().getIR().forEach(stmt -> {
+            if (stmt instanceof Copy copy) {
+                sources.put(copy.getLValue(), copy.getRValue());
+            }
+        });
+        return sources.get(var);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta;
+
+import picocli.CommandLine;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.toolkit.zipper.Zipper;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Measures Zipper on the DaCapo 2006 benchmarks under java-benchmarks.
+ * For each benchmark, it runs the context-insensitive pre-analysis once,
+ * then runs Zipper on the result repeatedly, and reports the average time
+ * of Zipper and the number of precision-critical methods it selects.
+ * <p>
+ * Run it from the root of Tai-e, e.g., with arguments
+ * {@code -advanced zipper-e -runs 5 antlr bloat}, which benchmarks
+ * Zipper-e on antlr and bloat (all DaCapo 2006 benchmarks if none is given).
+ */
+@CommandLine.Command
+public class ZipperBenchmark {
+
+    private static final String BENCHMARK_SET = "dacapo-2006/";
+
+    @CommandLine.Option(names = "-java", defaultValue = "0",
+            description = "JDK version of the library (0: the version of each benchmark)")
+    private int jdk;
+
+    @CommandLine.Option(names = "-advanced", defaultValue = "zipper")
+    private String advanced;
+
+    @CommandLine.Option(names = "-warmups", defaultValue = "1")
+    private int warmups;
+
+    @CommandLine.Option(names = "-runs", defaultValue = "3")
+    private int runs;
+
+    @CommandLine.Parameters(arity = "0..*")
+    private List<String> benchmarks = List.of();
+
+    public static void main(String[] args) {
+        ZipperBenchmark benchmark = CommandLine.populateCommand(new ZipperBenchmark(), args);
+        benchmark.runAll();
+    }
+
+    private void runAll() {
+        List<String> rows = new ArrayList<>();
+        rows.add(String.format("%-10s %10s %12s %8s",
+                "benchmark", "#reachable", "Zipper (s)", "#PCMs"));
+        BenchmarkInfo.load(BenchmarkRunner.BENCHMARK_INFO)
+                .values()
+                .stream()
+                .filter(info -> info.apps().stream().allMatch(a -> a.startsWith(BENCHMARK_SET)))
+                .filter(info -> !BenchmarkRunner.SKIPPED_BENCHMARKS.contains(info.id()))
+                .filter(info -> benchmarks.isEmpty() || benchmarks.contains(info.id()))
+                .forEach(info -> rows.add(run(info)));
+        System.out.println();
+        rows.forEach(System.out::println);
+    }
+
+    private String run(BenchmarkInfo info) {
+        System.out.println("\nAnalyzing " + info.id());
+        Main.main(composeArgs(info));
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        for (int i = 0; i < warmups; ++i) {
+            Zipper.run(pta, advanced);
+        }
+        Set<JMethod> pcms = Set.of();
+        long elapsed = 0;
+        for (int i = 0; i < runs; ++i) {
+            long start = System.nanoTime();
+            pcms = Zipper.run(pta, advanced);
+            elapsed += System.nanoTime() - start;
+        }
+        return String.format("%-10s %10d %12.2f %8d", info.id(),
+                pta.getCallGraph().getNumberOfMethods(),
+                elapsed / 1e9 / Math.max(runs, 1), pcms.size());
+    }
+
+    /**
+     * @return arguments of the context-insensitive pre-analysis of Zipper.
+     */
+    private String[] composeArgs(BenchmarkInfo info) {
+        List<String> args = new ArrayList<>();
+        int jdkVersion = jdk != 0 ? jdk : info.jdk();
+        Collections.addAll(args,
+                "-java", Integer.toString(jdkVersion),
+                "-cp", BenchmarkRunner.buildClassPath(info.apps()),
+                "-cp", BenchmarkRunner.buildClassPath(info.libs()),
+                "-m", info.main(),
+                "-a", "pta=cs:ci;only-app:true;distinguish-string-constants:app;" +
+                        "reflection-log:" + new File(BenchmarkRunner.BENCHMARK_HOME,
+                        info.reflectionLog()));
+        if (info.allowPhantom()) {
+            args.add("--allow-phantom");
+        }
+        return args.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.mahjong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Cast;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.language.type.TypeSystem;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MahjongTest {
+
+    private static final String CS = "contextsensitivity";
+
+    /**
+     * Tests that Mahjong does not enlarge the heap of 2-object-sensitive
+     * analysis, and keeps the results of type-dependent clients.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "LinkedQueue",
+            "NestedHeap",
+            "TwoObject",
+    })
+    void testMahjong(String mainClass) {
+        Tests.testPTA(false, CS, mainClass, "cs:2-obj");
+        PointerAnalysisResult plain = World.get().getResult(PointerAnalysis.ID);
+        int plainObjs = plain.getObjects().size();
+        Set<String> plainCasts = getMayFailCasts(plain);
+        Set<String> plainCalls = getPolyCallSites(plain);
+
+        Tests.testPTA(false, CS, mainClass, "cs:2-obj", "advanced:mahjong");
+        PointerAnalysisResult mahjong = World.get().getResult(PointerAnalysis.ID);
+        assertTrue(mahjong.getObjects().size() <= plainObjs,
+                "Mahjong enlarges the heap of " + mainClass);
+        assertEquals(plainCasts, getMayFailCasts(mahjong));
+        assertEquals(plainCalls, getPolyCallSites(mahjong));
+    }
+
+    /**
+     * Tests that Mahjong merges the objects in TwoObject, i.e., the two
+     * lists, as well as the two elements, are type-consistent.
+     */
+    @Test
+    void testMergeTwoObject() {
+        assertTrue(countObjects("TwoObject", "cs:2-obj", "advanced:mahjong")
+                < countObjects("TwoObject", "cs:2-obj"));
+    }
+
+    /**
+     * Tests that the representative allocation sites selected by Mahjong
+     * do not depend on the order in which the pre-analysis reaches them.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "LinkedQueue",
+            "NestedHeap",
+            "TwoObject",
+    })
+    void testRepresentatives(String mainClass) {
+        Map<String, String> expected = runMahjong(mainClass, "work-list:fifo");
+        assertEquals(expected, runMahjong(mainClass, "work-list:fifo"));
+        assertEquals(expected, runMahjong(mainClass, "work-list:lrf"));
+    }
+
+    private static int countObjects(String mainClass, String... opts) {
+        Tests.testPTA(false, CS, mainClass, opts);
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        return pta.getObjects().size();
+    }
+
+    /**
+     * Runs Mahjong on the context-insensitive pre-analysis of given program.
+     *
+     * @return the map from each merged allocation site to its representative,
+     * both of which are printed with their container methods.
+     */
+    private static Map<String, String> runMahjong(String mainClass, String workList) {
+        Tests.testPTA(false, CS, mainClass, workList);
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        Map<String, String> reps = new TreeMap<>();
+        Mahjong.run(pta, "mahjong").forEach((site, rep) ->
+                reps.put(toString(site), toString(rep)));
+        return reps;
+    }
+
+    private static Set<String> getMayFailCasts(PointerAnalysisResult pta) {
+        TypeSystem typeSystem = World.get().getTypeSystem();
+        Set<String> casts = new TreeSet<>();
+        for (JMethod method : pta.getCallGraph()) {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof Cast cast) {
+                    Type castType = cast.getRValue().getCastType();
+                    Var from = cast.getRValue().getValue();
+                    if (pta.getPointsToSet(from).stream().anyMatch(obj ->
+                            !typeSystem.isSubtype(castType, obj.getType()))) {
+                        casts.add(toString(method, stmt));
+                    }
+                }
+            }
+        }
+        return casts;
+    }
+
+    private static Set<String> getPolyCallSites(PointerAnalysisResult pta) {
+        Set<String> callSites = new TreeSet<>();
+        for (JMethod method : pta.getCallGraph()) {
+            for (Stmt stmt : method.getIR()) {
+                if (stmt instanceof Invoke invoke
+                        && (invoke.isVirtual() || invoke.isInterface())
+                        && pta.getCallGraph().getCalleesOf(invoke).size() > 1) {
+                    callSites.add(toString(method, stmt));
+                }
+            }
+        }
+        return callSites;
+    }
+
+    private static String toString(New site) {
+        return toString(site.getContainer(), site);
+    }
+
+    private static String toString(JMethod method, Stmt stmt) {
+        return method.getSignature() + "/" + stmt;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.toolkit.scaler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysis;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScalerTest {
+
+    private static final String CS = "contextsensitivity";
+
+    private static final String MAIN = "LinkedQueue";
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "advanced:scaler",
+            // small TST, which makes Scaler select less precise variants
+            "advanced:scaler=100",
+    })
+    void testScaler(String opt) {
+        Tests.testPTA(false, CS, MAIN, opt);
+    }
+
+    /**
+     * Tests that the estimated cost of each method never decreases
+     * as the variant gets more precise.
+     */
+    @Test
+    void testCosts() {
+        PointerAnalysisResult pta = runPreAnalysis();
+        Scaler scaler = new Scaler(pta, 0);
+        pta.getCallGraph().reachableMethods().forEach(method -> {
+            long[] costs = scaler.computeCosts(method);
+            for (int v = 1; v < costs.length; ++v) {
+                assertTrue(costs[v - 1] >= costs[v], "cost of " + method
+                        + " under " + Scaler.VARIANTS.get(v - 1) + " < cost under "
+                        + Scaler.VARIANTS.get(v));
+            }
+        });
+    }
+
+    /**
+     * Tests that the selected variants follow TST, i.e., the methods
+     * with non-zero costs are analyzed context-insensitively under
+     * a tiny TST, all methods are analyzed by 2-obj under a huge TST,
+     * and the variant of each method never gets less precise
+     * as TST grows.
+     */
+    @Test
+    void testSelectVariants() {
+        PointerAnalysisResult pta = runPreAnalysis();
+        Scaler tiny = new Scaler(pta, 0);
+        Map<JMethod, String> ciMap = tiny.selectVariants();
+        ciMap.forEach((method, variant) -> {
+            long ciCost = tiny.computeCosts(method)[Scaler.VARIANTS.size() - 1];
+            assertEquals(ciCost == 0 ? "2-obj" : "ci", variant, method.toString());
+        });
+        assertTrue(ciMap.containsValue("ci"));
+
+        Map<JMethod, String> objMap = new Scaler(pta, Long.MAX_VALUE).selectVariants();
+        assertFalse(objMap.isEmpty());
+        objMap.values().forEach(variant -> assertEquals("2-obj", variant));
+
+        Map<JMethod, String> prev = ciMap;
+        for (long tst : new long[]{ 100, 10_000, 1_000_000, Long.MAX_VALUE }) {
+            Map<JMethod, String> curr = new Scaler(pta, tst).selectVariants();
+            Map<JMethod, String> last = prev;
+            curr.forEach((method, variant) -> assertTrue(
+                    Scaler.VARIANTS.indexOf(variant)
+                            <= Scaler.VARIANTS.indexOf(last.get(method)),
+                    method + " gets " + variant + " under TST " + tst
+                            + ", less precise than " + last.get(method)));
+            prev = curr;
+        }
+    }
+
+    private static PointerAnalysisResult runPreAnalysis() {
+        Tests.testPTA(false, CS, MAIN);
+        return World.get().getResult(PointerAnalysis.ID);
+    }
+}
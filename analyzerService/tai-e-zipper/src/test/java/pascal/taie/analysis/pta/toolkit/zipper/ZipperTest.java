@@ -32,10 +32,17 @@ import pascal.taie.analysis.graph.flowgraph.ObjectFlowGraph;
 import pascal.taie.analysis.pta.PointerAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultEx;
 import pascal.taie.analysis.pta.toolkit.PointerAnalysisResultExImpl;
+import pascal.taie.analysis.pta.toolkit.util.OAGs;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.graph.DotDumper;
 
 import java.io.File;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ZipperTest {
 
@@ -53,8 +60,9 @@ public class ZipperTest {
     private static void dumpOAG(String main, String... opts) {
         Tests.testPTA(false, CS, main, opts);
         PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        PointerAnalysisResultEx ptaEx = new PointerAnalysisResultExImpl(pta, true);
         ObjectAllocationGraph oag = new ObjectAllocationGraph(
-                new PointerAnalysisResultExImpl(pta, true));
+                ptaEx, OAGs.computeInvokedMethods(ptaEx));
         File output = new File(World.get().getOptions().getOutputDir(), main + "-oag.dot");
         new DotDumper<Obj>().dump(oag, output);
     }
@@ -83,4 +91,43 @@ public class ZipperTest {
     void testPFGBuilder() {
         Tests.testPTA(false, MISC, "Zipper", "advanced:zipper");
     }
+
+    @Test
+    void testSelectPrecisionCriticalMethods() {
+        Tests.testPTA(false, MISC, "Zipper");
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        Set<JMethod> pcms = Zipper.run(pta, "zipper");
+        // Zipper-e only drops the methods selected by Zipper
+        assertTrue(pcms.containsAll(Zipper.run(pta, "zipper-e")));
+    }
+
+    @Test
+    void testPreAnalysisCache() {
+        Tests.testPTA(false, MISC, "Zipper", "advanced:zipper", "cs:2-obj");
+        long nEdges = countCSCallEdges();
+        // the first run may save the methods selected by Zipper,
+        // and the second run reuses them, skipping the pre-analysis
+        for (int i = 0; i < 2; ++i) {
+            Tests.testPTA(false, MISC, "Zipper", "advanced:zipper", "cs:2-obj",
+                    "pre-analysis-cache:true");
+            assertEquals(nEdges, countCSCallEdges());
+        }
+    }
+
+    @Test
+    void testPreAnalysisCacheSharedByVariants() {
+        Tests.testPTA(false, MISC, "Zipper", "advanced:zipper-e", "cs:2-obj");
+        long nEdges = countCSCallEdges();
+        // Zipper-e selects its methods from the groups cached by Zipper
+        Tests.testPTA(false, MISC, "Zipper", "advanced:zipper", "cs:2-obj",
+                "pre-analysis-cache:true");
+        Tests.testPTA(false, MISC, "Zipper", "advanced:zipper-e", "cs:2-obj",
+                "pre-analysis-cache:true");
+        assertEquals(nEdges, countCSCallEdges());
+    }
+
+    private static long countCSCallEdges() {
+        PointerAnalysisResult pta = World.get().getResult(PointerAnalysis.ID);
+        return pta.getCSCallGraph().edges().count();
+    }
 }
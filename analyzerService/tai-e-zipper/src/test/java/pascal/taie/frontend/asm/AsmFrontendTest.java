@@ -0,0 +1,107 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.asm;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.ClassMember;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsmFrontendTest {
+
+    private static final String CP = "src/test/resources/world";
+
+    @Test
+    void testWorldBuilder() {
+        Main.buildWorld("-pp", "-cp", CP, "--input-classes", "DefaultMethod");
+        Map<String, String> sootClasses = getApplicationClasses();
+        buildWorld("DefaultMethod");
+        Map<String, String> asmClasses = getApplicationClasses();
+        assertFalse(sootClasses.isEmpty());
+        sootClasses.forEach((name, desc) ->
+                assertEquals(desc, asmClasses.get(name), name));
+    }
+
+    @Test
+    void testIR() {
+        buildWorld("DefaultMethod");
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract())
+                .forEach(m -> {
+                    IR ir = m.getIR();
+                    assertEquals(m.getParamCount(), ir.getParams().size());
+                    assertTrue(m.isStatic() || ir.getThis() != null);
+                    assertFalse(ir.getStmts().isEmpty());
+                });
+    }
+
+    @Test
+    void testJDKMethod() {
+        buildWorld("DefaultMethod");
+        JMethod method = World.get().getClassHierarchy().getMethod(
+                "<java.lang.String: int indexOf(java.lang.String,int)>");
+        assertNotNull(method);
+        IR ir = method.getIR();
+        assertEquals(2, ir.getParams().size());
+        assertFalse(ir.getStmts().isEmpty());
+    }
+
+    private static void buildWorld(String inputClass) {
+        Main.buildWorld("-pp", "-cp", CP, "--input-classes", inputClass,
+                "--world-builder", AsmWorldBuilder.class.getName());
+    }
+
+    /**
+     * @return name of application classes -> description of its
+     * hierarchy and members.
+     */
+    private static Map<String, String> getApplicationClasses() {
+        return World.get().getClassHierarchy()
+                .applicationClasses()
+                .collect(Collectors.toMap(JClass::getName, c -> String.join("\n",
+                        String.valueOf(c.getSuperClass()),
+                        sorted(c.getInterfaces().stream().map(JClass::getName).toList()),
+                        sorted(c.getDeclaredFields().stream().map(ClassMember::getSignature).toList()),
+                        sorted(c.getDeclaredMethods().stream().map(ClassMember::getSignature).toList()),
+                        String.valueOf(c.getModifiers()))));
+    }
+
+    private static String sorted(List<String> strings) {
+        return strings.stream().sorted().collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.cache;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.config.Options;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SerializationTest {
+
+    private static final String[] ARGS = {
+            "-pp", "-wc",
+            "-cp", "src/test/resources/world",
+            "--input-classes", "AllInOne",
+    };
+
+    @Test
+    void testLoadWorldCache() {
+        File cacheFile = CachedWorldBuilder.getWorldCacheFile(Options.parse(ARGS));
+        cacheFile.delete();
+        try {
+            Main.buildWorld(ARGS);
+            World world1 = World.get();
+            assertTrue(cacheFile.exists());
+            Main.buildWorld(ARGS);
+            World world2 = World.get();
+            assertNotSame(world1, world2);
+            assertTrue(world2.getIRBuilder() instanceof CachedIRBuilder);
+            assertEquals(world1.getClassHierarchy().allClasses().count(),
+                    world2.getClassHierarchy().allClasses().count());
+            JClass c = world2.getClassHierarchy().getClass("AllInOne");
+            for (JMethod m : c.getDeclaredMethods()) {
+                if (!m.isAbstract()) {
+                    JMethod m1 = world1.getClassHierarchy()
+                            .getClass("AllInOne")
+                            .getDeclaredMethod(m.getSubsignature());
+                    assertEquals(m1.getIR().getStmts().toString(),
+                            m.getIR().getStmts().toString());
+                }
+            }
+        } finally {
+            cacheFile.delete();
+        }
+    }
+
+    @Test
+    void testCacheFileDependsOnInputs() {
+        assertNotEquals(CachedWorldBuilder.getWorldCacheFile(Options.parse(ARGS)),
+                CachedWorldBuilder.getWorldCacheFile(Options.parse(
+                        "-pp", "-wc", "-cp", "src/test/resources/world",
+                        "--input-classes", "Annotated")));
+        assertNotEquals(CachedWorldBuilder.getWorldCacheFile(Options.parse(
+                        "-wc", "-cp", "src/test/resources/world",
+                        "--input-classes", "AllInOne", "-java", "7")),
+                CachedWorldBuilder.getWorldCacheFile(Options.parse(
+                        "-wc", "-cp", "src/test/resources/world",
+                        "--input-classes", "AllInOne", "-java", "8")));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.frontend.soot;
+
+import org.junit.jupiter.api.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionTest {
+
+    @Test
+    void testConcurrentSessions() throws Exception {
+        World global = World.get();
+        World[] worlds = new World[2];
+        ExecutorService executor = Executors.newFixedThreadPool(worlds.length);
+        List<Future<?>> results = List.of(
+                executor.submit(() -> buildInSession(worlds, 0, "AllInOne")),
+                executor.submit(() -> buildInSession(worlds, 1, "Annotated")));
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        assertNotSame(worlds[0], worlds[1]);
+        assertNotNull(worlds[0].getClassHierarchy().getClass("AllInOne"));
+        assertNull(worlds[0].getClassHierarchy().getClass("Annotated"));
+        assertNotNull(worlds[1].getClassHierarchy().getClass("Annotated"));
+        assertNull(worlds[1].getClassHierarchy().getClass("AllInOne"));
+        // sessions do not touch the global world
+        assertSame(global, World.get());
+    }
+
+    @Test
+    void testConcurrentParallelStreams() throws Exception {
+        World global = World.get();
+        int nSessions = 2;
+        // makes both sessions run their parallel streams at the same time
+        CyclicBarrier barrier = new CyclicBarrier(nSessions);
+        ExecutorService executor = Executors.newFixedThreadPool(nSessions);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < nSessions; ++i) {
+            results.add(executor.submit(() -> {
+                AtomicBoolean isolated = new AtomicBoolean(true);
+                World.runInSession(() -> {
+                    Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                            "--input-classes", "AllInOne");
+                    World world = World.get();
+                    await(barrier);
+                    IntStream.range(0, 10_000).parallel().forEach(j -> {
+                        if (World.get() != world) {
+                            isolated.set(false);
+                        }
+                    });
+                    // threads started in a session do not inherit it
+                    Thread thread = new Thread(() -> {
+                        if (World.get() != global) {
+                            isolated.set(false);
+                        }
+                    });
+                    thread.start();
+                    join(thread);
+                }, 4);
+                return isolated.get();
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executor.shutdown();
+        assertSame(global, World.get());
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void buildInSession(World[] worlds, int i, String inputClass) {
+        World.runInSession(() -> {
+            Main.buildWorld("-pp", "-cp", "src/test/resources/world",
+                    "--input-classes", inputClass);
+            worlds[i] = World.get();
+        }, 1);
+    }
+}
@@ -0,0 +1,37 @@
+public class VarSubstitution {
+
+    public static void main(String[] args) {
+        A a1 = new A();
+        A a2 = new A();
+        A x;
+        A y;
+        if (args.length > 0) {
+            x = a1;
+            y = a1;
+        } else {
+            x = a2;
+            y = a2;
+        }
+        x.set(new B());
+        B b1 = y.get();
+        A z = y;
+        z.set(new B());
+        B b2 = x.get();
+    }
+}
+
+class A {
+
+    B f;
+
+    void set(B b) {
+        this.f = b;
+    }
+
+    B get() {
+        return f;
+    }
+}
+
+class B {
+}